@@ -0,0 +1,949 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+
+/**
+ * An {@link OWLAxiomProcessor} that builds an in-memory index of class
+ * assertions with atomic classes, object property assertions, and
+ * declarations of individuals, which supports fast lookups of the assertions
+ * for individuals, classes, and properties. Individuals, classes, and
+ * properties are assigned numbers on their first occurrence, and the
+ * assertions are stored as arrays of such numbers sorted for each lookup.
+ * The IRIs are stored in a compressed form using an {@link IriDictionary};
+ * a class and an individual with the same IRI share the stored IRI. The
+ * arrays are (re-)built on the first lookup after new assertions have been
+ * processed; duplicate assertions are removed at this point. Object property
+ * assertions with inverse properties are stored as the equivalent assertions
+ * with named properties. All other axioms, including annotated assertions
+ * and declarations, are passed to a separate {@link OWLAxiomProcessor}.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class AboxIndex implements OWLAxiomProcessor {
+
+	/**
+	 * The factory used to create the returned axioms
+	 */
+	private final OWLDataFactory factory_;
+
+	/**
+	 * The processor for axioms that cannot be indexed
+	 */
+	private final OWLAxiomProcessor otherAxiomProcessor_;
+
+	/**
+	 * Stores the IRIs of all individuals, classes, and properties
+	 */
+	private final IriDictionary iris_ = new IriDictionary();
+
+	private final Dictionary<OWLIndividual> individuals_ = new Dictionary<OWLIndividual>(
+			iris_) {
+
+		@Override
+		IRI getIRI(OWLIndividual individual) {
+			return individual.isNamed() ? individual.asOWLNamedIndividual()
+					.getIRI() : null;
+		}
+
+		@Override
+		OWLIndividual create(IRI iri) {
+			return factory_.getOWLNamedIndividual(iri);
+		}
+
+	};
+
+	private final Dictionary<OWLClass> classes_ = new Dictionary<OWLClass>(
+			iris_) {
+
+		@Override
+		IRI getIRI(OWLClass owlClass) {
+			return owlClass.getIRI();
+		}
+
+		@Override
+		OWLClass create(IRI iri) {
+			return factory_.getOWLClass(iri);
+		}
+
+	};
+
+	private final Dictionary<OWLObjectProperty> properties_ = new Dictionary<OWLObjectProperty>(
+			iris_) {
+
+		@Override
+		IRI getIRI(OWLObjectProperty property) {
+			return property.getIRI();
+		}
+
+		@Override
+		OWLObjectProperty create(IRI iri) {
+			return factory_.getOWLObjectProperty(iri);
+		}
+
+	};
+
+	/**
+	 * The numbers of the declared individuals in the order of declaration
+	 */
+	private final IntList declarations_ = new IntList();
+
+	/**
+	 * The numbers of the declared individuals
+	 */
+	private final BitSet declared_ = new BitSet();
+
+	/**
+	 * The numbers of individuals and classes of the class assertions in the
+	 * order of processing
+	 */
+	private final IntList typeIndividuals_ = new IntList(),
+			typeClasses_ = new IntList();
+
+	/**
+	 * The numbers of subjects, properties, and objects of the object property
+	 * assertions in the order of processing
+	 */
+	private final IntList edgeSubjects_ = new IntList(),
+			edgeProperties_ = new IntList(), edgeObjects_ = new IntList();
+
+	/**
+	 * The arrays for lookups, or {@code null} if they need to be (re-)built
+	 */
+	private Adjacency typesOf_, instancesOf_, forward_, inverse_, byProperty_;
+
+	/**
+	 * @param factory
+	 *            the factory used to create the returned axioms
+	 * @param otherAxiomProcessor
+	 *            the processor for axioms that cannot be indexed
+	 */
+	public AboxIndex(OWLDataFactory factory,
+			OWLAxiomProcessor otherAxiomProcessor) {
+		this.factory_ = factory;
+		this.otherAxiomProcessor_ = otherAxiomProcessor;
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		if (!axiom.getAnnotations().isEmpty()) {
+			// annotations cannot be stored in the index
+			otherAxiomProcessor_.process(axiom);
+			return;
+		}
+		// else
+		if (axiom instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom assertion = (OWLClassAssertionAxiom) axiom;
+			OWLClassExpression type = assertion.getClassExpression();
+			if (!type.isAnonymous()) {
+				typeIndividuals_.add(individuals_.getId(assertion
+						.getIndividual()));
+				typeClasses_.add(classes_.getId(type.asOWLClass()));
+				typesOf_ = null;
+				return;
+			}
+		} else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+			OWLObjectPropertyExpression property = assertion.getProperty();
+			OWLIndividual subject = assertion.getSubject();
+			OWLIndividual object = assertion.getObject();
+			if (property.isAnonymous()) {
+				subject = assertion.getObject();
+				object = assertion.getSubject();
+			}
+			edgeSubjects_.add(individuals_.getId(subject));
+			edgeProperties_.add(properties_.getId(property
+					.getNamedProperty()));
+			edgeObjects_.add(individuals_.getId(object));
+			forward_ = null;
+			return;
+		} else if (axiom instanceof OWLDeclarationAxiom) {
+			OWLEntity entity = ((OWLDeclarationAxiom) axiom).getEntity();
+			if (entity.isOWLNamedIndividual()) {
+				int id = individuals_.getId(entity.asOWLNamedIndividual());
+				if (!declared_.get(id)) {
+					declared_.set(id);
+					declarations_.add(id);
+				}
+				return;
+			}
+		}
+		// else
+		otherAxiomProcessor_.process(axiom);
+	}
+
+	/**
+	 * @return the number of different individuals in the index
+	 */
+	public int getIndividualCount() {
+		return individuals_.size();
+	}
+
+	/**
+	 * @return the number of different indexed class and object property
+	 *         assertions
+	 */
+	public int getAssertionCount() {
+		return getClassAssertionAxioms().size()
+				+ getObjectPropertyAssertionAxioms().size();
+	}
+
+	/**
+	 * @return the classes of the class assertions for the given individual
+	 */
+	public List<OWLClass> getTypes(OWLIndividual individual) {
+		ensureTypesBuilt();
+		return typesOf_.getValues(individuals_.find(individual), classes_);
+	}
+
+	/**
+	 * @return the individuals of the class assertions for the given class
+	 */
+	public List<OWLIndividual> getInstances(OWLClass owlClass) {
+		ensureTypesBuilt();
+		return instancesOf_.getValues(classes_.find(owlClass), individuals_);
+	}
+
+	/**
+	 * @return the objects of the object property assertions with the given
+	 *         subject and property, which can be inverse
+	 */
+	public List<OWLIndividual> getObjects(OWLIndividual subject,
+			OWLObjectPropertyExpression property) {
+		ensureEdgesBuilt();
+		int subjectId = individuals_.find(subject);
+		int propertyId = properties_.find(property.getNamedProperty());
+		Adjacency adjacency = property.isAnonymous() ? inverse_ : forward_;
+		return adjacency.getValues(subjectId, propertyId, individuals_);
+	}
+
+	/**
+	 * @return the different subjects of the object property assertions with
+	 *         the given property
+	 */
+	public List<OWLIndividual> getSubjects(OWLObjectProperty property) {
+		ensureEdgesBuilt();
+		return byProperty_.getDistinctKeys(properties_.find(property),
+				individuals_);
+	}
+
+	/**
+	 * @return all indexed assertions in which the given individual occurs: the
+	 *         class assertions, the object property assertions in which it is
+	 *         the subject, and the object property assertions in which it is
+	 *         the object
+	 */
+	public List<OWLAxiom> getAssertions(OWLIndividual individual) {
+		List<OWLAxiom> result = new ArrayList<OWLAxiom>();
+		result.addAll(getClassAssertionAxioms(individual));
+		result.addAll(getObjectPropertyAssertionAxioms(individual));
+		ensureEdgesBuilt();
+		int id = individuals_.find(individual);
+		if (id < 0)
+			return result;
+		// else
+		for (int i = inverse_.offsets_[id]; i < inverse_.offsets_[id + 1]; i++) {
+			result.add(factory_.getOWLObjectPropertyAssertionAxiom(
+					properties_.get(inverse_.keys_[i]),
+					individuals_.get(inverse_.values_[i]), individual));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the indexed class assertions for the given individual
+	 */
+	public List<OWLClassAssertionAxiom> getClassAssertionAxioms(
+			OWLIndividual individual) {
+		List<OWLClassAssertionAxiom> result = new ArrayList<OWLClassAssertionAxiom>();
+		for (OWLClass type : getTypes(individual)) {
+			result.add(factory_.getOWLClassAssertionAxiom(type, individual));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the indexed class assertions for the given class
+	 */
+	public List<OWLClassAssertionAxiom> getClassAssertionAxioms(
+			OWLClass owlClass) {
+		List<OWLClassAssertionAxiom> result = new ArrayList<OWLClassAssertionAxiom>();
+		for (OWLIndividual instance : getInstances(owlClass)) {
+			result.add(factory_.getOWLClassAssertionAxiom(owlClass, instance));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the indexed object property assertions with the given subject
+	 */
+	public List<OWLObjectPropertyAssertionAxiom> getObjectPropertyAssertionAxioms(
+			OWLIndividual subject) {
+		ensureEdgesBuilt();
+		List<OWLObjectPropertyAssertionAxiom> result = new ArrayList<OWLObjectPropertyAssertionAxiom>();
+		int id = individuals_.find(subject);
+		if (id < 0)
+			return result;
+		// else
+		for (int i = forward_.offsets_[id]; i < forward_.offsets_[id + 1]; i++) {
+			result.add(factory_.getOWLObjectPropertyAssertionAxiom(
+					properties_.get(forward_.keys_[i]), subject,
+					individuals_.get(forward_.values_[i])));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the indexed object property assertions with the given property
+	 */
+	public List<OWLObjectPropertyAssertionAxiom> getObjectPropertyAssertionAxioms(
+			OWLObjectProperty property) {
+		ensureEdgesBuilt();
+		List<OWLObjectPropertyAssertionAxiom> result = new ArrayList<OWLObjectPropertyAssertionAxiom>();
+		int id = properties_.find(property);
+		if (id < 0)
+			return result;
+		// else
+		for (int i = byProperty_.offsets_[id]; i < byProperty_.offsets_[id + 1]; i++) {
+			result.add(factory_.getOWLObjectPropertyAssertionAxiom(property,
+					individuals_.get(byProperty_.keys_[i]),
+					individuals_.get(byProperty_.values_[i])));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the read-only view of the declarations of individuals in the
+	 *         order in which they were processed
+	 */
+	public List<OWLDeclarationAxiom> getDeclarationAxioms() {
+		return new AbstractList<OWLDeclarationAxiom>() {
+
+			@Override
+			public OWLDeclarationAxiom get(int index) {
+				return factory_.getOWLDeclarationAxiom(individuals_.get(
+						declarations_.get(index)).asOWLNamedIndividual());
+			}
+
+			@Override
+			public int size() {
+				return declarations_.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return AboxIndex.this.contains(o);
+			}
+
+		};
+	}
+
+	/**
+	 * @return the read-only view of all indexed class assertions
+	 */
+	public List<OWLClassAssertionAxiom> getClassAssertionAxioms() {
+		ensureTypesBuilt();
+		return new AbstractList<OWLClassAssertionAxiom>() {
+
+			@Override
+			public OWLClassAssertionAxiom get(int index) {
+				return factory_.getOWLClassAssertionAxiom(
+						classes_.get(typesOf_.values_[index]),
+						individuals_.get(typesOf_.getNumber(index)));
+			}
+
+			@Override
+			public int size() {
+				return typesOf_.values_.length;
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return AboxIndex.this.contains(o);
+			}
+
+		};
+	}
+
+	/**
+	 * @return the read-only view of all indexed object property assertions
+	 */
+	public List<OWLObjectPropertyAssertionAxiom> getObjectPropertyAssertionAxioms() {
+		ensureEdgesBuilt();
+		return new AbstractList<OWLObjectPropertyAssertionAxiom>() {
+
+			@Override
+			public OWLObjectPropertyAssertionAxiom get(int index) {
+				return factory_.getOWLObjectPropertyAssertionAxiom(
+						properties_.get(forward_.keys_[index]),
+						individuals_.get(forward_.getNumber(index)),
+						individuals_.get(forward_.values_[index]));
+			}
+
+			@Override
+			public int size() {
+				return forward_.values_.length;
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return AboxIndex.this.contains(o);
+			}
+
+		};
+	}
+
+	/**
+	 * @return {@code true} if the given object is a declaration of an
+	 *         individual, a class assertion with an atomic class, or an object
+	 *         property assertion without annotations that is in the index
+	 */
+	public boolean contains(Object object) {
+		if (!(object instanceof OWLAxiom)
+				|| !((OWLAxiom) object).getAnnotations().isEmpty())
+			return false;
+		// else
+		if (object instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom assertion = (OWLClassAssertionAxiom) object;
+			OWLClassExpression type = assertion.getClassExpression();
+			if (type.isAnonymous())
+				return false;
+			// else
+			ensureTypesBuilt();
+			return typesOf_.contains(
+					individuals_.find(assertion.getIndividual()), -1,
+					classes_.find(type.asOWLClass()));
+		}
+		if (object instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) object;
+			return getObjects(assertion.getSubject(), assertion.getProperty())
+					.contains(assertion.getObject());
+		}
+		if (object instanceof OWLDeclarationAxiom) {
+			OWLEntity entity = ((OWLDeclarationAxiom) object).getEntity();
+			return entity.isOWLNamedIndividual() && isDeclared(entity);
+		}
+		// else
+		return false;
+	}
+
+	/**
+	 * @return {@code true} if the given entity is an individual whose
+	 *         declaration is in the index
+	 */
+	public boolean isDeclared(OWLEntity entity) {
+		if (!entity.isOWLNamedIndividual())
+			return false;
+		// else
+		int id = individuals_.find(entity.asOWLNamedIndividual());
+		return id >= 0 && declared_.get(id);
+	}
+
+	/**
+	 * @return the read-only view of the individuals that occur in the index
+	 */
+	public List<OWLIndividual> getIndividuals() {
+		return individuals_.getElements();
+	}
+
+	/**
+	 * @return the read-only view of the classes that occur in the index
+	 */
+	public List<OWLClass> getClasses() {
+		return classes_.getElements();
+	}
+
+	/**
+	 * @return the read-only view of the object properties that occur in the
+	 *         index
+	 */
+	public List<OWLObjectProperty> getObjectProperties() {
+		return properties_.getElements();
+	}
+
+	/**
+	 * @return {@code true} if the given object is an individual, a class, or
+	 *         an object property that occurs in the index
+	 */
+	public boolean containsInSignature(Object object) {
+		if (object instanceof OWLIndividual)
+			return individuals_.find((OWLIndividual) object) >= 0;
+		if (object instanceof OWLClass)
+			return classes_.find((OWLClass) object) >= 0;
+		if (object instanceof OWLObjectProperty)
+			return properties_.find((OWLObjectProperty) object) >= 0;
+		// else
+		return false;
+	}
+
+	private void ensureTypesBuilt() {
+		if (typesOf_ != null
+				&& typesOf_.offsets_.length == individuals_.size() + 1)
+			return;
+		// else
+		int size = typeIndividuals_.size();
+		int[] individuals = typeIndividuals_.toArray();
+		int[] classes = typeClasses_.toArray();
+		typesOf_ = new Adjacency(individuals, individuals_.size(), null, 0,
+				classes, classes_.size(), size);
+		instancesOf_ = new Adjacency(classes, classes_.size(), null, 0,
+				individuals, individuals_.size(), size);
+	}
+
+	private void ensureEdgesBuilt() {
+		if (forward_ != null
+				&& forward_.offsets_.length == individuals_.size() + 1)
+			return;
+		// else
+		int size = edgeSubjects_.size();
+		int[] subjects = edgeSubjects_.toArray();
+		int[] properties = edgeProperties_.toArray();
+		int[] objects = edgeObjects_.toArray();
+		int individualCount = individuals_.size();
+		int propertyCount = properties_.size();
+		forward_ = new Adjacency(subjects, individualCount, properties,
+				propertyCount, objects, individualCount, size);
+		inverse_ = new Adjacency(objects, individualCount, properties,
+				propertyCount, subjects, individualCount, size);
+		byProperty_ = new Adjacency(properties, propertyCount, subjects,
+				individualCount, objects, individualCount, size);
+	}
+
+	/**
+	 * Assigns consecutive numbers to objects. The objects that have IRIs are
+	 * not kept, but created from their IRIs, which are stored in an
+	 * {@link IriDictionary}, when requested.
+	 * 
+	 * @author "Yevgeny Kazakov"
+	 * 
+	 * @param <T>
+	 *            the type of the objects
+	 */
+	static abstract class Dictionary<T> {
+
+		private final IriDictionary iris_;
+
+		/**
+		 * For every number of an object, the number of its IRI multiplied by
+		 * two, or the position in {@link #others_} multiplied by two plus one
+		 * if the object has no IRI
+		 */
+		private final IntList codes_ = new IntList();
+
+		/**
+		 * For every number of an IRI, the number of the object with this IRI
+		 * increased by one, or 0 if there is no such object
+		 */
+		private int[] idsOfIris_ = new int[16];
+
+		/**
+		 * The objects without IRIs with their numbers
+		 */
+		private final Map<T, Integer> otherIds_ = new HashMap<T, Integer>();
+
+		private final List<T> others_ = new ArrayList<T>();
+
+		Dictionary(IriDictionary iris) {
+			this.iris_ = iris;
+		}
+
+		/**
+		 * @return the IRI of the given object, or {@code null} if it has no
+		 *         IRI
+		 */
+		abstract IRI getIRI(T element);
+
+		/**
+		 * @return the object with the given IRI
+		 */
+		abstract T create(IRI iri);
+
+		/**
+		 * @return the number of the given object, assigning a new one if
+		 *         necessary
+		 */
+		int getId(T element) {
+			IRI iri = getIRI(element);
+			if (iri == null) {
+				Integer id = otherIds_.get(element);
+				if (id != null)
+					return id;
+				// else
+				id = codes_.size();
+				otherIds_.put(element, id);
+				codes_.add((others_.size() << 1) | 1);
+				others_.add(element);
+				return id;
+			}
+			// else
+			int iriId = iris_.getId(iri);
+			if (iriId >= idsOfIris_.length)
+				idsOfIris_ = Arrays.copyOf(idsOfIris_,
+						Math.max(idsOfIris_.length << 1, iriId + 1));
+			if (idsOfIris_[iriId] != 0)
+				return idsOfIris_[iriId] - 1;
+			// else
+			int id = codes_.size();
+			codes_.add(iriId << 1);
+			idsOfIris_[iriId] = id + 1;
+			return id;
+		}
+
+		/**
+		 * @return the number of the given object, or -1 if it has no number
+		 */
+		int find(T element) {
+			IRI iri = getIRI(element);
+			if (iri == null) {
+				Integer id = otherIds_.get(element);
+				return id == null ? -1 : id;
+			}
+			// else
+			int iriId = iris_.find(iri);
+			if (iriId < 0 || iriId >= idsOfIris_.length)
+				return -1;
+			// else
+			return idsOfIris_[iriId] - 1;
+		}
+
+		T get(int id) {
+			int code = codes_.get(id);
+			if ((code & 1) == 0)
+				return create(iris_.get(code >>> 1));
+			// else
+			return others_.get(code >>> 1);
+		}
+
+		int size() {
+			return codes_.size();
+		}
+
+		/**
+		 * @return the read-only view of the objects ordered by their numbers
+		 */
+		List<T> getElements() {
+			return new AbstractList<T>() {
+
+				@Override
+				public T get(int index) {
+					if (index < 0 || index >= size())
+						throw new IndexOutOfBoundsException("Index: " + index);
+					// else
+					return Dictionary.this.get(index);
+				}
+
+				@Override
+				public int size() {
+					return Dictionary.this.size();
+				}
+
+			};
+		}
+
+	}
+
+	/**
+	 * A growable array of {@code int}s
+	 * 
+	 * @author "Yevgeny Kazakov"
+	 * 
+	 */
+	static class IntList {
+
+		private int[] data_ = new int[16];
+
+		private int size_ = 0;
+
+		void add(int value) {
+			if (size_ == data_.length)
+				data_ = Arrays.copyOf(data_, size_ << 1);
+			data_[size_++] = value;
+		}
+
+		int get(int index) {
+			return data_[index];
+		}
+
+		int size() {
+			return size_;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(data_, size_);
+		}
+
+	}
+
+	/**
+	 * Associates with numbers from {@code 0} to some maximum the lists of
+	 * pairs of a key and a value, sorted by keys and values, in which the keys
+	 * can be absent. The pairs for number {@code n} are stored in
+	 * {@link #keys_} and {@link #values_} from position {@code offsets_[n]}
+	 * (inclusively) to position {@code offsets_[n + 1]} (exclusively).
+	 * 
+	 * @author "Yevgeny Kazakov"
+	 * 
+	 */
+	static class Adjacency {
+
+		final int[] offsets_, keys_, values_;
+
+		/**
+		 * Creates the lists for the given triples of a number, a key, and a
+		 * value, removing duplicate triples
+		 * 
+		 * @param numbers
+		 *            the numbers of the triples, between {@code 0} and
+		 *            {@code numberCount - 1}
+		 * @param numberCount
+		 *            the number of different numbers
+		 * @param keys
+		 *            the keys of the triples between {@code 0} and
+		 *            {@code keyCount - 1}, or {@code null} if the triples
+		 *            have no keys
+		 * @param keyCount
+		 *            the number of different keys
+		 * @param values
+		 *            the values of the triples between {@code 0} and
+		 *            {@code valueCount - 1}
+		 * @param valueCount
+		 *            the number of different values
+		 * @param size
+		 *            the number of triples
+		 */
+		Adjacency(int[] numbers, int numberCount, int[] keys, int keyCount,
+				int[] values, int valueCount, int size) {
+			int[] order = new int[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			order = sort(order, values, valueCount);
+			if (keys != null)
+				order = sort(order, keys, keyCount);
+			order = sort(order, numbers, numberCount);
+			int[] resultKeys = keys == null ? null : new int[size];
+			int[] resultValues = new int[size];
+			this.offsets_ = new int[numberCount + 1];
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				int position = order[i];
+				if (i > 0) {
+					int previous = order[i - 1];
+					if (numbers[position] == numbers[previous]
+							&& values[position] == values[previous]
+							&& (keys == null || keys[position] == keys[previous]))
+						// duplicate
+						continue;
+				}
+				offsets_[numbers[position] + 1]++;
+				if (keys != null)
+					resultKeys[count] = keys[position];
+				resultValues[count++] = values[position];
+			}
+			for (int n = 0; n < numberCount; n++) {
+				offsets_[n + 1] += offsets_[n];
+			}
+			this.keys_ = keys == null ? null : Arrays.copyOf(resultKeys, count);
+			this.values_ = Arrays.copyOf(resultValues, count);
+		}
+
+		/**
+		 * @return the given positions stably sorted by the given numbers
+		 *         using counting sort
+		 */
+		static int[] sort(int[] order, int[] numbers, int numberCount) {
+			int[] next = new int[numberCount + 1];
+			for (int position : order) {
+				next[numbers[position] + 1]++;
+			}
+			for (int n = 0; n < numberCount; n++) {
+				next[n + 1] += next[n];
+			}
+			int[] result = new int[order.length];
+			for (int position : order) {
+				result[next[numbers[position]]++] = position;
+			}
+			return result;
+		}
+
+		/**
+		 * @return the number for which the pair at the given position is
+		 *         stored
+		 */
+		int getNumber(int position) {
+			int from = 0, to = offsets_.length - 1;
+			// find the last number whose pairs start at or before position
+			while (from < to) {
+				int middle = (from + to + 1) >>> 1;
+				if (offsets_[middle] <= position)
+					from = middle;
+				else
+					to = middle - 1;
+			}
+			return from;
+		}
+
+		/**
+		 * @return {@code true} if the pair of the given key and value is
+		 *         stored for the given number; the key is ignored if the
+		 *         pairs have no keys
+		 */
+		boolean contains(int number, int key, int value) {
+			if (number < 0 || value < 0)
+				return false;
+			// else
+			int from = offsets_[number], to = offsets_[number + 1];
+			if (keys_ != null) {
+				if (key < 0)
+					return false;
+				// else
+				from = lowerBound(keys_, from, to, key);
+				to = lowerBound(keys_, from, to, key + 1);
+			}
+			int position = lowerBound(values_, from, to, value);
+			return position < to && values_[position] == value;
+		}
+
+		/**
+		 * @return the values for the given number translated using the given
+		 *         dictionary
+		 */
+		<T> List<T> getValues(int number, Dictionary<T> dictionary) {
+			if (number < 0)
+				return Collections.emptyList();
+			// else
+			return new Values<T>(dictionary, values_, offsets_[number],
+					offsets_[number + 1]);
+		}
+
+		/**
+		 * @return the values for the given number and key translated using
+		 *         the given dictionary
+		 */
+		<T> List<T> getValues(int number, int key, Dictionary<T> dictionary) {
+			if (number < 0 || key < 0)
+				return Collections.emptyList();
+			// else
+			int from = offsets_[number], to = offsets_[number + 1];
+			int start = lowerBound(keys_, from, to, key);
+			return new Values<T>(dictionary, values_, start, lowerBound(keys_,
+					start, to, key + 1));
+		}
+
+		/**
+		 * @return the different keys for the given number translated using the
+		 *         given dictionary
+		 */
+		<T> List<T> getDistinctKeys(int number, Dictionary<T> dictionary) {
+			List<T> result = new ArrayList<T>();
+			if (number < 0)
+				return result;
+			// else
+			for (int i = offsets_[number]; i < offsets_[number + 1]; i++) {
+				if (i == offsets_[number] || keys_[i] != keys_[i - 1])
+					result.add(dictionary.get(keys_[i]));
+			}
+			return result;
+		}
+
+		/**
+		 * @return the first position between {@code from} and {@code to} in
+		 *         the given sorted array with the element greater or equal to
+		 *         the given one
+		 */
+		private static int lowerBound(int[] array, int from, int to,
+				int element) {
+			while (from < to) {
+				int middle = (from + to) >>> 1;
+				if (array[middle] < element)
+					from = middle + 1;
+				else
+					to = middle;
+			}
+			return from;
+		}
+
+	}
+
+	/**
+	 * A read-only view of a range of an array of numbers translated using a
+	 * {@link Dictionary}
+	 * 
+	 * @author "Yevgeny Kazakov"
+	 * 
+	 * @param <T>
+	 *            the type of the elements
+	 */
+	static class Values<T> extends AbstractList<T> {
+
+		private final Dictionary<T> dictionary_;
+
+		private final int[] numbers_;
+
+		private final int from_, to_;
+
+		Values(Dictionary<T> dictionary, int[] numbers, int from, int to) {
+			this.dictionary_ = dictionary;
+			this.numbers_ = numbers;
+			this.from_ = from;
+			this.to_ = to;
+		}
+
+		@Override
+		public T get(int index) {
+			if (index < 0 || index >= to_ - from_)
+				throw new IndexOutOfBoundsException("Index: " + index);
+			// else
+			return dictionary_.get(numbers_[from_ + index]);
+		}
+
+		@Override
+		public int size() {
+			return to_ - from_;
+		}
+
+	}
+
+}
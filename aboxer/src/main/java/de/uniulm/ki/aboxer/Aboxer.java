@@ -22,13 +22,17 @@ package de.uniulm.ki.aboxer;
  * #L%
  */
 
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 
-import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLAxiomVisitor;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
-import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,26 +65,226 @@ public class Aboxer {
 	 */
 	public static OWLOntology aboxify(OWLOntology inputOntology)
 			throws OWLOntologyCreationException {
+		return aboxify(inputOntology, false);
+	}
+
+	/**
+	 * Converts axioms in the given ontology to assertions as in
+	 * {@link #aboxify(OWLOntology)}, optionally sharing anonymous individuals
+	 * between occurrences of the same existential restriction for the same
+	 * individual. For example, if the ontology contains axioms SubClassOf(:A
+	 * ObjectSomeValuesFrom(:r ObjectIntersectionOf(:B :C))) and SubClassOf(:A
+	 * ObjectIntersectionOf(:D ObjectSomeValuesFrom(:r ObjectIntersectionOf(:C
+	 * :B)))), then the assertions ObjectPropertyAssertion(:r :a _i),
+	 * ClassAssertion(:B _i), and ClassAssertion(:C _i) are produced only once.
+	 * This does not change the entailments of the resulting ontology.
+	 * 
+	 * @param inputOntology
+	 *            the ontology in which axioms should be (partially) replaced
+	 *            with assertions
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared
+	 * @return the ontology that is obtained as the result of replacement; the
+	 *         original ontology is not modified
+	 * @throws OWLOntologyCreationException
+	 *             if the resulting ontology cannot be created
+	 */
+	public static OWLOntology aboxify(OWLOntology inputOntology,
+			boolean shareWitnesses) throws OWLOntologyCreationException {
+		OntologyProducerProcessor ontologyProducer = new OntologyProducerProcessor(
+				inputOntology.getOWLOntologyManager());
+		aboxify(inputOntology, ontologyProducer, shareWitnesses);
+		return ontologyProducer.getOntology();
+	}
+
+	/**
+	 * Converts axioms in the given ontology to assertions as in
+	 * {@link #aboxify(OWLOntology, boolean)}, but stores the result in a
+	 * {@link CompactAboxOntology}, which uses much less memory if most of the
+	 * resulting axioms are assertions.
+	 * 
+	 * @param inputOntology
+	 *            the ontology in which axioms should be (partially) replaced
+	 *            with assertions
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared
+	 * @return the read-only ontology that is obtained as the result of
+	 *         replacement; the original ontology is not modified
+	 */
+	public static CompactAboxOntology aboxifyCompact(
+			OWLOntology inputOntology, boolean shareWitnesses) {
+		CompactAboxOntology result = new CompactAboxOntology(
+				inputOntology.getOWLOntologyManager());
+		aboxify(inputOntology, result, shareWitnesses);
+		return result;
+	}
+
+	/**
+	 * Converts axioms in the given ontology to assertions as in
+	 * {@link #aboxify(OWLOntology, boolean)}, but instead of creating a new
+	 * ontology, passes all resulting axioms to the given
+	 * {@link OWLAxiomProcessor}.
+	 * 
+	 * @param inputOntology
+	 *            the ontology in which axioms should be (partially) replaced
+	 *            with assertions
+	 * @param outputProcessor
+	 *            the {@link OWLAxiomProcessor} that receives the axioms of the
+	 *            result; it may receive the same axiom several times
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared
+	 */
+	public static void aboxify(OWLOntology inputOntology,
+			OWLAxiomProcessor outputProcessor, boolean shareWitnesses) {
+		aboxify(new OntologyAxiomSource(inputOntology), inputOntology
+				.getOWLOntologyManager().getOWLDataFactory(), outputProcessor,
+				shareWitnesses);
+	}
+
+	/**
+	 * Converts axioms from the given {@link OWLAxiomSource} to assertions as
+	 * in {@link #aboxify(OWLOntology, OWLAxiomProcessor, boolean)}. The axioms
+	 * are read from the source twice, once for every pass of the conversion.
+	 * 
+	 * @param input
+	 *            the source of axioms that should be (partially) replaced
+	 *            with assertions
+	 * @param factory
+	 *            the factory used to create the new axioms
+	 * @param outputProcessor
+	 *            the {@link OWLAxiomProcessor} that receives the axioms of the
+	 *            result; it may receive the same axiom several times
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared
+	 */
+	public static void aboxify(OWLAxiomSource input, OWLDataFactory factory,
+			OWLAxiomProcessor outputProcessor, boolean shareWitnesses) {
 		LOGGER_.info("Computing blacklisted classes...");
 		Blacklister blacklister = new Blacklister();
 		// first pass over axioms
-		for (OWLAxiom axiom : inputOntology.getAxioms()) {
-			axiom.accept(blacklister);
+		processAxioms(input, blacklister, ConversionEvents.PHASE_BLACKLIST);
+		produceAssertions(input, factory, blacklister.getBlacklistedClasses(),
+				outputProcessor, shareWitnesses);
+	}
+
+	/**
+	 * Converts axioms from the given {@link OWLAxiomSource} to assertions as
+	 * in {@link #aboxify(OWLAxiomSource, OWLDataFactory, OWLAxiomProcessor,
+	 * boolean)}, but during the first pass, keeps the dependencies between
+	 * {@link OWLClass}es, which are needed to compute the blacklisted
+	 * {@link OWLClass}es, in temporary files in the given directory instead of
+	 * the memory. This way, the memory used by the first pass does not grow
+	 * with the number of axioms of the form SubClassOf(:A
+	 * ObjectSomeValuesFrom(:r :B)), but only with the number of
+	 * {@link OWLClass}es.
+	 * 
+	 * @param input
+	 *            the source of axioms that should be (partially) replaced
+	 *            with assertions
+	 * @param factory
+	 *            the factory used to create the new axioms
+	 * @param outputProcessor
+	 *            the {@link OWLAxiomProcessor} that receives the axioms of the
+	 *            result; it may receive the same axiom several times
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared
+	 * @param dependencyDirectory
+	 *            the directory for the temporary files, which are deleted
+	 *            after the first pass
+	 * @throws IOException
+	 *             if the temporary files cannot be written or read
+	 * 
+	 * @see ExternalDependencyStore
+	 */
+	public static void aboxify(OWLAxiomSource input, OWLDataFactory factory,
+			OWLAxiomProcessor outputProcessor, boolean shareWitnesses,
+			File dependencyDirectory) throws IOException {
+		LOGGER_.info("Computing blacklisted classes...");
+		ExternalDependencyStore dependencies = new ExternalDependencyStore(
+				dependencyDirectory, ExternalDependencyStore.DEFAULT_BUFFER_SIZE);
+		Blacklister blacklister = new Blacklister(dependencies);
+		try {
+			// first pass over axioms
+			processAxioms(input, blacklister, ConversionEvents.PHASE_BLACKLIST);
+			LOGGER_.info("Propagating blacklisted classes...");
+			long start = ConversionEvents.start();
+			blacklister.propagateDependencies();
+			ConversionEvents.phaseFinished(ConversionEvents.PHASE_PROPAGATION,
+					0, start);
+		} catch (OWLRuntimeException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			// else
+			throw e;
+		} finally {
+			dependencies.close();
 		}
-		Set<OWLClass> blacklisted = blacklister.getBlacklistedClasses();
+		produceAssertions(input, factory, blacklister.getBlacklistedClasses(),
+				outputProcessor, shareWitnesses);
+	}
+
+	/**
+	 * The second pass of the conversion
+	 */
+	private static void produceAssertions(OWLAxiomSource input,
+			OWLDataFactory factory, Set<OWLClass> blacklisted,
+			OWLAxiomProcessor outputProcessor, boolean shareWitnesses) {
 		LOGGER_.debug("Blacklisted classes: {}", blacklisted.size());
 		LOGGER_.info("Producing assertions...");
-		OWLOntologyManager manager = inputOntology.getOWLOntologyManager();
-		OntologyProducerProcessor ontologyProducer = new OntologyProducerProcessor(
-				manager);
 		AssertionCreator assertionCreator = new AssertionCreator(blacklisted,
-				manager.getOWLDataFactory(), ontologyProducer);
+				factory, outputProcessor, shareWitnesses);
 		// second pass over axioms
-		for (OWLAxiom axiom : inputOntology.getAxioms()) {
-			axiom.accept(assertionCreator);
-		}
+		processAxioms(input, assertionCreator,
+				ConversionEvents.PHASE_ASSERTIONS);
 		assertionCreator.printStatistics();
-		return ontologyProducer.getOntology();
+	}
+
+	/**
+	 * Passes all axioms of the given {@link OWLAxiomSource} to the given
+	 * {@link OWLAxiomVisitor}, reporting the given phase to the
+	 * {@link ConversionListener}, if any
+	 */
+	private static void processAxioms(OWLAxiomSource input,
+			OWLAxiomVisitor visitor, String phase) {
+		long start = ConversionEvents.start();
+		AxiomVisitorProcessor processor = new AxiomVisitorProcessor(visitor,
+				phase);
+		input.processAxioms(processor);
+		ConversionEvents.phaseFinished(phase, processor.getCount(), start);
+	}
+
+	/**
+	 * Converts axioms in the given ontology to assertions as in
+	 * {@link #aboxify(OWLOntology)}, and distributes the result over the given
+	 * number of ontologies (shards). Every shard contains all axioms of the
+	 * result that are not assertions, and the assertions for some connected
+	 * components of individuals; individuals are connected if they occur in
+	 * the same assertion, e.g., in an object property assertion. Hence, each
+	 * shard can be processed independently of others. If the axioms that are
+	 * not assertions mention individuals, e.g., in nominals, then all
+	 * assertions are put into one shard since they cannot be separated this
+	 * way. The components are distributed so that the numbers of assertions in
+	 * shards are balanced.
+	 * 
+	 * @param inputOntology
+	 *            the ontology in which axioms should be (partially) replaced
+	 *            with assertions
+	 * @param shardCount
+	 *            the number of ontologies to create
+	 * @return the list of shards of the ontology obtained as the result of
+	 *         replacement; the original ontology is not modified
+	 * @throws OWLOntologyCreationException
+	 *             if the resulting ontologies cannot be created
+	 * 
+	 * @see ShardingProcessor
+	 */
+	public static List<OWLOntology> aboxifyToShards(OWLOntology inputOntology,
+			int shardCount) throws OWLOntologyCreationException {
+		ShardingProcessor sharder = new ShardingProcessor();
+		aboxify(inputOntology, sharder, false);
+		LOGGER_.info("Creating {} shards...", shardCount);
+		return sharder.createShards(inputOntology.getOWLOntologyManager(),
+				shardCount);
 	}
 
 }
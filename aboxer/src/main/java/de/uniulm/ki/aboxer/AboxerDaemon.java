@@ -0,0 +1,477 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-running server that converts ontologies to assertions on request,
+ * which avoids the start-up costs of a new process for every conversion. The
+ * server accepts connections on a loopback socket; over every connection,
+ * several ontology documents can be sent one after another, each one is
+ * converted using {@link Aboxer#aboxify(OWLOntology, boolean)}, and the result
+ * is sent back in the OWL Functional-Style Syntax. Connections are handled by
+ * a fixed number of threads, each of which keeps its own
+ * {@link OWLOntologyManager} for all conversions. The results of the recent
+ * conversions are kept in a cache of a bounded size, indexed by the hash of
+ * the input document, so repeated requests for the same document are
+ * answered without conversion. Documents longer than
+ * {@link #setMaxDocumentLength(int) the limit} are rejected. Use
+ * {@link #convert(int, byte[], boolean)} to send a request.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class AboxerDaemon implements Closeable {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(AboxerDaemon.class);
+
+	/**
+	 * The status of a response containing the result of a conversion
+	 */
+	static final int STATUS_OK = 0;
+
+	/**
+	 * The status of a response containing an error message
+	 */
+	static final int STATUS_ERROR = 1;
+
+	/**
+	 * The default maximal number of bytes in a document
+	 */
+	public static final int DEFAULT_MAX_DOCUMENT_LENGTH = 1 << 28;
+
+	/**
+	 * The maximal number of characters of an error message that are sent;
+	 * the encoded message must fit into 64 KB
+	 */
+	static final int MAX_MESSAGE_LENGTH = 1 << 14;
+
+	/**
+	 * The number of seconds to wait for the threads handling the connections
+	 * when closing
+	 */
+	private static final int CLOSE_TIMEOUT = 10;
+
+	/**
+	 * The socket on which the requests are accepted
+	 */
+	private final ServerSocket serverSocket_;
+
+	/**
+	 * The threads handling the connections
+	 */
+	private final ExecutorService executor_;
+
+	/**
+	 * The connections that are currently open
+	 */
+	private final Set<Socket> connections_ = Collections
+			.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+
+	private volatile int maxDocumentLength_ = DEFAULT_MAX_DOCUMENT_LENGTH;
+
+	/**
+	 * The recent results indexed by the hash of the input and the options, in
+	 * the order of their usage
+	 */
+	private final Map<String, byte[]> cache_;
+
+	/**
+	 * The managers used for conversions by the respective threads
+	 */
+	private final ThreadLocal<OWLOntologyManager> managers_ = new ThreadLocal<OWLOntologyManager>() {
+		@Override
+		protected OWLOntologyManager initialValue() {
+			return OWLManager.createOWLOntologyManager();
+		}
+	};
+
+	private final AtomicInteger countConversions_ = new AtomicInteger(),
+			countCacheHits_ = new AtomicInteger();
+
+	/**
+	 * Opens the server socket on the loopback interface; call
+	 * {@link #start()} to accept requests
+	 * 
+	 * @param port
+	 *            the port number, or 0 to use any free port
+	 * @param threadCount
+	 *            the number of connections handled in parallel
+	 * @param cacheSize
+	 *            the maximal number of results kept in the cache
+	 * @throws IOException
+	 *             if the port cannot be opened
+	 */
+	public AboxerDaemon(int port, int threadCount, final int cacheSize)
+			throws IOException {
+		this.serverSocket_ = new ServerSocket(port, 0,
+				InetAddress.getByName(null));
+		this.executor_ = Executors.newFixedThreadPool(threadCount);
+		this.cache_ = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * @return the port on which the requests are accepted
+	 */
+	public int getPort() {
+		return serverSocket_.getLocalPort();
+	}
+
+	/**
+	 * Sets the maximal number of bytes in a document; requests with longer
+	 * documents are answered with an error
+	 */
+	public void setMaxDocumentLength(int maxDocumentLength) {
+		this.maxDocumentLength_ = maxDocumentLength;
+	}
+
+	/**
+	 * @return the number of requests answered so far by performing a
+	 *         conversion
+	 */
+	public int getConversionCount() {
+		return countConversions_.get();
+	}
+
+	/**
+	 * @return the number of requests answered so far from the cache
+	 */
+	public int getCacheHitCount() {
+		return countCacheHits_.get();
+	}
+
+	/**
+	 * Starts accepting requests in a background thread
+	 */
+	public void start() {
+		Thread acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (;;) {
+					final Socket socket;
+					try {
+						socket = serverSocket_.accept();
+					} catch (IOException e) {
+						if (!serverSocket_.isClosed())
+							LOGGER_.error("Cannot accept a connection", e);
+						return;
+					}
+					connections_.add(socket);
+					try {
+						executor_.execute(new Runnable() {
+							@Override
+							public void run() {
+								handle(socket);
+							}
+						});
+					} catch (RejectedExecutionException e) {
+						// the daemon is closed
+						closeConnection(socket);
+						return;
+					}
+				}
+			}
+		}, "aboxer-daemon");
+		acceptor.start();
+		LOGGER_.info("Accepting requests on port {}", getPort());
+	}
+
+	/**
+	 * Stops accepting requests, closes all connections, and waits until the
+	 * threads handling them are finished; the requests that are currently
+	 * processed are not answered
+	 */
+	@Override
+	public void close() throws IOException {
+		serverSocket_.close();
+		executor_.shutdownNow();
+		// unblocks the threads waiting for requests
+		List<Socket> connections = new ArrayList<Socket>(connections_);
+		for (Socket socket : connections) {
+			closeConnection(socket);
+		}
+		try {
+			if (!executor_.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS))
+				LOGGER_.warn("Some connections are still handled");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted");
+		}
+	}
+
+	private void closeConnection(Socket socket) {
+		connections_.remove(socket);
+		try {
+			socket.close();
+		} catch (IOException e) {
+			LOGGER_.error("Cannot close the connection", e);
+		}
+	}
+
+	/**
+	 * Answers the requests over the given connection until it is closed
+	 */
+	void handle(Socket socket) {
+		try {
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(socket.getOutputStream()));
+			for (;;) {
+				boolean shareWitnesses;
+				try {
+					shareWitnesses = input.readBoolean();
+				} catch (EOFException e) {
+					return;
+				}
+				int length = input.readInt();
+				if (length < 0) {
+					// the rest of the input cannot be interpreted
+					writeError(output, "Invalid document length: " + length);
+					return;
+				}
+				if (length > maxDocumentLength_) {
+					skipFully(input, length);
+					writeError(output, "The document is longer than "
+							+ maxDocumentLength_ + " bytes: " + length);
+					continue;
+				}
+				byte[] document = new byte[length];
+				input.readFully(document);
+				byte[] result;
+				try {
+					result = convert(document, shareWitnesses);
+				} catch (Exception e) {
+					LOGGER_.debug("Conversion failed", e);
+					writeError(output, String.valueOf(e.getMessage()));
+					continue;
+				}
+				output.writeInt(STATUS_OK);
+				output.writeInt(result.length);
+				output.write(result);
+				output.flush();
+			}
+		} catch (IOException e) {
+			if (!(e instanceof SocketException))
+				LOGGER_.error("Connection failed", e);
+		} finally {
+			closeConnection(socket);
+		}
+	}
+
+	/**
+	 * Sends a response with the given error message, which is truncated if
+	 * it is too long
+	 */
+	static void writeError(DataOutputStream output, String message)
+			throws IOException {
+		if (message.length() > MAX_MESSAGE_LENGTH)
+			message = message.substring(0, MAX_MESSAGE_LENGTH) + "...";
+		output.writeInt(STATUS_ERROR);
+		output.writeUTF(message);
+		output.flush();
+	}
+
+	/**
+	 * Skips the given number of bytes of the input
+	 */
+	private static void skipFully(DataInputStream input, int count)
+			throws IOException {
+		while (count > 0) {
+			int skipped = input.skipBytes(count);
+			if (skipped == 0) {
+				// skipBytes returns 0 also if no bytes are available yet
+				input.readByte();
+				skipped = 1;
+			}
+			count -= skipped;
+		}
+	}
+
+	/**
+	 * Converts the given ontology document using the cache
+	 * 
+	 * @param document
+	 *            the ontology document in any syntax supported by the
+	 *            {@link OWLOntologyManager}
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared
+	 * @return the result of the conversion saved in the OWL Functional-Style
+	 *         Syntax
+	 * @throws OWLOntologyCreationException
+	 *             if the document cannot be parsed
+	 * @throws OWLOntologyStorageException
+	 *             if the result cannot be saved
+	 */
+	byte[] convert(byte[] document, boolean shareWitnesses)
+			throws OWLOntologyCreationException, OWLOntologyStorageException {
+		String key = getHash(document) + shareWitnesses;
+		byte[] result;
+		synchronized (cache_) {
+			result = cache_.get(key);
+		}
+		if (result != null) {
+			countCacheHits_.incrementAndGet();
+			return result;
+		}
+		// else
+		OWLOntologyManager manager = managers_.get();
+		OWLOntology input = manager
+				.loadOntologyFromOntologyDocument(new ByteArrayInputStream(
+						document));
+		try {
+			OWLOntology output = Aboxer.aboxify(input, shareWitnesses);
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				manager.saveOntology(output,
+						new OWLFunctionalSyntaxOntologyFormat(), out);
+				result = out.toByteArray();
+			} finally {
+				manager.removeOntology(output);
+			}
+		} finally {
+			manager.removeOntology(input);
+		}
+		countConversions_.incrementAndGet();
+		synchronized (cache_) {
+			cache_.put(key, result);
+		}
+		return result;
+	}
+
+	private static String getHash(byte[] document) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+		StringBuilder result = new StringBuilder();
+		for (byte next : digest.digest(document)) {
+			result.append(Integer.toHexString((next & 0xFF) | 0x100)
+					.substring(1));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Sends an ontology document to the {@link AboxerDaemon} running on the
+	 * given port of the local host and returns the result of the conversion
+	 * 
+	 * @param port
+	 * @param document
+	 *            the ontology document in any syntax supported by the OWL API
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared
+	 * @return the result of the conversion saved in the OWL Functional-Style
+	 *         Syntax
+	 * @throws IOException
+	 *             if the communication fails or the conversion was not
+	 *             successful
+	 */
+	public static byte[] convert(int port, byte[] document,
+			boolean shareWitnesses) throws IOException {
+		Socket socket = new Socket(InetAddress.getByName(null), port);
+		try {
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(socket.getOutputStream()));
+			output.writeBoolean(shareWitnesses);
+			output.writeInt(document.length);
+			output.write(document);
+			output.flush();
+			if (input.readInt() != STATUS_OK)
+				throw new IOException("Conversion failed: " + input.readUTF());
+			// else
+			byte[] result = new byte[input.readInt()];
+			input.readFully(result);
+			return result;
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Starts a daemon
+	 * 
+	 * @param args
+	 *            the port, the number of threads, and the size of the cache
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			System.err.println("Usage: " + AboxerDaemon.class.getName()
+					+ " <port> <threads> <cache size>");
+			System.exit(1);
+		}
+		new AboxerDaemon(Integer.parseInt(args[0]),
+				Integer.parseInt(args[1]), Integer.parseInt(args[2])).start();
+	}
+
+}
@@ -320,6 +320,11 @@ abstract class AbstractAxiomVisitor implements OWLAxiomVisitor {
 
 	@Override
 	public void visit(OWLEquivalentClassesAxiom axiom) {
+		// splitting EquivalentClasses(:A :C) into SubClassOf(:A :C) and
+		// SubClassOf(:C :A) does not help: :A occurs on the right-hand side of
+		// the second axiom, which cannot be converted to an assertion, so :A
+		// cannot be replaced with an individual; likewise, all classes of :C
+		// occur on the left-hand side of this axiom
 		defaultVisit(axiom);
 
 	}
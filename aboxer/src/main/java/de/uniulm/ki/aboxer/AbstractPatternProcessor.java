@@ -22,8 +22,13 @@ package de.uniulm.ki.aboxer;
  * #L%
  */
 
+import java.util.Set;
+
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
 import org.slf4j.Logger;
@@ -39,10 +44,11 @@ import org.slf4j.LoggerFactory;
  * conjunction of concepts B and ObjectSomeValuesFrom(r D), then the axiom can
  * be replaced with assertions B(a) and r(a, d) (if D is an atomic concept), or
  * with r(a, _i), D(_i) (if D is not an atomic concept, _i is an fresh anonymous
- * individual). This class allows to process the corresponding parts of class
- * expressions -- for which new individual assertions can be created -- using a
- * generic parameter C (called "context") that can be used to pass additional
- * objects, e.g., the replaced individual.
+ * individual). Similarly, ObjectHasValue(r b) and ObjectSomeValuesFrom(r
+ * ObjectOneOf(b)) can be replaced with r(a, b). This class allows to process
+ * the corresponding parts of class expressions -- for which new individual
+ * assertions can be created -- using a generic parameter C (called "context")
+ * that can be used to pass additional objects, e.g., the replaced individual.
  * 
  * @author "Yevgeny Kazakov"
  * 
@@ -79,6 +85,20 @@ abstract class AbstractPatternProcessor<C> {
 	public abstract void visitSimpleExistential(C context,
 			OWLObjectPropertyExpression property, OWLClass filler);
 
+	/**
+	 * Process an existential restriction defined by the given
+	 * {@link OWLObjectPropertyExpression} and the given {@link OWLIndividual}
+	 * value, i.e., ObjectHasValue(property value) or
+	 * ObjectSomeValuesFrom(property ObjectOneOf(value)); it can be converted
+	 * to an object property assertion with this value.
+	 * 
+	 * @param context
+	 * @param property
+	 * @param value
+	 */
+	public abstract void visitIndividualExistential(C context,
+			OWLObjectPropertyExpression property, OWLIndividual value);
+
 	/**
 	 * Creates a new context by following an existential restriction with a
 	 * complex filler that can be recursively processed further on using the new
@@ -91,10 +111,15 @@ abstract class AbstractPatternProcessor<C> {
 	 * 
 	 * @param oldContext
 	 * @param property
-	 * @return
+	 * @param filler
+	 *            the filler of the existential restriction that will be
+	 *            processed in the new context
+	 * @return the new context, or {@code null} if the filler has already been
+	 *         processed for the same old context and property, in which case
+	 *         it is not processed again
 	 */
 	public abstract C getNewContext(C oldContext,
-			OWLObjectPropertyExpression property);
+			OWLObjectPropertyExpression property, OWLClassExpression filler);
 
 	/**
 	 * Recursively processes the given {@link OWLClassExpression} for which an
@@ -108,6 +133,13 @@ abstract class AbstractPatternProcessor<C> {
 	 * @param ce
 	 */
 	public void process(C context, OWLClassExpression ce) {
+		if (ce instanceof OWLObjectHasValue) {
+			OWLObjectHasValue restriction = (OWLObjectHasValue) ce;
+			visitIndividualExistential(context, restriction.getProperty(),
+					restriction.getValue());
+			return;
+		}
+		// else
 		if (!(ce instanceof OWLObjectSomeValuesFrom)) {
 			LOGGER_.trace(" {} : unconvertable", ce);
 			visitUnsplitable(context, ce);
@@ -120,8 +152,22 @@ abstract class AbstractPatternProcessor<C> {
 			visitSimpleExistential(context, property, (OWLClass) filler);
 			return;
 		}
+		if (filler instanceof OWLObjectOneOf) {
+			Set<OWLIndividual> values = ((OWLObjectOneOf) filler)
+					.getIndividuals();
+			if (values.size() == 1) {
+				visitIndividualExistential(context, property, values
+						.iterator().next());
+				return;
+			}
+		}
+		// else
+		C newContext = getNewContext(context, property, filler);
+		if (newContext == null) {
+			LOGGER_.trace(" {} : already processed", ce);
+			return;
+		}
 		// else
-		C newContext = getNewContext(context, property);
 		for (OWLClassExpression conjunct : filler.asConjunctSet()) {
 			process(newContext, conjunct);
 		}
@@ -22,6 +22,8 @@ package de.uniulm.ki.aboxer;
  * #L%
  */
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -66,9 +68,18 @@ class AssertionCreator extends AbstractAxiomVisitor {
 	 */
 	private final ThisPatternProcessor patternProcessor_ = new ThisPatternProcessor();
 
+	/**
+	 * The anonymous individuals created for existential restrictions with
+	 * complex fillers, indexed by the {@link WitnessKey} describing from which
+	 * individual, by which property and for which filler they were created;
+	 * this is {@code null} if witnesses should not be shared
+	 */
+	private final Map<WitnessKey, OWLIndividual> witnesses_;
+
 	// counters for statistics
 	private int countNewIndividuals_ = 0;
 	private int countAnonymousIndividuals_ = 0;
+	private int countSharedWitnesses_ = 0;
 	private int countNewClassAssertions_ = 0;
 	private int countNewObjectPropertyAssertions_ = 0;
 
@@ -77,12 +88,32 @@ class AssertionCreator extends AbstractAxiomVisitor {
 	 *            The factory used to create the new axioms
 	 * @param processor
 	 *            The processor through which the axioms are returned
+	 * @param shareWitnesses
+	 *            if {@code true}, the same anonymous individual is used for
+	 *            all occurrences of an existential restriction with the same
+	 *            property and (conjuncts of the) filler for the same
+	 *            individual, and the assertions for this filler are produced
+	 *            only once
 	 */
 	public AssertionCreator(Set<OWLClass> blackListedClasses,
-			OWLDataFactory factory, OWLAxiomProcessor processor) {
+			OWLDataFactory factory, OWLAxiomProcessor processor,
+			boolean shareWitnesses) {
 		super(blackListedClasses);
 		this.factory_ = factory;
 		this.processor_ = processor;
+		this.witnesses_ = shareWitnesses ? new HashMap<WitnessKey, OWLIndividual>(
+				128) : null;
+	}
+
+	/**
+	 * @param factory
+	 *            The factory used to create the new axioms
+	 * @param processor
+	 *            The processor through which the axioms are returned
+	 */
+	public AssertionCreator(Set<OWLClass> blackListedClasses,
+			OWLDataFactory factory, OWLAxiomProcessor processor) {
+		this(blackListedClasses, factory, processor, false);
 	}
 
 	OWLNamedIndividual individualOfClass(OWLClass owlClass) {
@@ -119,10 +150,41 @@ class AssertionCreator extends AbstractAxiomVisitor {
 		return this.processor_;
 	}
 
+	/**
+	 * @return the number of individual declarations created so far
+	 */
+	int getNewIndividualCount() {
+		return countNewIndividuals_;
+	}
+
+	/**
+	 * @return the number of anonymous individuals created so far
+	 */
+	int getAnonymousIndividualCount() {
+		return countAnonymousIndividuals_;
+	}
+
+	/**
+	 * @return the number of class assertions created so far
+	 */
+	int getNewClassAssertionCount() {
+		return countNewClassAssertions_;
+	}
+
+	/**
+	 * @return the number of object property assertions created so far
+	 */
+	int getNewObjectPropertyAssertionCount() {
+		return countNewObjectPropertyAssertions_;
+	}
+
 	void printStatistics() {
 		LOGGER_.debug("new individual declarations: {}", countNewIndividuals_);
 		LOGGER_.debug("new anonymous individuals: {}",
 				countAnonymousIndividuals_);
+		if (witnesses_ != null)
+			LOGGER_.debug("shared anonymous individuals: {}",
+					countSharedWitnesses_);
 		LOGGER_.debug("new class assertions: {}", countNewClassAssertions_);
 		LOGGER_.debug("new object property assertions: {}",
 				countNewObjectPropertyAssertions_);
@@ -169,12 +231,35 @@ class AssertionCreator extends AbstractAxiomVisitor {
 			processor_.process(axiom);
 		}
 
+		@Override
+		public void visitIndividualExistential(OWLIndividual context,
+				OWLObjectPropertyExpression property, OWLIndividual value) {
+			OWLAxiom axiom = factory_.getOWLObjectPropertyAssertionAxiom(
+					property, context, value);
+			countNewObjectPropertyAssertions_++;
+			LOGGER_.trace("{}: created", axiom);
+			processor_.process(axiom);
+		}
+
 		@Override
 		public OWLIndividual getNewContext(OWLIndividual oldContext,
-				OWLObjectPropertyExpression property) {
+				OWLObjectPropertyExpression property, OWLClassExpression filler) {
+			WitnessKey key = null;
+			if (witnesses_ != null) {
+				key = new WitnessKey(oldContext, property,
+						filler.asConjunctSet());
+				if (witnesses_.containsKey(key)) {
+					// all assertions for this witness were already created
+					countSharedWitnesses_++;
+					LOGGER_.trace("{}: witness shared", key);
+					return null;
+				}
+			}
 			// create a fresh anonymous individual
 			OWLIndividual newContext = factory_.getOWLAnonymousIndividual();
 			countAnonymousIndividuals_++;
+			if (key != null)
+				witnesses_.put(key, newContext);
 			// create an object property assertion connecting it with the old
 			// individual
 			OWLAxiom axiom = factory_.getOWLObjectPropertyAssertionAxiom(
@@ -187,4 +272,55 @@ class AssertionCreator extends AbstractAxiomVisitor {
 
 	}
 
+	/**
+	 * Identifies an anonymous individual created for an existential
+	 * restriction: the individual from which it was created, the property of
+	 * the restriction, and the set of conjuncts of its filler.
+	 * 
+	 * @author "Yevgeny Kazakov"
+	 * 
+	 */
+	static class WitnessKey {
+
+		private final OWLIndividual subject_;
+
+		private final OWLObjectPropertyExpression property_;
+
+		private final Set<OWLClassExpression> fillerConjuncts_;
+
+		private final int hash_;
+
+		WitnessKey(OWLIndividual subject, OWLObjectPropertyExpression property,
+				Set<OWLClassExpression> fillerConjuncts) {
+			this.subject_ = subject;
+			this.property_ = property;
+			this.fillerConjuncts_ = fillerConjuncts;
+			this.hash_ = (subject.hashCode() * 31 + property.hashCode()) * 31
+					+ fillerConjuncts.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash_;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof WitnessKey))
+				return false;
+			WitnessKey other = (WitnessKey) obj;
+			return hash_ == other.hash_ && subject_.equals(other.subject_)
+					&& property_.equals(other.property_)
+					&& fillerConjuncts_.equals(other.fillerConjuncts_);
+		}
+
+		@Override
+		public String toString() {
+			return subject_ + " " + property_ + " " + fillerConjuncts_;
+		}
+
+	}
+
 }
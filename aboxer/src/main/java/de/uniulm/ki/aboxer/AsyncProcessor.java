@@ -0,0 +1,182 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/**
+ * A {@link ProcessorStage} that passes the axioms to the next processor in a
+ * separate thread, so that the conversion does not wait for slow processors,
+ * e.g., those writing to files. The axioms are handed over in batches through
+ * a bounded queue; if the queue is full, the processing waits until the next
+ * processor catches up. If the next processor throws an exception, the
+ * remaining axioms are discarded and the exception is rethrown by the next
+ * call of {@link #process(OWLAxiom)} or by {@link #close()}, which also waits
+ * until all axioms are processed.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class AsyncProcessor extends ProcessorStage {
+
+	/**
+	 * Marks the end of the axioms in the queue
+	 */
+	private static final List<OWLAxiom> END_ = Collections.emptyList();
+
+	private final OWLAxiomProcessor next_;
+
+	private final BlockingQueue<List<OWLAxiom>> queue_;
+
+	private final int batchSize_;
+
+	private final Thread worker_;
+
+	private List<OWLAxiom> batch_;
+
+	/**
+	 * The exception thrown by the next processor, if any
+	 */
+	private volatile Throwable failure_ = null;
+
+	private boolean closed_ = false;
+
+	/**
+	 * @param next
+	 *            the processor to which the axioms are passed
+	 * @param queueCapacity
+	 *            the maximal number of batches waiting to be processed
+	 * @param batchSize
+	 *            the number of axioms handed over at once
+	 */
+	public AsyncProcessor(OWLAxiomProcessor next, int queueCapacity,
+			int batchSize) {
+		this.next_ = next;
+		this.queue_ = new ArrayBlockingQueue<List<OWLAxiom>>(queueCapacity);
+		this.batchSize_ = batchSize;
+		this.batch_ = new ArrayList<OWLAxiom>(batchSize);
+		this.worker_ = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				work();
+			}
+		}, "aboxer-async-processor");
+		worker_.setDaemon(true);
+		worker_.start();
+	}
+
+	/**
+	 * Creates a stage with the queue for 16 batches of 1024 axioms
+	 * 
+	 * @see #AsyncProcessor(OWLAxiomProcessor, int, int)
+	 */
+	public AsyncProcessor(OWLAxiomProcessor next) {
+		this(next, 16, 1024);
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		checkFailure();
+		batch_.add(axiom);
+		if (batch_.size() == batchSize_) {
+			put(batch_);
+			batch_ = new ArrayList<OWLAxiom>(batchSize_);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed_)
+			return;
+		// else
+		closed_ = true;
+		if (!batch_.isEmpty())
+			put(batch_);
+		put(END_);
+		try {
+			worker_.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OWLRuntimeException(e);
+		}
+		checkFailure();
+		close(next_);
+	}
+
+	private void put(List<OWLAxiom> batch) {
+		try {
+			queue_.put(batch);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OWLRuntimeException(e);
+		}
+	}
+
+	private void checkFailure() {
+		Throwable failure = failure_;
+		if (failure == null)
+			return;
+		// else
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+		// else
+		throw new OWLRuntimeException(failure);
+	}
+
+	void work() {
+		for (;;) {
+			List<OWLAxiom> batch;
+			try {
+				batch = queue_.take();
+			} catch (InterruptedException e) {
+				failure_ = e;
+				return;
+			}
+			if (batch == END_)
+				return;
+			// else
+			if (failure_ != null)
+				// discard the remaining axioms
+				continue;
+			// else
+			try {
+				for (OWLAxiom axiom : batch) {
+					next_.process(axiom);
+				}
+			} catch (Throwable e) {
+				failure_ = e;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * A {@link ProcessorStage} that passes the axioms of the given
+ * {@link AxiomType}s to one processor, and all other axioms to another one.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class AxiomTypeFilterProcessor extends ProcessorStage {
+
+	private final Set<AxiomType<?>> types_;
+
+	private final OWLAxiomProcessor acceptedAxiomProcessor_,
+			otherAxiomProcessor_;
+
+	/**
+	 * @param types
+	 *            the types of axioms that should be accepted
+	 * @param acceptedAxiomProcessor
+	 *            the processor for the axioms of the given types
+	 * @param otherAxiomProcessor
+	 *            the processor for all other axioms
+	 */
+	public AxiomTypeFilterProcessor(Set<? extends AxiomType<?>> types,
+			OWLAxiomProcessor acceptedAxiomProcessor,
+			OWLAxiomProcessor otherAxiomProcessor) {
+		this.types_ = Collections
+				.unmodifiableSet(new HashSet<AxiomType<?>>(types));
+		this.acceptedAxiomProcessor_ = acceptedAxiomProcessor;
+		this.otherAxiomProcessor_ = otherAxiomProcessor;
+	}
+
+	/**
+	 * Creates a filter that discards the axioms that are not of the given
+	 * types
+	 * 
+	 * @see #AxiomTypeFilterProcessor(Set, OWLAxiomProcessor,
+	 *      OWLAxiomProcessor)
+	 */
+	public AxiomTypeFilterProcessor(OWLAxiomProcessor acceptedAxiomProcessor,
+			AxiomType<?>... types) {
+		this(new HashSet<AxiomType<?>>(Arrays.asList(types)),
+				acceptedAxiomProcessor, DISCARD);
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		if (types_.contains(axiom.getAxiomType()))
+			acceptedAxiomProcessor_.process(axiom);
+		else
+			otherAxiomProcessor_.process(axiom);
+	}
+
+	@Override
+	public void close() throws IOException {
+		close(acceptedAxiomProcessor_, otherAxiomProcessor_);
+	}
+
+}
@@ -0,0 +1,79 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLAxiomVisitor;
+
+/**
+ * An {@link OWLAxiomProcessor} that passes the {@link OWLAxiom}s to an
+ * {@link OWLAxiomVisitor}.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+class AxiomVisitorProcessor implements OWLAxiomProcessor {
+
+	private final OWLAxiomVisitor visitor_;
+
+	/**
+	 * The name of the phase reported to the {@link ConversionListener}, or
+	 * {@code null} if no events should be created
+	 */
+	private final String phase_;
+
+	/**
+	 * The number of processed axioms
+	 */
+	private long count_ = 0;
+
+	AxiomVisitorProcessor(OWLAxiomVisitor visitor) {
+		this(visitor, null);
+	}
+
+	AxiomVisitorProcessor(OWLAxiomVisitor visitor, String phase) {
+		this.visitor_ = visitor;
+		this.phase_ = phase;
+	}
+
+	/**
+	 * @return the number of processed axioms
+	 */
+	long getCount() {
+		return count_;
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		count_++;
+		if (phase_ == null) {
+			axiom.accept(visitor_);
+			return;
+		}
+		// else
+		long start = ConversionEvents.start();
+		axiom.accept(visitor_);
+		ConversionEvents.axiomProcessed(phase_, axiom, start);
+	}
+
+}
@@ -0,0 +1,88 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * A {@link ProcessorStage} that collects axioms into lists of the given size
+ * and passes them to an {@link OWLAxiomBatchProcessor}. The last, possibly
+ * smaller, list is passed when the stage is closed.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class BatchingProcessor extends ProcessorStage {
+
+	private final OWLAxiomBatchProcessor batchProcessor_;
+
+	private final int batchSize_;
+
+	private List<OWLAxiom> batch_;
+
+	/**
+	 * @param batchProcessor
+	 *            the processor that receives the lists of axioms
+	 * @param batchSize
+	 *            the number of axioms in every list except for the last one
+	 */
+	public BatchingProcessor(OWLAxiomBatchProcessor batchProcessor,
+			int batchSize) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("Batch size must be positive: "
+					+ batchSize);
+		this.batchProcessor_ = batchProcessor;
+		this.batchSize_ = batchSize;
+		this.batch_ = new ArrayList<OWLAxiom>(batchSize);
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		batch_.add(axiom);
+		if (batch_.size() == batchSize_)
+			flush();
+	}
+
+	/**
+	 * Passes the collected axioms without waiting until the list is full
+	 */
+	public void flush() {
+		if (batch_.isEmpty())
+			return;
+		// else
+		List<OWLAxiom> batch = batch_;
+		batch_ = new ArrayList<OWLAxiom>(batchSize_);
+		batchProcessor_.process(batch);
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		close(batchProcessor_);
+	}
+
+}
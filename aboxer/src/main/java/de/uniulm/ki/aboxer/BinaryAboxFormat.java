@@ -0,0 +1,133 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and encoding methods shared by {@link BinaryAboxWriter} and
+ * {@link BinaryAboxReader}; the encoding methods are also used by
+ * {@link InputSnapshot}.
+ * 
+ * The binary format consists of the {@link #MAGIC} number and the
+ * {@link #VERSION}, followed by a sequence of blocks terminated by an
+ * (integer) 0. Each block starts with two integers: the length of the
+ * compressed (using {@link java.util.zip.Deflater}) content of the block and
+ * the length of its uncompressed content. The uncompressed content consists of
+ * the IRIs that occur in the block for the first time (a variable length
+ * number of IRIs followed by their UTF-8 encodings, each preceded by its
+ * length), and a variable length number of records. Each record starts with
+ * one of the record types below, followed by the ids of its components.
+ * Named entities are identified by the positions of their IRIs in the
+ * sequence of all IRIs of the previous blocks; for individuals, the lowest bit
+ * of the id indicates whether the individual is anonymous, and the remaining
+ * bits identify the named individual or number the anonymous individuals in
+ * the order of their first occurrence. All numbers except for the block
+ * header are written as variable length integers with 7 bits per byte.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+final class BinaryAboxFormat {
+
+	static final int MAGIC = 0x41424F58; // "ABOX"
+
+	static final int VERSION = 1;
+
+	/**
+	 * Declaration(NamedIndividual(i))
+	 */
+	static final int RECORD_DECLARATION = 0;
+
+	/**
+	 * ClassAssertion(C i)
+	 */
+	static final int RECORD_CLASS_ASSERTION = 1;
+
+	/**
+	 * ObjectPropertyAssertion(p i j)
+	 */
+	static final int RECORD_OBJECT_PROPERTY_ASSERTION = 2;
+
+	/**
+	 * ObjectPropertyAssertion(ObjectInverseOf(p) i j)
+	 */
+	static final int RECORD_INVERSE_OBJECT_PROPERTY_ASSERTION = 3;
+
+	private BinaryAboxFormat() {
+		// utility class
+	}
+
+	static void writeVarInt(OutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	static void writeString(OutputStream out, String value)
+			throws IOException {
+		byte[] bytes = value.getBytes("UTF-8");
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	static int readVarInt(DataInput in) throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int next = in.readUnsignedByte();
+			result |= (next & 0x7F) << shift;
+			if ((next & 0x80) == 0)
+				return result;
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+
+	static String readString(DataInput in) throws IOException {
+		byte[] bytes = new byte[readVarInt(in)];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	static int readVarInt(ByteBuffer in) throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int next = in.get() & 0xFF;
+			result |= (next & 0x7F) << shift;
+			if ((next & 0x80) == 0)
+				return result;
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+
+	static String readString(ByteBuffer in) throws IOException {
+		byte[] bytes = new byte[readVarInt(in)];
+		in.get(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+}
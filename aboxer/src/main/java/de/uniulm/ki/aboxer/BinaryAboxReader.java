@@ -0,0 +1,212 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * Reads assertions written by {@link BinaryAboxWriter}.
+ * 
+ * @see BinaryAboxFormat
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class BinaryAboxReader {
+
+	/**
+	 * The factory used to create the axioms
+	 */
+	private final OWLDataFactory factory_;
+
+	/**
+	 * The IRIs read so far, in the order of their numbers
+	 */
+	private final List<IRI> iris_ = new ArrayList<IRI>(1024);
+
+	/**
+	 * The anonymous individuals read so far, in the order of their numbers
+	 */
+	private final List<OWLAnonymousIndividual> anonymousIndividuals_ = new ArrayList<OWLAnonymousIndividual>(
+			1024);
+
+	private final Inflater inflater_ = new Inflater();
+
+	private BinaryAboxReader(OWLDataFactory factory) {
+		this.factory_ = factory;
+	}
+
+	/**
+	 * Reads all assertions from the given stream and passes them to the given
+	 * {@link OWLAxiomProcessor}; the stream is not closed
+	 * 
+	 * @param in
+	 *            the stream containing the output of {@link BinaryAboxWriter}
+	 * @param factory
+	 *            the factory used to create the axioms
+	 * @param processor
+	 *            the processor that receives the read axioms
+	 * @throws IOException
+	 *             if the stream cannot be read or is not in the binary format
+	 */
+	public static void read(InputStream in, OWLDataFactory factory,
+			OWLAxiomProcessor processor) throws IOException {
+		BinaryAboxReader reader = new BinaryAboxReader(factory);
+		try {
+			reader.readAll(new DataInputStream(in), processor);
+		} finally {
+			reader.inflater_.end();
+		}
+	}
+
+	/**
+	 * Reads all assertions from the given stream into a new ontology
+	 * 
+	 * @param in
+	 *            the stream containing the output of {@link BinaryAboxWriter}
+	 * @param manager
+	 *            the manager used to create the ontology
+	 * @return the ontology containing the read assertions
+	 * @throws IOException
+	 *             if the stream cannot be read or is not in the binary format
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology cannot be created
+	 */
+	public static OWLOntology readOntology(InputStream in,
+			OWLOntologyManager manager) throws IOException,
+			OWLOntologyCreationException {
+		OntologyProducerProcessor ontologyProducer = new OntologyProducerProcessor(
+				manager);
+		read(in, manager.getOWLDataFactory(), ontologyProducer);
+		return ontologyProducer.getOntology();
+	}
+
+	private void readAll(DataInputStream in, OWLAxiomProcessor processor)
+			throws IOException {
+		if (in.readInt() != BinaryAboxFormat.MAGIC)
+			throw new IOException("Not a binary ABox");
+		int version = in.readInt();
+		if (version != BinaryAboxFormat.VERSION)
+			throw new IOException("Unsupported version: " + version);
+		byte[] compressed = new byte[0];
+		for (;;) {
+			int compressedLength = in.readInt();
+			if (compressedLength == 0)
+				return;
+			// else
+			byte[] block = new byte[in.readInt()];
+			if (compressed.length < compressedLength)
+				compressed = new byte[compressedLength];
+			in.readFully(compressed, 0, compressedLength);
+			inflater_.reset();
+			inflater_.setInput(compressed, 0, compressedLength);
+			try {
+				if (inflater_.inflate(block) != block.length)
+					throw new IOException("Truncated block");
+			} catch (DataFormatException e) {
+				throw new IOException(e);
+			}
+			readBlock(new DataInputStream(new ByteArrayInputStream(block)),
+					processor);
+		}
+	}
+
+	private void readBlock(DataInputStream in, OWLAxiomProcessor processor)
+			throws IOException {
+		int newIriCount = BinaryAboxFormat.readVarInt(in);
+		for (int i = 0; i < newIriCount; i++) {
+			iris_.add(IRI.create(BinaryAboxFormat.readString(in)));
+		}
+		int recordCount = BinaryAboxFormat.readVarInt(in);
+		for (int i = 0; i < recordCount; i++) {
+			processor.process(readRecord(in));
+		}
+	}
+
+	private OWLAxiom readRecord(DataInputStream in) throws IOException {
+		int recordType = BinaryAboxFormat.readVarInt(in);
+		switch (recordType) {
+		case BinaryAboxFormat.RECORD_DECLARATION:
+			return factory_.getOWLDeclarationAxiom(factory_
+					.getOWLNamedIndividual(getIri(BinaryAboxFormat
+							.readVarInt(in) >>> 1)));
+		case BinaryAboxFormat.RECORD_CLASS_ASSERTION:
+			return factory_.getOWLClassAssertionAxiom(factory_
+					.getOWLClass(getIri(BinaryAboxFormat.readVarInt(in))),
+					readIndividual(in));
+		case BinaryAboxFormat.RECORD_OBJECT_PROPERTY_ASSERTION:
+		case BinaryAboxFormat.RECORD_INVERSE_OBJECT_PROPERTY_ASSERTION:
+			OWLObjectPropertyExpression property = factory_
+					.getOWLObjectProperty(getIri(BinaryAboxFormat
+							.readVarInt(in)));
+			if (recordType == BinaryAboxFormat.RECORD_INVERSE_OBJECT_PROPERTY_ASSERTION)
+				property = factory_.getOWLObjectInverseOf(property);
+			OWLIndividual subject = readIndividual(in);
+			OWLIndividual object = readIndividual(in);
+			return factory_.getOWLObjectPropertyAssertionAxiom(property,
+					subject, object);
+		default:
+			throw new IOException("Unknown record type: " + recordType);
+		}
+	}
+
+	private OWLIndividual readIndividual(DataInputStream in)
+			throws IOException {
+		int id = BinaryAboxFormat.readVarInt(in);
+		if ((id & 1) == 0)
+			return factory_.getOWLNamedIndividual(getIri(id >>> 1));
+		// else
+		int anonymousId = id >>> 1;
+		if (anonymousId == anonymousIndividuals_.size())
+			anonymousIndividuals_.add(factory_.getOWLAnonymousIndividual());
+		else if (anonymousId > anonymousIndividuals_.size())
+			throw new IOException("Unknown anonymous individual: "
+					+ anonymousId);
+		return anonymousIndividuals_.get(anonymousId);
+	}
+
+	private IRI getIri(int id) throws IOException {
+		if (id >= iris_.size())
+			throw new IOException("Unknown IRI: " + id);
+		// else
+		return iris_.get(id);
+	}
+
+}
@@ -0,0 +1,284 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/**
+ * An {@link OWLAxiomProcessor} that writes class assertions with atomic
+ * classes, object property assertions, and declarations of individuals to an
+ * {@link OutputStream} in a compact binary format, which can be read using
+ * {@link BinaryAboxReader}. Each IRI is written only once; the assertions refer
+ * to IRIs by numbers and are compressed in blocks. All other axioms are passed
+ * to a separate {@link OWLAxiomProcessor}. The stream is complete only after
+ * {@link #close()} is called. The {@link IOException}s that occur during
+ * processing of axioms are rethrown as {@link OWLRuntimeException}s.
+ * 
+ * @see BinaryAboxFormat
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class BinaryAboxWriter implements OWLAxiomProcessor, Closeable {
+
+	/**
+	 * The default number of bytes in the uncompressed blocks
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+	/**
+	 * The stream to which the blocks are written
+	 */
+	private final DataOutputStream out_;
+
+	/**
+	 * The processor for axioms that cannot be written in the binary format
+	 */
+	private final OWLAxiomProcessor otherAxiomProcessor_;
+
+	/**
+	 * The uncompressed size after which a block is written
+	 */
+	private final int blockSize_;
+
+	/**
+	 * The numbers assigned to IRIs that have been written
+	 */
+	private final Map<IRI, Integer> iriIds_ = new HashMap<IRI, Integer>(1024);
+
+	/**
+	 * The numbers assigned to anonymous individuals that have been written
+	 */
+	private final Map<OWLAnonymousIndividual, Integer> anonymousIds_ = new HashMap<OWLAnonymousIndividual, Integer>(
+			1024);
+
+	/**
+	 * The IRIs of the current block that did not occur in the previous blocks
+	 */
+	private final ByteArrayOutputStream newIris_ = new ByteArrayOutputStream();
+
+	/**
+	 * The records of the current block
+	 */
+	private final ByteArrayOutputStream records_ = new ByteArrayOutputStream();
+
+	private final Deflater deflater_ = new Deflater();
+
+	private int newIriCount_ = 0, recordCount_ = 0;
+
+	// counters for statistics
+	private long countWrittenAxioms_ = 0;
+
+	/**
+	 * @param out
+	 *            the stream to which the assertions should be written
+	 * @param otherAxiomProcessor
+	 *            the processor for axioms that cannot be written in the
+	 *            binary format
+	 * @param blockSize
+	 *            the number of uncompressed bytes after which the block is
+	 *            compressed and written
+	 * @throws IOException
+	 *             if the header cannot be written
+	 */
+	public BinaryAboxWriter(OutputStream out,
+			OWLAxiomProcessor otherAxiomProcessor, int blockSize)
+			throws IOException {
+		this.out_ = new DataOutputStream(out);
+		this.otherAxiomProcessor_ = otherAxiomProcessor;
+		this.blockSize_ = blockSize;
+		out_.writeInt(BinaryAboxFormat.MAGIC);
+		out_.writeInt(BinaryAboxFormat.VERSION);
+	}
+
+	/**
+	 * Creates a writer with the {@link #DEFAULT_BLOCK_SIZE}
+	 * 
+	 * @see #BinaryAboxWriter(OutputStream, OWLAxiomProcessor, int)
+	 */
+	public BinaryAboxWriter(OutputStream out,
+			OWLAxiomProcessor otherAxiomProcessor) throws IOException {
+		this(out, otherAxiomProcessor, DEFAULT_BLOCK_SIZE);
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		try {
+			if (!write(axiom)) {
+				otherAxiomProcessor_.process(axiom);
+				return;
+			}
+			// else
+			countWrittenAxioms_++;
+			recordCount_++;
+			if (newIris_.size() + records_.size() >= blockSize_)
+				writeBlock();
+		} catch (IOException e) {
+			throw new OWLRuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the number of axioms written in the binary format
+	 */
+	public long getWrittenAxiomCount() {
+		return countWrittenAxioms_;
+	}
+
+	/**
+	 * Writes the remaining assertions, terminates the format, and closes the
+	 * underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+		writeBlock();
+		out_.writeInt(0);
+		out_.close();
+		deflater_.end();
+	}
+
+	/**
+	 * Appends the record for the given axiom to the current block if the
+	 * axiom can be written in the binary format
+	 * 
+	 * @return {@code true} if the axiom was written and {@code false} otherwise
+	 */
+	private boolean write(OWLAxiom axiom) throws IOException {
+		if (axiom instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom assertion = (OWLClassAssertionAxiom) axiom;
+			OWLClassExpression type = assertion.getClassExpression();
+			if (type.isAnonymous())
+				return false;
+			// else
+			int classId = getId(type.asOWLClass().getIRI());
+			int individualId = getId(assertion.getIndividual());
+			BinaryAboxFormat.writeVarInt(records_,
+					BinaryAboxFormat.RECORD_CLASS_ASSERTION);
+			BinaryAboxFormat.writeVarInt(records_, classId);
+			BinaryAboxFormat.writeVarInt(records_, individualId);
+			return true;
+		}
+		if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+			OWLObjectPropertyExpression property = assertion.getProperty();
+			int recordType = property.isAnonymous() ? BinaryAboxFormat.RECORD_INVERSE_OBJECT_PROPERTY_ASSERTION
+					: BinaryAboxFormat.RECORD_OBJECT_PROPERTY_ASSERTION;
+			int propertyId = getId(property.getNamedProperty().getIRI());
+			int subjectId = getId(assertion.getSubject());
+			int objectId = getId(assertion.getObject());
+			BinaryAboxFormat.writeVarInt(records_, recordType);
+			BinaryAboxFormat.writeVarInt(records_, propertyId);
+			BinaryAboxFormat.writeVarInt(records_, subjectId);
+			BinaryAboxFormat.writeVarInt(records_, objectId);
+			return true;
+		}
+		if (axiom instanceof OWLDeclarationAxiom) {
+			OWLEntity entity = ((OWLDeclarationAxiom) axiom).getEntity();
+			if (!entity.isOWLNamedIndividual())
+				return false;
+			// else
+			int individualId = getId(entity.asOWLNamedIndividual());
+			BinaryAboxFormat.writeVarInt(records_,
+					BinaryAboxFormat.RECORD_DECLARATION);
+			BinaryAboxFormat.writeVarInt(records_, individualId);
+			return true;
+		}
+		// else
+		return false;
+	}
+
+	private int getId(IRI iri) throws IOException {
+		Integer id = iriIds_.get(iri);
+		if (id != null)
+			return id;
+		// else
+		int newId = iriIds_.size();
+		iriIds_.put(iri, newId);
+		BinaryAboxFormat.writeString(newIris_, iri.toString());
+		newIriCount_++;
+		return newId;
+	}
+
+	private int getId(OWLIndividual individual) throws IOException {
+		if (individual.isNamed())
+			return getId(individual.asOWLNamedIndividual().getIRI()) << 1;
+		// else
+		OWLAnonymousIndividual anonymous = individual.asOWLAnonymousIndividual();
+		Integer id = anonymousIds_.get(anonymous);
+		if (id == null) {
+			id = anonymousIds_.size();
+			anonymousIds_.put(anonymous, id);
+		}
+		return (id << 1) | 1;
+	}
+
+	private void writeBlock() throws IOException {
+		if (recordCount_ == 0)
+			return;
+		// else
+		ByteArrayOutputStream block = new ByteArrayOutputStream(
+				newIris_.size() + records_.size() + 10);
+		BinaryAboxFormat.writeVarInt(block, newIriCount_);
+		newIris_.writeTo(block);
+		BinaryAboxFormat.writeVarInt(block, recordCount_);
+		records_.writeTo(block);
+		byte[] input = block.toByteArray();
+		deflater_.reset();
+		deflater_.setInput(input);
+		deflater_.finish();
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(
+				input.length / 2 + 16);
+		byte[] buffer = new byte[8192];
+		while (!deflater_.finished()) {
+			int count = deflater_.deflate(buffer);
+			compressed.write(buffer, 0, count);
+		}
+		out_.writeInt(compressed.size());
+		out_.writeInt(input.length);
+		compressed.writeTo(out_);
+		newIris_.reset();
+		records_.reset();
+		newIriCount_ = 0;
+		recordCount_ = 0;
+	}
+
+}
@@ -22,6 +22,7 @@ package de.uniulm.ki.aboxer;
  * #L%
  */
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -34,7 +35,9 @@ import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLAxiomVisitor;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,6 +70,13 @@ class Blacklister extends AbstractAxiomVisitor implements OWLAxiomVisitor {
 	private final Map<OWLClass, Set<OWLClass>> blacklistDependencies_ = new HashMap<OWLClass, Set<OWLClass>>(
 			128);
 
+	/**
+	 * If not {@code null}, the dependencies are stored here instead of
+	 * {@link #blacklistDependencies_}; they are taken into account only when
+	 * {@link #propagateDependencies()} is called
+	 */
+	private final ExternalDependencyStore externalDependencies_;
+
 	/**
 	 * An auxiliary queue used to buffer {@link OWLClass}es that should be
 	 * glacklisted; this is to avoid potential stack overflow (unbounded
@@ -80,7 +90,20 @@ class Blacklister extends AbstractAxiomVisitor implements OWLAxiomVisitor {
 	private final ThisPatternProcessor patternProcessor_ = new ThisPatternProcessor();
 
 	Blacklister() {
+		this(null);
+	}
+
+	/**
+	 * Creates a {@link Blacklister} that keeps the dependencies between
+	 * {@link OWLClass}es in the given {@link ExternalDependencyStore}; the
+	 * blacklisted classes are complete only after
+	 * {@link #propagateDependencies()} is called
+	 * 
+	 * @param externalDependencies
+	 */
+	Blacklister(ExternalDependencyStore externalDependencies) {
 		super(new HashSet<OWLClass>());
+		this.externalDependencies_ = externalDependencies;
 	}
 
 	@Override
@@ -108,28 +131,65 @@ class Blacklister extends AbstractAxiomVisitor implements OWLAxiomVisitor {
 	 * @param toBlackist
 	 */
 	void blacklist(Collection<OWLClass> toBlackist) {
+		blacklist(toBlackist, null);
+	}
+
+	/**
+	 * Blacklists the given {@link OWLClass}es together with their dependencies
+	 * 
+	 * @param toBlackist
+	 * @param newlyBlacklisted
+	 *            if not {@code null}, the {@link OWLClass}es that were not
+	 *            blacklisted before are added to this {@link Collection}
+	 */
+	void blacklist(Collection<OWLClass> toBlackist,
+			Collection<OWLClass> newlyBlacklisted) {
 		toBlacklis_.addAll(toBlackist);
-		processToBlacklist();
+		processToBlacklist(newlyBlacklisted);
+	}
+
+	/**
+	 * Blacklists the {@link OWLClass}es that depend on blacklisted
+	 * {@link OWLClass}es according to the dependencies in the
+	 * {@link ExternalDependencyStore}, if it is used; should be called after
+	 * all axioms are processed
+	 * 
+	 * @throws IOException
+	 *             if the dependencies cannot be read
+	 */
+	void propagateDependencies() throws IOException {
+		if (externalDependencies_ == null)
+			return;
+		// else
+		blacklist(externalDependencies_.getReachable(blacklisted));
 	}
 
 	/**
 	 * repeatedly processing the pending {@link OWLClass}es to be blacklisted
 	 * together with their dependencies until of them are processed
 	 */
-	private void processToBlacklist() {
+	private void processToBlacklist(Collection<OWLClass> newlyBlacklisted) {
+		long start = ConversionEvents.start();
+		int requestedCount = toBlacklis_.size();
+		int processedCount = 0;
 		for (;;) {
 			OWLClass next = toBlacklis_.poll();
 			if (next == null)
-				return;
+				break;
 			// else
+			processedCount++;
 			LOGGER_.trace("{} : blacklisted", next);
-			blacklisted.add(next);
+			if (blacklisted.add(next) && newlyBlacklisted != null)
+				newlyBlacklisted.add(next);
 			Set<OWLClass> dependent = blacklistDependencies_.remove(next);
 			if (dependent == null)
 				continue;
 			// else
 			toBlacklis_.addAll(dependent);
 		}
+		if (processedCount > requestedCount)
+			ConversionEvents.blacklistPropagated(requestedCount,
+					processedCount, start);
 	}
 
 	/**
@@ -157,18 +217,33 @@ class Blacklister extends AbstractAxiomVisitor implements OWLAxiomVisitor {
 
 		@Override
 		public OWLClass getNewContext(OWLClass oldContext,
-				OWLObjectPropertyExpression property) {
+				OWLObjectPropertyExpression property, OWLClassExpression filler) {
 			// we pass over the oldContext parameter that is used in
 			// dependencies
 			return oldContext;
 		}
 
+		@Override
+		public void visitIndividualExistential(OWLClass context,
+				OWLObjectPropertyExpression property, OWLIndividual value) {
+			// there are no classes to blacklist
+		}
+
 		@Override
 		public void visitSimpleExistential(OWLClass context,
 				OWLObjectPropertyExpression property, OWLClass filler) {
 			// we do not blacklist anything, but create a dependency to make
 			// sure that the filler is blacklisted whenever the left hand side
 			// of the subsumption is blacklisted
+			if (externalDependencies_ != null) {
+				try {
+					externalDependencies_.add(context, filler);
+				} catch (IOException e) {
+					throw new OWLRuntimeException(e);
+				}
+				return;
+			}
+			// else
 			Set<OWLClass> oldDependencies = blacklistDependencies_.get(context);
 			if (oldDependencies == null) {
 				HashSet<OWLClass> newDependencies = new HashSet<OWLClass>(4);
@@ -0,0 +1,413 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts axioms to assertions like {@link Aboxer}, but periodically saves
+ * the state of the conversion in a directory, so that an interrupted
+ * conversion can be continued from the last saved state by calling
+ * {@link #aboxify(OWLAxiomSource, OWLDataFactory, boolean)} again. The
+ * blacklisted classes are saved after the first pass; during the second pass,
+ * the result is written to segment files, and every time a checkpoint is
+ * made, the current segment is completed, and the number of processed input
+ * axioms and completed segments are recorded. When resuming, the segments
+ * written after the last checkpoint are discarded, and the input axioms
+ * processed before it are skipped. This requires that the
+ * {@link OWLAxiomSource} returns the axioms in the same order every time, like
+ * {@link InputSnapshot} does; sources that return the axioms of an
+ * {@link OWLOntology}, including {@link ParallelFunctionalSyntaxSource}, do
+ * not guarantee this. The result of a finished conversion can be read using
+ * {@link #readResult(OWLDataFactory, OWLAxiomProcessor)}.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class CheckpointingAboxer {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(CheckpointingAboxer.class);
+
+	// the states of the conversion recorded in checkpoints
+	private static final int STATE_BLACKLISTED = 1;
+	private static final int STATE_FINISHED = 2;
+
+	private static final String CHECKPOINT_FILE = "checkpoint";
+	private static final String BLACKLIST_FILE = "blacklist";
+	private static final String SEGMENT_FILE_PREFIX = "segment-";
+
+	/**
+	 * The directory where the state of the conversion is saved
+	 */
+	private final File directory_;
+
+	/**
+	 * The minimal time in milliseconds between two checkpoints
+	 */
+	private final long checkpointInterval_;
+
+	/**
+	 * @param directory
+	 *            the directory where the state of the conversion is saved;
+	 *            it should be used for one conversion only
+	 * @param checkpointInterval
+	 *            the minimal time in milliseconds between two checkpoints;
+	 *            larger intervals reduce the overhead of checkpoints, but more
+	 *            work is lost on interruption
+	 */
+	public CheckpointingAboxer(File directory, long checkpointInterval) {
+		this.directory_ = directory;
+		this.checkpointInterval_ = checkpointInterval;
+	}
+
+	/**
+	 * Converts axioms from the given {@link OWLAxiomSource} to assertions as
+	 * in {@link Aboxer#aboxify(OWLAxiomSource, OWLDataFactory,
+	 * OWLAxiomProcessor, boolean)}, continuing from the last checkpoint if the
+	 * conversion was interrupted before
+	 * 
+	 * @param input
+	 *            the source of axioms that should be (partially) replaced
+	 *            with assertions; it should return the axioms in the same
+	 *            order as in the interrupted conversion
+	 * @param factory
+	 *            the factory used to create the new axioms
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared; the
+	 *            anonymous individuals created before the checkpoint are not
+	 *            shared with those created after it
+	 * @throws IOException
+	 *             if the state of the conversion cannot be saved or read
+	 */
+	public void aboxify(OWLAxiomSource input, OWLDataFactory factory,
+			boolean shareWitnesses) throws IOException {
+		if (!directory_.isDirectory() && !directory_.mkdirs())
+			throw new IOException("Cannot create " + directory_);
+		Checkpoint checkpoint = readCheckpoint();
+		if (checkpoint != null && checkpoint.state == STATE_FINISHED) {
+			LOGGER_.info("The conversion is already finished");
+			return;
+		}
+		Set<OWLClass> blacklisted;
+		if (checkpoint == null) {
+			LOGGER_.info("Computing blacklisted classes...");
+			Blacklister blacklister = new Blacklister();
+			input.processAxioms(new AxiomVisitorProcessor(blacklister));
+			blacklisted = blacklister.getBlacklistedClasses();
+			writeBlacklist(blacklisted);
+			checkpoint = new Checkpoint(STATE_BLACKLISTED, 0, 0);
+			writeCheckpoint(checkpoint);
+		} else {
+			LOGGER_.info("Resuming after {} axioms", checkpoint.position);
+			blacklisted = readBlacklist(factory);
+		}
+		LOGGER_.debug("Blacklisted classes: {}", blacklisted.size());
+		LOGGER_.info("Producing assertions...");
+		// remove the segments written after the checkpoint
+		for (int i = checkpoint.segmentCount;; i++) {
+			File segment = getSegmentFile(i);
+			if (!segment.exists())
+				break;
+			if (!segment.delete())
+				throw new IOException("Cannot delete " + segment);
+		}
+		ResumingProcessor processor = new ResumingProcessor(checkpoint,
+				blacklisted, factory, shareWitnesses);
+		boolean processed = false;
+		try {
+			input.processAxioms(processor);
+			processed = true;
+		} catch (OWLRuntimeException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			// else
+			throw e;
+		} finally {
+			if (!processed)
+				processor.abort();
+		}
+		processor.finish();
+	}
+
+	/**
+	 * Passes the axioms of the result of the finished conversion to the given
+	 * {@link OWLAxiomProcessor}
+	 * 
+	 * @param factory
+	 *            the factory used to create the axioms
+	 * @param processor
+	 * @throws IOException
+	 *             if the conversion is not finished or the result cannot be
+	 *             read
+	 */
+	public void readResult(OWLDataFactory factory, OWLAxiomProcessor processor)
+			throws IOException {
+		Checkpoint checkpoint = readCheckpoint();
+		if (checkpoint == null || checkpoint.state != STATE_FINISHED)
+			throw new IOException("The conversion in " + directory_
+					+ " is not finished");
+		try {
+			for (int i = 0; i < checkpoint.segmentCount; i++) {
+				new InputSnapshot(getSegmentFile(i), factory)
+						.processAxioms(processor);
+			}
+		} catch (OWLRuntimeException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			// else
+			throw e;
+		}
+	}
+
+	/**
+	 * Loads the result of the finished conversion into a new ontology
+	 * 
+	 * @param manager
+	 *            the manager used to create the ontology
+	 * @return the ontology containing all axioms of the result
+	 * @throws IOException
+	 *             if the conversion is not finished or the result cannot be
+	 *             read
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology cannot be created
+	 */
+	public OWLOntology loadResult(OWLOntologyManager manager)
+			throws IOException, OWLOntologyCreationException {
+		OntologyProducerProcessor ontologyProducer = new OntologyProducerProcessor(
+				manager);
+		readResult(manager.getOWLDataFactory(), ontologyProducer);
+		return ontologyProducer.getOntology();
+	}
+
+	private File getSegmentFile(int segment) {
+		return new File(directory_, SEGMENT_FILE_PREFIX + segment);
+	}
+
+	private Checkpoint readCheckpoint() throws IOException {
+		File file = new File(directory_, CHECKPOINT_FILE);
+		if (!file.exists())
+			return null;
+		// else
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			return new Checkpoint(in.readInt(), in.readLong(), in.readInt());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Saves the given checkpoint replacing the previous one; the new
+	 * checkpoint is first written to a temporary file, which is then renamed
+	 */
+	private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+		File tmp = new File(directory_, CHECKPOINT_FILE + ".tmp");
+		FileOutputStream fileOut = new FileOutputStream(tmp);
+		DataOutputStream out = new DataOutputStream(fileOut);
+		try {
+			out.writeInt(checkpoint.state);
+			out.writeLong(checkpoint.position);
+			out.writeInt(checkpoint.segmentCount);
+			out.flush();
+			fileOut.getFD().sync();
+		} finally {
+			out.close();
+		}
+		if (!tmp.renameTo(new File(directory_, CHECKPOINT_FILE)))
+			throw new IOException("Cannot save " + CHECKPOINT_FILE + " in "
+					+ directory_);
+		LOGGER_.trace("checkpoint: {} axioms, {} segments",
+				checkpoint.position, checkpoint.segmentCount);
+	}
+
+	private void writeBlacklist(Set<OWLClass> blacklisted) throws IOException {
+		FileOutputStream fileOut = new FileOutputStream(new File(directory_,
+				BLACKLIST_FILE));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				fileOut));
+		try {
+			out.writeInt(blacklisted.size());
+			for (OWLClass next : blacklisted) {
+				out.writeUTF(next.getIRI().toString());
+			}
+			out.flush();
+			fileOut.getFD().sync();
+		} finally {
+			out.close();
+		}
+	}
+
+	private Set<OWLClass> readBlacklist(OWLDataFactory factory)
+			throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(new File(directory_, BLACKLIST_FILE))));
+		try {
+			int count = in.readInt();
+			Set<OWLClass> result = new HashSet<OWLClass>(count);
+			for (int i = 0; i < count; i++) {
+				result.add(factory.getOWLClass(IRI.create(in.readUTF())));
+			}
+			return result;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * The recorded state of the conversion
+	 */
+	private static class Checkpoint {
+
+		final int state;
+
+		/**
+		 * The number of input axioms processed in the second pass
+		 */
+		final long position;
+
+		/**
+		 * The number of completed segments of the result
+		 */
+		final int segmentCount;
+
+		Checkpoint(int state, long position, int segmentCount) {
+			this.state = state;
+			this.position = position;
+			this.segmentCount = segmentCount;
+		}
+
+	}
+
+	/**
+	 * The processor for the second pass: skips the axioms processed before
+	 * the checkpoint, converts the remaining ones writing the result to the
+	 * current segment, and makes checkpoints
+	 */
+	private class ResumingProcessor implements OWLAxiomProcessor {
+
+		private final AssertionCreator assertionCreator_;
+
+		/**
+		 * The position of the axiom from which to continue the conversion
+		 */
+		private final long resumePosition_;
+
+		/**
+		 * The position of the next axiom
+		 */
+		private long position_ = 0;
+
+		private int segmentCount_;
+
+		private InputSnapshot.Writer segment_ = null;
+
+		private long lastCheckpointTime_ = System.currentTimeMillis();
+
+		ResumingProcessor(Checkpoint checkpoint, Set<OWLClass> blacklisted,
+				OWLDataFactory factory, boolean shareWitnesses) {
+			this.resumePosition_ = checkpoint.position;
+			this.segmentCount_ = checkpoint.segmentCount;
+			this.assertionCreator_ = new AssertionCreator(blacklisted,
+					factory, new OWLAxiomProcessor() {
+						@Override
+						public void process(OWLAxiom axiom) {
+							segment_.process(axiom);
+						}
+					}, shareWitnesses);
+		}
+
+		@Override
+		public void process(OWLAxiom axiom) {
+			if (position_++ < resumePosition_)
+				return;
+			// else
+			try {
+				if (segment_ == null)
+					segment_ = new InputSnapshot.Writer(
+							getSegmentFile(segmentCount_));
+				axiom.accept(assertionCreator_);
+				long time = System.currentTimeMillis();
+				if (time - lastCheckpointTime_ >= checkpointInterval_) {
+					completeSegment();
+					writeCheckpoint(new Checkpoint(STATE_BLACKLISTED,
+							position_, segmentCount_));
+					lastCheckpointTime_ = time;
+				}
+			} catch (IOException e) {
+				throw new OWLRuntimeException(e);
+			}
+		}
+
+		void finish() throws IOException {
+			completeSegment();
+			writeCheckpoint(new Checkpoint(STATE_FINISHED, position_,
+					segmentCount_));
+			assertionCreator_.printStatistics();
+		}
+
+		/**
+		 * Discards the current segment, which is written after the last
+		 * checkpoint
+		 */
+		void abort() {
+			if (segment_ == null)
+				return;
+			// else
+			segment_.abort();
+			segment_ = null;
+		}
+
+		private void completeSegment() throws IOException {
+			if (segment_ == null)
+				return;
+			// else
+			segment_.close();
+			segment_ = null;
+			segmentCount_++;
+		}
+
+	}
+
+}
@@ -0,0 +1,598 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLIndividualAxiom;
+import org.semanticweb.owlapi.model.OWLLogicalAxiom;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLOntologyImpl;
+
+/**
+ * An ontology that stores class assertions with atomic classes, object
+ * property assertions, and declarations of individuals in an
+ * {@link AboxIndex}, and all other axioms as a usual ontology. It is filled
+ * as an {@link OWLAxiomProcessor} and can be accessed as a read-only
+ * {@link org.semanticweb.owlapi.model.OWLOntology}. It uses much less memory
+ * than a usual ontology if most of the axioms are assertions. Object property
+ * assertions with inverse properties are stored as the equivalent assertions
+ * with named properties.
+ * <p>
+ * The methods for retrieving all axioms, axioms of a given type, and the
+ * signature, as well as the methods for retrieving axioms of individuals,
+ * class assertions, object property assertions, declarations, and
+ * referencing axioms take the assertions in the index into account; all
+ * other methods consider only the axioms stored in the usual way. The sets of
+ * all axioms and of axioms of a given type are views that create the
+ * assertions on demand. The ontology is not managed by its
+ * {@link OWLOntologyManager}, and cannot be changed using it; it can be
+ * saved using {@link OWLOntologyManager#saveOntology}.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class CompactAboxOntology extends OWLOntologyImpl implements
+		OWLAxiomProcessor {
+
+	private static final long serialVersionUID = -6045373294640209497L;
+
+	private final OWLDataFactory factory_;
+
+	/**
+	 * Stores the assertions
+	 */
+	private final AboxIndex index_;
+
+	/**
+	 * Creates an empty anonymous ontology
+	 * 
+	 * @param manager
+	 *            the manager whose data factory is used to create the
+	 *            assertions
+	 */
+	public CompactAboxOntology(OWLOntologyManager manager) {
+		super(manager, new OWLOntologyID());
+		this.factory_ = manager.getOWLDataFactory();
+		this.index_ = new AboxIndex(factory_, new OWLAxiomProcessor() {
+			@Override
+			public void process(OWLAxiom axiom) {
+				addOtherAxiom(axiom);
+			}
+		});
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		index_.process(axiom);
+	}
+
+	/**
+	 * @return the {@link AboxIndex} in which the assertions are stored
+	 */
+	public AboxIndex getIndex() {
+		return index_;
+	}
+
+	void addOtherAxiom(OWLAxiom axiom) {
+		super.applyChange(new AddAxiom(this, axiom));
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             since the ontology is read-only
+	 */
+	@Override
+	public List<OWLOntologyChange> applyChange(OWLOntologyChange change) {
+		throw new UnsupportedOperationException(
+				"The ontology can only be changed by processing axioms");
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             since the ontology is read-only
+	 */
+	@Override
+	public List<OWLOntologyChange> applyChanges(
+			List<OWLOntologyChange> changes) {
+		throw new UnsupportedOperationException(
+				"The ontology can only be changed by processing axioms");
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return index_.getIndividuals().isEmpty() && super.isEmpty();
+	}
+
+	@Override
+	public int getAxiomCount() {
+		return index_.getDeclarationAxioms().size()
+				+ index_.getAssertionCount() + super.getAxiomCount();
+	}
+
+	@Override
+	public Set<OWLAxiom> getAxioms() {
+		return CompactAboxOntology.<OWLAxiom> union(
+				CompactAboxOntology.<OWLAxiom> union(
+						index_.getDeclarationAxioms(), getIndexedAssertions()),
+				super.getAxioms());
+	}
+
+	@Override
+	public int getLogicalAxiomCount() {
+		return index_.getAssertionCount() + super.getLogicalAxiomCount();
+	}
+
+	@Override
+	public Set<OWLLogicalAxiom> getLogicalAxioms() {
+		return CompactAboxOntology.<OWLLogicalAxiom> union(
+				getIndexedAssertions(), super.getLogicalAxioms());
+	}
+
+	@Override
+	public Set<OWLAxiom> getABoxAxioms(boolean includeImportsClosure) {
+		return CompactAboxOntology.<OWLAxiom> union(getIndexedAssertions(),
+				super.getABoxAxioms(includeImportsClosure));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> axiomType) {
+		return CompactAboxOntology.<T> union(
+				(Collection<? extends T>) getIndexedAxioms(axiomType),
+				super.getAxioms(axiomType));
+	}
+
+	@Override
+	public <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> axiomType,
+			boolean includeImportsClosure) {
+		// the ontology has no imports
+		return getAxioms(axiomType);
+	}
+
+	@Override
+	public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType) {
+		return getIndexedAxioms(axiomType).size()
+				+ super.getAxiomCount(axiomType);
+	}
+
+	@Override
+	public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType,
+			boolean includeImportsClosure) {
+		return getAxiomCount(axiomType);
+	}
+
+	@Override
+	public boolean containsAxiom(OWLAxiom axiom) {
+		return index_.contains(axiom) || super.containsAxiom(axiom);
+	}
+
+	@Override
+	public boolean containsAxiom(OWLAxiom axiom, boolean includeImportsClosure) {
+		return containsAxiom(axiom);
+	}
+
+	@Override
+	public boolean containsAxiomIgnoreAnnotations(OWLAxiom axiom) {
+		return index_.contains(axiom.getAxiomWithoutAnnotations())
+				|| super.containsAxiomIgnoreAnnotations(axiom);
+	}
+
+	@Override
+	public boolean containsAxiomIgnoreAnnotations(OWLAxiom axiom,
+			boolean includeImportsClosure) {
+		return containsAxiomIgnoreAnnotations(axiom);
+	}
+
+	@Override
+	public Set<OWLDeclarationAxiom> getDeclarationAxioms(OWLEntity entity) {
+		Set<OWLDeclarationAxiom> result = new HashSet<OWLDeclarationAxiom>(
+				super.getDeclarationAxioms(entity));
+		if (index_.isDeclared(entity))
+			result.add(factory_.getOWLDeclarationAxiom(entity));
+		return result;
+	}
+
+	@Override
+	public boolean isDeclared(OWLEntity entity) {
+		return index_.isDeclared(entity) || super.isDeclared(entity);
+	}
+
+	@Override
+	public boolean isDeclared(OWLEntity entity, boolean includeImportsClosure) {
+		return isDeclared(entity);
+	}
+
+	@Override
+	public Set<OWLClassAssertionAxiom> getClassAssertionAxioms(
+			OWLIndividual individual) {
+		Set<OWLClassAssertionAxiom> result = new HashSet<OWLClassAssertionAxiom>(
+				super.getClassAssertionAxioms(individual));
+		result.addAll(index_.getClassAssertionAxioms(individual));
+		return result;
+	}
+
+	@Override
+	public Set<OWLClassAssertionAxiom> getClassAssertionAxioms(
+			OWLClassExpression ce) {
+		Set<OWLClassAssertionAxiom> result = new HashSet<OWLClassAssertionAxiom>(
+				super.getClassAssertionAxioms(ce));
+		if (!ce.isAnonymous())
+			result.addAll(index_.getClassAssertionAxioms(ce.asOWLClass()));
+		return result;
+	}
+
+	@Override
+	public Set<OWLObjectPropertyAssertionAxiom> getObjectPropertyAssertionAxioms(
+			OWLIndividual individual) {
+		Set<OWLObjectPropertyAssertionAxiom> result = new HashSet<OWLObjectPropertyAssertionAxiom>(
+				super.getObjectPropertyAssertionAxioms(individual));
+		result.addAll(index_.getObjectPropertyAssertionAxioms(individual));
+		return result;
+	}
+
+	@Override
+	public Set<OWLIndividualAxiom> getAxioms(OWLIndividual individual) {
+		Set<OWLIndividualAxiom> result = new HashSet<OWLIndividualAxiom>(
+				super.getAxioms(individual));
+		result.addAll(index_.getClassAssertionAxioms(individual));
+		result.addAll(index_.getObjectPropertyAssertionAxioms(individual));
+		return result;
+	}
+
+	@Override
+	public Set<OWLAxiom> getReferencingAxioms(OWLEntity entity) {
+		Set<OWLAxiom> result = new HashSet<OWLAxiom>(
+				super.getReferencingAxioms(entity));
+		if (entity.isOWLNamedIndividual()) {
+			result.addAll(index_.getAssertions(entity.asOWLNamedIndividual()));
+			if (index_.isDeclared(entity))
+				result.add(factory_.getOWLDeclarationAxiom(entity));
+		} else if (entity.isOWLClass())
+			result.addAll(index_.getClassAssertionAxioms(entity.asOWLClass()));
+		else if (entity.isOWLObjectProperty())
+			result.addAll(index_.getObjectPropertyAssertionAxioms(entity
+					.asOWLObjectProperty()));
+		return result;
+	}
+
+	@Override
+	public Set<OWLAxiom> getReferencingAxioms(OWLEntity entity,
+			boolean includeImportsClosure) {
+		return getReferencingAxioms(entity);
+	}
+
+	@Override
+	public Set<OWLAxiom> getReferencingAxioms(OWLAnonymousIndividual individual) {
+		Set<OWLAxiom> result = new HashSet<OWLAxiom>(
+				super.getReferencingAxioms(individual));
+		result.addAll(index_.getAssertions(individual));
+		return result;
+	}
+
+	@Override
+	public Set<OWLEntity> getSignature() {
+		Set<OWLEntity> result = new HashSet<OWLEntity>(
+				super.getSignature());
+		result.addAll(getIndexedNamedIndividuals());
+		result.addAll(index_.getClasses());
+		result.addAll(index_.getObjectProperties());
+		return result;
+	}
+
+	@Override
+	public Set<OWLEntity> getSignature(boolean includeImportsClosure) {
+		return getSignature();
+	}
+
+	@Override
+	public Set<OWLNamedIndividual> getIndividualsInSignature() {
+		Set<OWLNamedIndividual> result = new HashSet<OWLNamedIndividual>(
+				super.getIndividualsInSignature());
+		result.addAll(getIndexedNamedIndividuals());
+		return result;
+	}
+
+	@Override
+	public Set<OWLNamedIndividual> getIndividualsInSignature(
+			boolean includeImportsClosure) {
+		return getIndividualsInSignature();
+	}
+
+	@Override
+	public Set<OWLAnonymousIndividual> getReferencedAnonymousIndividuals() {
+		Set<OWLAnonymousIndividual> result = new HashSet<OWLAnonymousIndividual>(
+				super.getReferencedAnonymousIndividuals());
+		for (OWLIndividual individual : index_.getIndividuals()) {
+			if (individual.isAnonymous())
+				result.add(individual.asOWLAnonymousIndividual());
+		}
+		return result;
+	}
+
+	@Override
+	public Set<OWLAnonymousIndividual> getAnonymousIndividuals() {
+		return getReferencedAnonymousIndividuals();
+	}
+
+	@Override
+	public Set<OWLClass> getClassesInSignature() {
+		Set<OWLClass> result = new HashSet<OWLClass>(
+				super.getClassesInSignature());
+		result.addAll(index_.getClasses());
+		return result;
+	}
+
+	@Override
+	public Set<OWLClass> getClassesInSignature(boolean includeImportsClosure) {
+		return getClassesInSignature();
+	}
+
+	@Override
+	public Set<OWLObjectProperty> getObjectPropertiesInSignature() {
+		Set<OWLObjectProperty> result = new HashSet<OWLObjectProperty>(
+				super.getObjectPropertiesInSignature());
+		result.addAll(index_.getObjectProperties());
+		return result;
+	}
+
+	@Override
+	public Set<OWLObjectProperty> getObjectPropertiesInSignature(
+			boolean includeImportsClosure) {
+		return getObjectPropertiesInSignature();
+	}
+
+	@Override
+	public boolean containsIndividualInSignature(IRI iri) {
+		return index_.containsInSignature(factory_.getOWLNamedIndividual(iri))
+				|| super.containsIndividualInSignature(iri);
+	}
+
+	@Override
+	public boolean containsIndividualInSignature(IRI iri,
+			boolean includeImportsClosure) {
+		return containsIndividualInSignature(iri);
+	}
+
+	@Override
+	public boolean containsClassInSignature(IRI iri) {
+		return index_.containsInSignature(factory_.getOWLClass(iri))
+				|| super.containsClassInSignature(iri);
+	}
+
+	@Override
+	public boolean containsClassInSignature(IRI iri,
+			boolean includeImportsClosure) {
+		return containsClassInSignature(iri);
+	}
+
+	@Override
+	public boolean containsObjectPropertyInSignature(IRI iri) {
+		return index_.containsInSignature(factory_.getOWLObjectProperty(iri))
+				|| super.containsObjectPropertyInSignature(iri);
+	}
+
+	@Override
+	public boolean containsObjectPropertyInSignature(IRI iri,
+			boolean includeImportsClosure) {
+		return containsObjectPropertyInSignature(iri);
+	}
+
+	@Override
+	public boolean containsEntityInSignature(OWLEntity entity) {
+		return index_.containsInSignature(entity)
+				|| super.containsEntityInSignature(entity);
+	}
+
+	@Override
+	public boolean containsEntityInSignature(OWLEntity entity,
+			boolean includeImportsClosure) {
+		return containsEntityInSignature(entity);
+	}
+
+	@Override
+	public boolean containsEntityInSignature(IRI iri) {
+		return containsIndividualInSignature(iri)
+				|| containsClassInSignature(iri)
+				|| containsObjectPropertyInSignature(iri)
+				|| super.containsEntityInSignature(iri);
+	}
+
+	@Override
+	public boolean containsEntityInSignature(IRI iri,
+			boolean includeImportsClosure) {
+		return containsEntityInSignature(iri);
+	}
+
+	@Override
+	public Set<OWLEntity> getEntitiesInSignature(IRI iri) {
+		Set<OWLEntity> result = new HashSet<OWLEntity>(
+				super.getEntitiesInSignature(iri));
+		OWLEntity[] candidates = { factory_.getOWLNamedIndividual(iri),
+				factory_.getOWLClass(iri), factory_.getOWLObjectProperty(iri) };
+		for (OWLEntity candidate : candidates) {
+			if (index_.containsInSignature(candidate))
+				result.add(candidate);
+		}
+		return result;
+	}
+
+	@Override
+	public Set<OWLEntity> getEntitiesInSignature(IRI iri,
+			boolean includeImportsClosure) {
+		return getEntitiesInSignature(iri);
+	}
+
+	@Override
+	public boolean containsReference(OWLClass owlClass) {
+		return index_.containsInSignature(owlClass)
+				|| super.containsReference(owlClass);
+	}
+
+	@Override
+	public boolean containsReference(OWLObjectProperty property) {
+		return index_.containsInSignature(property)
+				|| super.containsReference(property);
+	}
+
+	@Override
+	public boolean containsReference(OWLNamedIndividual individual) {
+		return index_.containsInSignature(individual)
+				|| super.containsReference(individual);
+	}
+
+	/**
+	 * @return the view of the assertions stored in the index
+	 */
+	private Set<OWLLogicalAxiom> getIndexedAssertions() {
+		return CompactAboxOntology.<OWLLogicalAxiom> union(
+				index_.getClassAssertionAxioms(),
+				index_.getObjectPropertyAssertionAxioms());
+	}
+
+	/**
+	 * @return the view of the axioms of the given type stored in the index
+	 */
+	private Collection<? extends OWLAxiom> getIndexedAxioms(
+			AxiomType<?> axiomType) {
+		if (axiomType == AxiomType.DECLARATION)
+			return index_.getDeclarationAxioms();
+		if (axiomType == AxiomType.CLASS_ASSERTION)
+			return index_.getClassAssertionAxioms();
+		if (axiomType == AxiomType.OBJECT_PROPERTY_ASSERTION)
+			return index_.getObjectPropertyAssertionAxioms();
+		// else
+		return Collections.emptyList();
+	}
+
+	private Set<OWLNamedIndividual> getIndexedNamedIndividuals() {
+		Set<OWLNamedIndividual> result = new HashSet<OWLNamedIndividual>();
+		for (OWLIndividual individual : index_.getIndividuals()) {
+			if (individual.isNamed())
+				result.add(individual.asOWLNamedIndividual());
+		}
+		return result;
+	}
+
+	/**
+	 * @return the read-only view of the union of the given collections, which
+	 *         should be disjoint and contain no duplicates
+	 */
+	static <T> Set<T> union(Collection<? extends T> first,
+			Collection<? extends T> second) {
+		return new UnionSet<T>(first, second);
+	}
+
+	/**
+	 * A read-only view of the union of two disjoint collections without
+	 * duplicates
+	 * 
+	 * @author "Yevgeny Kazakov"
+	 * 
+	 * @param <T>
+	 *            the type of the elements
+	 */
+	static class UnionSet<T> extends AbstractSet<T> {
+
+		private final Collection<? extends T> first_, second_;
+
+		UnionSet(Collection<? extends T> first, Collection<? extends T> second) {
+			this.first_ = first;
+			this.second_ = second;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return first_.contains(o) || second_.contains(o);
+		}
+
+		@Override
+		public int size() {
+			return first_.size() + second_.size();
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new Iterator<T>() {
+
+				private Iterator<? extends T> current_ = first_.iterator();
+
+				private boolean onFirst_ = true;
+
+				@Override
+				public boolean hasNext() {
+					if (current_.hasNext())
+						return true;
+					// else
+					if (!onFirst_)
+						return false;
+					// else
+					onFirst_ = false;
+					current_ = second_.iterator();
+					return current_.hasNext();
+				}
+
+				@Override
+				public T next() {
+					if (!hasNext())
+						throw new NoSuchElementException();
+					// else
+					return current_.next();
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,146 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+
+/**
+ * Keeps the {@link ConversionListener} that receives the events of all
+ * conversions. The events are created only when a listener is registered,
+ * so that the conversions are not slowed down otherwise.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public final class ConversionEvents {
+
+	/**
+	 * The phase computing the blacklisted classes
+	 */
+	public static final String PHASE_BLACKLIST = "blacklist";
+
+	/**
+	 * The phase propagating the blacklisted classes over dependencies stored
+	 * in files
+	 */
+	public static final String PHASE_PROPAGATION = "propagation";
+
+	/**
+	 * The phase producing the assertions
+	 */
+	public static final String PHASE_ASSERTIONS = "assertions";
+
+	private static volatile ConversionListener listener_ = null;
+
+	private static volatile long expensiveAxiomThreshold_ = 1000000;
+
+	private ConversionEvents() {
+		// no instances
+	}
+
+	/**
+	 * @param listener
+	 *            the {@link ConversionListener} that should receive the
+	 *            events, or {@code null} if the events should not be created
+	 */
+	public static void setListener(ConversionListener listener) {
+		listener_ = listener;
+	}
+
+	/**
+	 * @return the registered {@link ConversionListener}, or {@code null} if
+	 *         there is none
+	 */
+	public static ConversionListener getListener() {
+		return listener_;
+	}
+
+	/**
+	 * @param nanos
+	 *            the minimal processing time of an axiom in nanoseconds for
+	 *            which
+	 *            {@link ConversionListener#expensiveAxiomProcessed(String, OWLAxiom, int, int, long)}
+	 *            is called; 1 millisecond by default
+	 */
+	public static void setExpensiveAxiomThreshold(long nanos) {
+		expensiveAxiomThreshold_ = nanos;
+	}
+
+	/**
+	 * @return the minimal processing time of an axiom in nanoseconds for which
+	 *         {@link ConversionListener#expensiveAxiomProcessed(String, OWLAxiom, int, int, long)}
+	 *         is called
+	 */
+	public static long getExpensiveAxiomThreshold() {
+		return expensiveAxiomThreshold_;
+	}
+
+	/**
+	 * @return the current time in nanoseconds if a listener is registered, or
+	 *         0 otherwise
+	 */
+	static long start() {
+		return listener_ == null ? 0 : System.nanoTime();
+	}
+
+	static void phaseFinished(String phase, long axiomCount, long startNanos) {
+		ConversionListener listener = listener_;
+		if (listener == null || startNanos == 0)
+			return;
+		// else
+		listener.phaseFinished(phase, axiomCount, System.nanoTime()
+				- startNanos);
+	}
+
+	static void blacklistPropagated(int requestedCount, int processedCount,
+			long startNanos) {
+		ConversionListener listener = listener_;
+		if (listener == null || startNanos == 0)
+			return;
+		// else
+		listener.blacklistPropagated(requestedCount, processedCount,
+				System.nanoTime() - startNanos);
+	}
+
+	static void axiomProcessed(String phase, OWLAxiom axiom, long startNanos) {
+		ConversionListener listener = listener_;
+		if (listener == null || startNanos == 0)
+			return;
+		// else
+		long duration = System.nanoTime() - startNanos;
+		if (duration < expensiveAxiomThreshold_)
+			return;
+		// else
+		Set<OWLClassExpression> nested = axiom.getNestedClassExpressions();
+		int maxWidth = 0;
+		for (OWLClassExpression next : nested) {
+			maxWidth = Math.max(maxWidth, next.asConjunctSet().size());
+		}
+		listener.expensiveAxiomProcessed(phase, axiom, nested.size(),
+				maxWidth, duration);
+	}
+
+}
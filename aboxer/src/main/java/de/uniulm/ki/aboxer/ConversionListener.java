@@ -0,0 +1,87 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * Receives timing events of conversions, e.g., for profiling conversions
+ * that take longer than expected. A listener is registered using
+ * {@link ConversionEvents#setListener(ConversionListener)}; when no listener
+ * is registered, no events are created. The methods can be called from
+ * several threads concurrently.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ * @see ConversionStatistics
+ */
+public interface ConversionListener {
+
+	/**
+	 * Called when a phase of a conversion is finished
+	 * 
+	 * @param phase
+	 *            the name of the phase, e.g.,
+	 *            {@link ConversionEvents#PHASE_BLACKLIST}
+	 * @param axiomCount
+	 *            the number of axioms processed in this phase
+	 * @param durationNanos
+	 *            the duration of this phase in nanoseconds
+	 */
+	void phaseFinished(String phase, long axiomCount, long durationNanos);
+
+	/**
+	 * Called when classes are blacklisted because they depend on other
+	 * blacklisted classes
+	 * 
+	 * @param requestedCount
+	 *            the number of classes requested to be blacklisted
+	 * @param processedCount
+	 *            the number of classes processed, including those that are
+	 *            blacklisted because of dependencies
+	 * @param durationNanos
+	 *            the duration of the propagation in nanoseconds
+	 */
+	void blacklistPropagated(int requestedCount, int processedCount,
+			long durationNanos);
+
+	/**
+	 * Called when processing of an axiom took at least
+	 * {@link ConversionEvents#getExpensiveAxiomThreshold()} nanoseconds
+	 * 
+	 * @param phase
+	 *            the name of the phase in which the axiom is processed
+	 * @param axiom
+	 * @param nestedExpressionCount
+	 *            the number of different class expressions nested in the
+	 *            axiom
+	 * @param maxConjunctionWidth
+	 *            the maximal number of conjuncts of these class expressions
+	 * @param durationNanos
+	 *            the processing time of the axiom in nanoseconds
+	 */
+	void expensiveAxiomProcessed(String phase, OWLAxiom axiom,
+			int nestedExpressionCount, int maxConjunctionWidth,
+			long durationNanos);
+
+}
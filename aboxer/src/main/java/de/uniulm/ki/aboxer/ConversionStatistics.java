@@ -0,0 +1,173 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * A {@link ConversionListener} that accumulates the received events, and can
+ * be registered as a management bean, so that the statistics of running
+ * conversions can be observed using JMX clients, such as JConsole or Java
+ * Mission Control, together with the statistics of memory and garbage
+ * collection.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class ConversionStatistics implements ConversionListener,
+		ConversionStatisticsMBean {
+
+	/**
+	 * The name under which the statistics are registered by
+	 * {@link #register()}
+	 */
+	public static final String OBJECT_NAME = "de.uniulm.ki.aboxer:type=ConversionStatistics";
+
+	private final AtomicLong blacklistPhaseNanos_ = new AtomicLong(),
+			propagationPhaseNanos_ = new AtomicLong(),
+			assertionPhaseNanos_ = new AtomicLong(),
+			processedAxiomCount_ = new AtomicLong(),
+			propagationBatchCount_ = new AtomicLong(),
+			propagatedClassCount_ = new AtomicLong(),
+			propagationNanos_ = new AtomicLong(),
+			expensiveAxiomCount_ = new AtomicLong(),
+			expensiveAxiomNanos_ = new AtomicLong();
+
+	private volatile String lastExpensiveAxiom_ = null;
+
+	/**
+	 * Registers these statistics with the platform management server under
+	 * {@link #OBJECT_NAME}, replacing previously registered ones
+	 * 
+	 * @throws JMException
+	 *             if the registration fails
+	 */
+	public void register() throws JMException {
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		if (ManagementFactory.getPlatformMBeanServer().isRegistered(name))
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+	}
+
+	@Override
+	public void phaseFinished(String phase, long axiomCount,
+			long durationNanos) {
+		if (ConversionEvents.PHASE_BLACKLIST.equals(phase))
+			blacklistPhaseNanos_.addAndGet(durationNanos);
+		else if (ConversionEvents.PHASE_PROPAGATION.equals(phase))
+			propagationPhaseNanos_.addAndGet(durationNanos);
+		else if (ConversionEvents.PHASE_ASSERTIONS.equals(phase))
+			assertionPhaseNanos_.addAndGet(durationNanos);
+		processedAxiomCount_.addAndGet(axiomCount);
+	}
+
+	@Override
+	public void blacklistPropagated(int requestedCount, int processedCount,
+			long durationNanos) {
+		propagationBatchCount_.incrementAndGet();
+		propagatedClassCount_.addAndGet(processedCount - requestedCount);
+		propagationNanos_.addAndGet(durationNanos);
+	}
+
+	@Override
+	public void expensiveAxiomProcessed(String phase, OWLAxiom axiom,
+			int nestedExpressionCount, int maxConjunctionWidth,
+			long durationNanos) {
+		expensiveAxiomCount_.incrementAndGet();
+		expensiveAxiomNanos_.addAndGet(durationNanos);
+		lastExpensiveAxiom_ = phase + ": " + axiom + " (nested: "
+				+ nestedExpressionCount + ", width: " + maxConjunctionWidth
+				+ ", " + durationNanos / 1000 + " us)";
+	}
+
+	@Override
+	public long getBlacklistPhaseMillis() {
+		return blacklistPhaseNanos_.get() / 1000000;
+	}
+
+	@Override
+	public long getPropagationPhaseMillis() {
+		return propagationPhaseNanos_.get() / 1000000;
+	}
+
+	@Override
+	public long getAssertionPhaseMillis() {
+		return assertionPhaseNanos_.get() / 1000000;
+	}
+
+	@Override
+	public long getProcessedAxiomCount() {
+		return processedAxiomCount_.get();
+	}
+
+	@Override
+	public long getPropagationBatchCount() {
+		return propagationBatchCount_.get();
+	}
+
+	@Override
+	public long getPropagatedClassCount() {
+		return propagatedClassCount_.get();
+	}
+
+	@Override
+	public long getPropagationMillis() {
+		return propagationNanos_.get() / 1000000;
+	}
+
+	@Override
+	public long getExpensiveAxiomCount() {
+		return expensiveAxiomCount_.get();
+	}
+
+	@Override
+	public long getExpensiveAxiomMillis() {
+		return expensiveAxiomNanos_.get() / 1000000;
+	}
+
+	@Override
+	public String getLastExpensiveAxiom() {
+		return lastExpensiveAxiom_;
+	}
+
+	@Override
+	public void reset() {
+		blacklistPhaseNanos_.set(0);
+		propagationPhaseNanos_.set(0);
+		assertionPhaseNanos_.set(0);
+		processedAxiomCount_.set(0);
+		propagationBatchCount_.set(0);
+		propagatedClassCount_.set(0);
+		propagationNanos_.set(0);
+		expensiveAxiomCount_.set(0);
+		expensiveAxiomNanos_.set(0);
+		lastExpensiveAxiom_ = null;
+	}
+
+}
@@ -0,0 +1,55 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * The management interface of {@link ConversionStatistics}
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public interface ConversionStatisticsMBean {
+
+	long getBlacklistPhaseMillis();
+
+	long getPropagationPhaseMillis();
+
+	long getAssertionPhaseMillis();
+
+	long getProcessedAxiomCount();
+
+	long getPropagationBatchCount();
+
+	long getPropagatedClassCount();
+
+	long getPropagationMillis();
+
+	long getExpensiveAxiomCount();
+
+	long getExpensiveAxiomMillis();
+
+	String getLastExpensiveAxiom();
+
+	void reset();
+
+}
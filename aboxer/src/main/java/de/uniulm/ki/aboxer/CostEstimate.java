@@ -0,0 +1,135 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * The estimated costs of a conversion computed by {@link CostEstimator}
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class CostEstimate {
+
+	private final long inputAxiomCount_, sampledAxiomCount_,
+			newIndividualCount_, anonymousIndividualCount_,
+			classAssertionCount_, objectPropertyAssertionCount_,
+			outputAxiomCount_, outputBytes_, peakHeapBytes_;
+
+	CostEstimate(long inputAxiomCount, long sampledAxiomCount,
+			long newIndividualCount, long anonymousIndividualCount,
+			long classAssertionCount, long objectPropertyAssertionCount,
+			long outputAxiomCount, long outputBytes, long peakHeapBytes) {
+		this.inputAxiomCount_ = inputAxiomCount;
+		this.sampledAxiomCount_ = sampledAxiomCount;
+		this.newIndividualCount_ = newIndividualCount;
+		this.anonymousIndividualCount_ = anonymousIndividualCount;
+		this.classAssertionCount_ = classAssertionCount;
+		this.objectPropertyAssertionCount_ = objectPropertyAssertionCount;
+		this.outputAxiomCount_ = outputAxiomCount;
+		this.outputBytes_ = outputBytes;
+		this.peakHeapBytes_ = peakHeapBytes;
+	}
+
+	/**
+	 * @return the number of axioms in the input
+	 */
+	public long getInputAxiomCount() {
+		return inputAxiomCount_;
+	}
+
+	/**
+	 * @return the number of axioms in the sample from which the estimates are
+	 *         computed
+	 */
+	public long getSampledAxiomCount() {
+		return sampledAxiomCount_;
+	}
+
+	/**
+	 * @return the estimated number of declarations of individuals created
+	 *         from declarations of classes
+	 */
+	public long getNewIndividualCount() {
+		return newIndividualCount_;
+	}
+
+	/**
+	 * @return the estimated number of anonymous individuals
+	 */
+	public long getAnonymousIndividualCount() {
+		return anonymousIndividualCount_;
+	}
+
+	/**
+	 * @return the estimated number of created class assertions
+	 */
+	public long getClassAssertionCount() {
+		return classAssertionCount_;
+	}
+
+	/**
+	 * @return the estimated number of created object property assertions
+	 */
+	public long getObjectPropertyAssertionCount() {
+		return objectPropertyAssertionCount_;
+	}
+
+	/**
+	 * @return the estimated number of axioms passed to the output, including
+	 *         the axioms that are not converted; the same axiom may be
+	 *         counted several times
+	 */
+	public long getOutputAxiomCount() {
+		return outputAxiomCount_;
+	}
+
+	/**
+	 * @return the estimated size in bytes of the result saved in the
+	 *         Functional-Style Syntax, excluding prefixes and declarations
+	 *         added when saving
+	 */
+	public long getOutputBytes() {
+		return outputBytes_;
+	}
+
+	/**
+	 * @return the estimated heap memory in bytes used to convert the input
+	 *         loaded as an ontology into a new ontology
+	 */
+	public long getPeakHeapBytes() {
+		return peakHeapBytes_;
+	}
+
+	@Override
+	public String toString() {
+		return "input axioms: " + inputAxiomCount_ + " (sampled: "
+				+ sampledAxiomCount_ + "), new individuals: "
+				+ newIndividualCount_ + ", anonymous individuals: "
+				+ anonymousIndividualCount_ + ", class assertions: "
+				+ classAssertionCount_ + ", object property assertions: "
+				+ objectPropertyAssertionCount_ + ", output axioms: "
+				+ outputAxiomCount_ + ", output bytes: " + outputBytes_
+				+ ", peak heap bytes: " + peakHeapBytes_;
+	}
+
+}
@@ -0,0 +1,253 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Estimates the size of the result of a conversion without performing it.
+ * The axioms of the input are read once, a random sample of them is
+ * converted, and the numbers of created individuals and assertions are
+ * extrapolated to the whole input. Since the blacklisted classes are computed
+ * only from the sample, some classes that are blacklisted in the full
+ * conversion may be converted in the sample; thus the numbers of created
+ * individuals and assertions tend to be over-estimated, which is usually
+ * acceptable for sizing purposes.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ * @see CostEstimate
+ */
+public class CostEstimator {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(CostEstimator.class);
+
+	/**
+	 * The approximate heap memory in bytes taken by an input axiom during the
+	 * conversion, including the input ontology and the {@link Blacklister};
+	 * measured with OWL API 3.4.9, see {@code MemoryFootprintTest}
+	 */
+	static final long HEAP_PER_INPUT_AXIOM = 600;
+
+	/**
+	 * The approximate heap memory in bytes taken by an axiom of the resulting
+	 * ontology
+	 */
+	static final long HEAP_PER_OUTPUT_AXIOM = 400;
+
+	/**
+	 * Estimates the result of {@link Aboxer#aboxify(OWLOntology)} for the
+	 * given ontology
+	 * 
+	 * @param ontology
+	 * @param sampleRate
+	 *            the probability with which every axiom is sampled, between
+	 *            0 (exclusive) and 1 (inclusive)
+	 * @return the estimated costs of the conversion
+	 */
+	public static CostEstimate estimate(OWLOntology ontology, double sampleRate) {
+		return estimate(new OntologyAxiomSource(ontology), ontology
+				.getOWLOntologyManager().getOWLDataFactory(), sampleRate,
+				new Random());
+	}
+
+	/**
+	 * Estimates the result of
+	 * {@link Aboxer#aboxify(OWLAxiomSource, OWLDataFactory, OWLAxiomProcessor, boolean)}
+	 * for the given {@link OWLAxiomSource} without sharing of anonymous
+	 * individuals; the axioms are read from the source once
+	 * 
+	 * @param input
+	 *            the source of axioms to be converted
+	 * @param factory
+	 *            the factory used to create the axioms of the sample
+	 *            conversion
+	 * @param sampleRate
+	 *            the probability with which every axiom is sampled, between
+	 *            0 (exclusive) and 1 (inclusive)
+	 * @param random
+	 *            the source of randomness for sampling
+	 * @return the estimated costs of the conversion
+	 */
+	public static CostEstimate estimate(OWLAxiomSource input,
+			OWLDataFactory factory, final double sampleRate,
+			final Random random) {
+		if (sampleRate <= 0 || sampleRate > 1)
+			throw new IllegalArgumentException("Invalid sample rate: "
+					+ sampleRate);
+		final List<OWLAxiom> sample = new ArrayList<OWLAxiom>();
+		final long[] inputCount = { 0 };
+		input.processAxioms(new OWLAxiomProcessor() {
+			@Override
+			public void process(OWLAxiom axiom) {
+				inputCount[0]++;
+				if (random.nextDouble() < sampleRate)
+					sample.add(axiom);
+			}
+		});
+		LOGGER_.debug("Sampled {} of {} axioms", sample.size(), inputCount[0]);
+		Blacklister blacklister = new Blacklister();
+		for (OWLAxiom axiom : sample) {
+			axiom.accept(blacklister);
+		}
+		long[] output = { 0, 0 };
+		AssertionCreator assertionCreator = new AssertionCreator(
+				blacklister.getBlacklistedClasses(), factory,
+				new OutputCounter(output, null));
+		for (OWLAxiom axiom : sample) {
+			axiom.accept(assertionCreator);
+		}
+		double scale = sample.isEmpty() ? 0 : (double) inputCount[0]
+				/ sample.size();
+		return extrapolate(inputCount[0], sample.size(), assertionCreator,
+				output, scale);
+	}
+
+	/**
+	 * Converts a random sample of the classes of the given ontology as in
+	 * {@link Aboxer#aboxify(OWLOntology, OWLAxiomProcessor, boolean)} and
+	 * estimates the result of the full conversion
+	 * 
+	 * @see #preview(OWLAxiomSource, OWLDataFactory, OWLAxiomProcessor,
+	 *      boolean, double, long)
+	 */
+	public static CostEstimate preview(OWLOntology ontology,
+			OWLAxiomProcessor sampleProcessor, boolean shareWitnesses,
+			double sampleRate, long seed) {
+		return preview(new OntologyAxiomSource(ontology), ontology
+				.getOWLOntologyManager().getOWLDataFactory(), sampleProcessor,
+				shareWitnesses, sampleRate, seed);
+	}
+
+	/**
+	 * Converts a random sample of the classes of the given
+	 * {@link OWLAxiomSource} as in
+	 * {@link Aboxer#aboxify(OWLAxiomSource, OWLDataFactory, OWLAxiomProcessor, boolean)}
+	 * and estimates the result of the full conversion. Unlike
+	 * {@link #estimate(OWLAxiomSource, OWLDataFactory, double, Random)}, the
+	 * blacklisted classes are computed from all axioms, so the sample is
+	 * converted exactly as in the full conversion. In the second pass, only
+	 * the declarations and sub-class axioms of the sampled classes are
+	 * converted, as well as a sample of the remaining axioms; the sample is
+	 * determined by the given seed. The axioms are read from the source twice.
+	 * 
+	 * @param input
+	 *            the source of axioms to be converted
+	 * @param factory
+	 *            the factory used to create the new axioms
+	 * @param sampleProcessor
+	 *            the {@link OWLAxiomProcessor} that receives the result of the
+	 *            conversion of the sample
+	 * @param shareWitnesses
+	 *            if {@code true}, anonymous individuals are shared
+	 * @param sampleRate
+	 *            the probability with which every class is sampled, between 0
+	 *            (exclusive) and 1 (inclusive)
+	 * @param seed
+	 *            the seed that determines the sample
+	 * @return the estimated costs of the full conversion
+	 */
+	public static CostEstimate preview(OWLAxiomSource input,
+			OWLDataFactory factory, OWLAxiomProcessor sampleProcessor,
+			boolean shareWitnesses, double sampleRate, long seed) {
+		Blacklister blacklister = new Blacklister();
+		AxiomVisitorProcessor blacklisting = new AxiomVisitorProcessor(
+				blacklister);
+		input.processAxioms(blacklisting);
+		long[] output = { 0, 0 };
+		final SamplingAssertionCreator assertionCreator = new SamplingAssertionCreator(
+				blacklister.getBlacklistedClasses(), factory,
+				new OutputCounter(output, sampleProcessor), shareWitnesses,
+				sampleRate, seed);
+		final long[] sampleCount = { 0 };
+		input.processAxioms(new OWLAxiomProcessor() {
+			@Override
+			public void process(OWLAxiom axiom) {
+				axiom.accept(assertionCreator);
+				if (assertionCreator.pollAxiomSampled())
+					sampleCount[0]++;
+			}
+		});
+		CostEstimate result = extrapolate(blacklisting.getCount(),
+				sampleCount[0], assertionCreator, output,
+				assertionCreator.getScale());
+		LOGGER_.info("Preview: {}", result);
+		return result;
+	}
+
+	private static CostEstimate extrapolate(long inputCount, long sampleCount,
+			AssertionCreator assertionCreator, long[] output, double scale) {
+		long outputAxiomCount = Math.round(output[0] * scale);
+		return new CostEstimate(inputCount, sampleCount,
+				Math.round(assertionCreator.getNewIndividualCount() * scale),
+				Math.round(assertionCreator.getAnonymousIndividualCount()
+						* scale),
+				Math.round(assertionCreator.getNewClassAssertionCount()
+						* scale),
+				Math.round(assertionCreator
+						.getNewObjectPropertyAssertionCount() * scale),
+				outputAxiomCount, Math.round(output[1] * scale),
+				HEAP_PER_INPUT_AXIOM * inputCount + HEAP_PER_OUTPUT_AXIOM
+						* outputAxiomCount);
+	}
+
+	/**
+	 * Counts the axioms and their sizes in the Functional-Style Syntax, and
+	 * passes them to another processor, if given
+	 */
+	private static class OutputCounter implements OWLAxiomProcessor {
+
+		/**
+		 * The number of axioms and the number of bytes
+		 */
+		private final long[] counts_;
+
+		private final OWLAxiomProcessor next_;
+
+		OutputCounter(long[] counts, OWLAxiomProcessor next) {
+			this.counts_ = counts;
+			this.next_ = next;
+		}
+
+		@Override
+		public void process(OWLAxiom axiom) {
+			counts_[0]++;
+			// a line in the Functional-Style Syntax
+			counts_[1] += axiom.toString().length() + 1;
+			if (next_ != null)
+				next_.process(axiom);
+		}
+
+	}
+
+}
@@ -0,0 +1,95 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * A {@link ProcessorStage} that counts the axioms of every {@link AxiomType}
+ * before passing them to the next processor.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class CountingProcessor extends ProcessorStage {
+
+	private final OWLAxiomProcessor next_;
+
+	private final Map<AxiomType<?>, long[]> counts_ = new HashMap<AxiomType<?>, long[]>();
+
+	private long count_ = 0;
+
+	/**
+	 * @param next
+	 *            the processor to which the axioms are passed
+	 */
+	public CountingProcessor(OWLAxiomProcessor next) {
+		this.next_ = next;
+	}
+
+	/**
+	 * Creates a stage that only counts axioms
+	 */
+	public CountingProcessor() {
+		this(DISCARD);
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		count_++;
+		AxiomType<?> type = axiom.getAxiomType();
+		long[] count = counts_.get(type);
+		if (count == null) {
+			count = new long[1];
+			counts_.put(type, count);
+		}
+		count[0]++;
+		next_.process(axiom);
+	}
+
+	/**
+	 * @return the number of processed axioms
+	 */
+	public long getCount() {
+		return count_;
+	}
+
+	/**
+	 * @return the number of processed axioms of the given type
+	 */
+	public long getCount(AxiomType<?> type) {
+		long[] count = counts_.get(type);
+		return count == null ? 0 : count[0];
+	}
+
+	@Override
+	public void close() throws IOException {
+		close(next_);
+	}
+
+}
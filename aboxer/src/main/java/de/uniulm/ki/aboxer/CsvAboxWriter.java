@@ -0,0 +1,296 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/**
+ * An {@link OWLAxiomProcessor} that writes class assertions with atomic
+ * classes, object property assertions, and declarations of individuals to CSV
+ * files in a directory, for bulk loading into relational databases and
+ * property graph databases. Individuals, classes, and properties are
+ * identified by numbers, which are assigned on their first occurrence. The
+ * following files are written:
+ * <ul>
+ * <li>{@value #NODES_FILE}: the individuals and classes with their numbers,
+ * IRIs (or node IDs for anonymous individuals), and labels
+ * {@value #LABEL_INDIVIDUAL}, {@value #LABEL_ANONYMOUS_INDIVIDUAL}, or
+ * {@value #LABEL_CLASS};
+ * <li>{@value #PROPERTIES_FILE}: the object properties with their numbers and
+ * IRIs;
+ * <li>{@value #CLASS_ASSERTIONS_FILE}: the numbers of the individual and the
+ * class of each class assertion;
+ * <li>{@value #PROPERTY_ASSERTIONS_FILE}: the numbers of the subject, the
+ * property, and the object of each object property assertion; assertions
+ * with inverse properties are written with the subject and the object
+ * swapped;
+ * <li>{@value #EDGES_FILE}: the edges between the nodes for all assertions;
+ * class assertions are edges of type {@value #TYPE_EDGE}, and property
+ * assertions are edges whose type is the IRI of the property.
+ * </ul>
+ * The files {@value #NODES_FILE} and {@value #EDGES_FILE} have headers in the
+ * format of the bulk import tool of Neo4j. All other axioms are passed to a
+ * separate {@link OWLAxiomProcessor}. The files are complete only after
+ * {@link #close()} is called. The {@link IOException}s that occur during
+ * processing of axioms are rethrown as {@link OWLRuntimeException}s.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class CsvAboxWriter implements OWLAxiomProcessor, Closeable {
+
+	public static final String NODES_FILE = "nodes.csv";
+	public static final String EDGES_FILE = "edges.csv";
+	public static final String PROPERTIES_FILE = "properties.csv";
+	public static final String CLASS_ASSERTIONS_FILE = "class_assertions.csv";
+	public static final String PROPERTY_ASSERTIONS_FILE = "property_assertions.csv";
+
+	public static final String LABEL_INDIVIDUAL = "Individual";
+	public static final String LABEL_ANONYMOUS_INDIVIDUAL = "AnonymousIndividual";
+	public static final String LABEL_CLASS = "Class";
+
+	/**
+	 * The type of edges for class assertions
+	 */
+	public static final String TYPE_EDGE = "rdf:type";
+
+	/**
+	 * The processor for axioms that cannot be written to the files
+	 */
+	private final OWLAxiomProcessor otherAxiomProcessor_;
+
+	private final Writer nodes_, edges_, properties_, classAssertions_,
+			propertyAssertions_;
+
+	/**
+	 * The numbers assigned to individuals, classes, and properties; a class
+	 * and an individual with the same IRI get different numbers
+	 */
+	private final Map<OWLObject, Integer> ids_ = new HashMap<OWLObject, Integer>(
+			1024);
+
+	// counters for statistics
+	private long countWrittenAxioms_ = 0;
+
+	/**
+	 * @param directory
+	 *            the directory in which the files are created
+	 * @param otherAxiomProcessor
+	 *            the processor for axioms that cannot be written to the files
+	 * @throws IOException
+	 *             if the files cannot be created
+	 */
+	public CsvAboxWriter(File directory, OWLAxiomProcessor otherAxiomProcessor)
+			throws IOException {
+		this.otherAxiomProcessor_ = otherAxiomProcessor;
+		this.nodes_ = createFile(directory, NODES_FILE, "id:ID", "iri",
+				":LABEL");
+		this.edges_ = createFile(directory, EDGES_FILE, ":START_ID",
+				":END_ID", ":TYPE");
+		this.properties_ = createFile(directory, PROPERTIES_FILE, "id", "iri");
+		this.classAssertions_ = createFile(directory, CLASS_ASSERTIONS_FILE,
+				"individual", "class");
+		this.propertyAssertions_ = createFile(directory,
+				PROPERTY_ASSERTIONS_FILE, "subject", "property", "object");
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		try {
+			if (!write(axiom)) {
+				otherAxiomProcessor_.process(axiom);
+				return;
+			}
+			// else
+			countWrittenAxioms_++;
+		} catch (IOException e) {
+			throw new OWLRuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the number of axioms written to the files
+	 */
+	public long getWrittenAxiomCount() {
+		return countWrittenAxioms_;
+	}
+
+	/**
+	 * Writes the buffered data and closes the files
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException exception = null;
+		for (Writer writer : new Writer[] { nodes_, edges_, properties_,
+				classAssertions_, propertyAssertions_ }) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+		if (exception != null)
+			throw exception;
+	}
+
+	/**
+	 * Writes the given axiom if possible
+	 * 
+	 * @return {@code true} if the axiom was written and {@code false} otherwise
+	 */
+	private boolean write(OWLAxiom axiom) throws IOException {
+		if (axiom instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom assertion = (OWLClassAssertionAxiom) axiom;
+			OWLClassExpression type = assertion.getClassExpression();
+			if (type.isAnonymous())
+				return false;
+			// else
+			int individualId = getId(assertion.getIndividual());
+			int classId = getId(type.asOWLClass());
+			writeRecord(classAssertions_, individualId, classId);
+			writeRecord(edges_, individualId, classId, TYPE_EDGE);
+			return true;
+		}
+		if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+			OWLObjectPropertyExpression propertyExpression = assertion
+					.getProperty();
+			OWLIndividual subject = assertion.getSubject();
+			OWLIndividual object = assertion.getObject();
+			if (propertyExpression.isAnonymous()) {
+				// write the assertion for the named property
+				subject = assertion.getObject();
+				object = assertion.getSubject();
+			}
+			OWLObjectProperty property = propertyExpression
+					.getNamedProperty();
+			int subjectId = getId(subject);
+			int propertyId = getId(property);
+			int objectId = getId(object);
+			writeRecord(propertyAssertions_, subjectId, propertyId, objectId);
+			writeRecord(edges_, subjectId, objectId, property.getIRI());
+			return true;
+		}
+		if (axiom instanceof OWLDeclarationAxiom) {
+			OWLEntity entity = ((OWLDeclarationAxiom) axiom).getEntity();
+			if (!entity.isOWLNamedIndividual())
+				return false;
+			// else
+			getId(entity.asOWLNamedIndividual());
+			return true;
+		}
+		// else
+		return false;
+	}
+
+	private int getId(OWLIndividual individual) throws IOException {
+		Integer id = ids_.get(individual);
+		if (id != null)
+			return id;
+		// else
+		id = ids_.size();
+		ids_.put(individual, id);
+		if (individual.isNamed())
+			writeRecord(nodes_, id, individual.asOWLNamedIndividual()
+					.getIRI(), LABEL_INDIVIDUAL);
+		else
+			writeRecord(nodes_, id, individual.asOWLAnonymousIndividual()
+					.getID(), LABEL_ANONYMOUS_INDIVIDUAL);
+		return id;
+	}
+
+	private int getId(OWLClass owlClass) throws IOException {
+		Integer id = ids_.get(owlClass);
+		if (id != null)
+			return id;
+		// else
+		id = ids_.size();
+		ids_.put(owlClass, id);
+		writeRecord(nodes_, id, owlClass.getIRI(), LABEL_CLASS);
+		return id;
+	}
+
+	private int getId(OWLObjectProperty property) throws IOException {
+		Integer id = ids_.get(property);
+		if (id != null)
+			return id;
+		// else
+		id = ids_.size();
+		ids_.put(property, id);
+		writeRecord(properties_, id, property.getIRI());
+		return id;
+	}
+
+	private static Writer createFile(File directory, String name,
+			Object... header) throws IOException {
+		Writer result = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(new File(directory, name)), "UTF-8"),
+				1 << 16);
+		writeRecord(result, header);
+		return result;
+	}
+
+	/**
+	 * Writes a line with the given fields, quoting them if necessary
+	 */
+	static void writeRecord(Writer writer, Object... fields)
+			throws IOException {
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0)
+				writer.write(',');
+			String field = fields[i].toString();
+			if (field.indexOf(',') < 0 && field.indexOf('"') < 0
+					&& field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+				writer.write(field);
+				continue;
+			}
+			// else
+			writer.write('"');
+			writer.write(field.replace("\"", "\"\""));
+			writer.write('"');
+		}
+		writer.write('\n');
+	}
+
+}
@@ -0,0 +1,592 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link OWLAxiomProcessor} that passes the processed axioms to another
+ * {@link OWLAxiomProcessor} without duplicates. The axioms are identified by
+ * 64-bit fingerprints of their string representations; the probability that
+ * two different axioms have the same fingerprint, in which case only one of
+ * them is passed, is negligible for any realistic number of axioms.
+ * <p>
+ * There are two modes. In the exact mode, the fingerprints of all passed
+ * axioms are kept in a compact hash set, which takes about 16 bytes per
+ * axiom. In the bounded mode, only a Bloom filter of a fixed size is kept in
+ * memory. Axioms that are not in the filter are new and are passed
+ * immediately; their fingerprints are written to files. The remaining axioms
+ * (candidates) are written to a file, and when this processor is closed, the
+ * fingerprints are sorted externally to find the candidates that were not
+ * passed before, which are then passed. Thus, in the bounded mode, some axioms
+ * are passed only after {@link #close()}.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class DeduplicatingProcessor implements OWLAxiomProcessor, Closeable {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(DeduplicatingProcessor.class);
+
+	/**
+	 * The default number of fingerprints sorted in memory in the bounded mode
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * The number of hash functions of the Bloom filter
+	 */
+	private static final int BLOOM_HASH_COUNT = 4;
+
+	/**
+	 * The maximal size of the Bloom filter in bits, which corresponds to the
+	 * largest array of words whose length is a power of two
+	 */
+	public static final long MAX_BLOOM_FILTER_BITS = 1L << 36;
+
+	/**
+	 * The index recorded for the fingerprints of axioms that are passed
+	 * immediately; it is smaller than the indexes of candidates, so such
+	 * fingerprints come first after sorting
+	 */
+	private static final long PASSED = -1;
+
+	/**
+	 * The number of candidates after which the serialization stream is reset
+	 * to release the written objects
+	 */
+	private static final int RESET_INTERVAL = 1024;
+
+	private final OWLAxiomProcessor output_;
+
+	/**
+	 * The fingerprints of the passed axioms in the exact mode, or {@code null}
+	 */
+	private final FingerprintSet fingerprints_;
+
+	/**
+	 * The Bloom filter in the bounded mode, or {@code null}
+	 */
+	private final long[] bloomFilter_;
+
+	/**
+	 * The directory where the files are created in the bounded mode
+	 */
+	private final File directory_;
+
+	/**
+	 * The pairs of fingerprints and indexes of candidates (or
+	 * {@link #PASSED}) not yet written to a run file
+	 */
+	private final long[] buffer_;
+
+	private int bufferedCount_ = 0;
+
+	/**
+	 * The sorted run files written so far
+	 */
+	private final List<File> runs_ = new ArrayList<File>();
+
+	private File candidatesFile_ = null;
+
+	private ObjectOutputStream candidates_ = null;
+
+	private long candidateCount_ = 0;
+
+	private long countDuplicates_ = 0;
+
+	/**
+	 * Creates a {@link DeduplicatingProcessor} in the exact mode
+	 * 
+	 * @param output
+	 *            the {@link OWLAxiomProcessor} that receives the axioms
+	 *            without duplicates
+	 */
+	public DeduplicatingProcessor(OWLAxiomProcessor output) {
+		this.output_ = output;
+		this.fingerprints_ = new FingerprintSet();
+		this.bloomFilter_ = null;
+		this.directory_ = null;
+		this.buffer_ = null;
+	}
+
+	/**
+	 * Creates a {@link DeduplicatingProcessor} in the bounded mode
+	 * 
+	 * @param output
+	 *            the {@link OWLAxiomProcessor} that receives the axioms
+	 *            without duplicates
+	 * @param directory
+	 *            the directory where the temporary files are created; they
+	 *            are deleted when this processor is closed
+	 * @param bloomFilterBits
+	 *            the size of the Bloom filter in bits, which is rounded up to
+	 *            a power of two; about 10 bits per distinct axiom keep the
+	 *            number of candidates low; at most
+	 *            {@link #MAX_BLOOM_FILTER_BITS}
+	 * @param bufferSize
+	 *            the number of fingerprints sorted in memory before they are
+	 *            written to a file
+	 */
+	public DeduplicatingProcessor(OWLAxiomProcessor output, File directory,
+			long bloomFilterBits, int bufferSize) {
+		if (bloomFilterBits > MAX_BLOOM_FILTER_BITS)
+			throw new IllegalArgumentException("Bloom filter too large: "
+					+ bloomFilterBits + " bits");
+		// else
+		this.output_ = output;
+		this.fingerprints_ = null;
+		int words = 1;
+		while ((long) words * 64 < bloomFilterBits)
+			words <<= 1;
+		this.bloomFilter_ = new long[words];
+		this.directory_ = directory;
+		this.buffer_ = new long[2 * bufferSize];
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		long fingerprint = getFingerprint(axiom);
+		if (fingerprints_ != null) {
+			if (fingerprints_.add(fingerprint))
+				output_.process(axiom);
+			else
+				countDuplicates_++;
+			return;
+		}
+		// else
+		try {
+			if (addToBloomFilter(fingerprint)) {
+				addFingerprint(fingerprint, PASSED);
+				output_.process(axiom);
+				return;
+			}
+			// else
+			if (candidates_ == null) {
+				candidatesFile_ = File.createTempFile("candidates", ".ser",
+						directory_);
+				candidates_ = new ObjectOutputStream(new BufferedOutputStream(
+						new FileOutputStream(candidatesFile_)));
+			}
+			candidates_.writeObject(axiom);
+			if (candidateCount_ % RESET_INTERVAL == 0)
+				candidates_.reset();
+			addFingerprint(fingerprint, candidateCount_++);
+		} catch (IOException e) {
+			throw new OWLRuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the number of duplicate axioms found so far; in the bounded
+	 *         mode, the duplicates among candidates are counted when this
+	 *         processor is closed
+	 */
+	public long getDuplicateCount() {
+		return countDuplicates_;
+	}
+
+	/**
+	 * In the bounded mode, passes the remaining axioms and deletes the
+	 * temporary files
+	 */
+	@Override
+	public void close() throws IOException {
+		if (candidates_ == null) {
+			deleteFiles();
+			return;
+		}
+		// else
+		try {
+			candidates_.close();
+			candidates_ = null;
+			writeRun();
+			CandidateSet selected = selectCandidates();
+			LOGGER_.debug("{} candidates, {} new", candidateCount_,
+					selected.cardinality());
+			countDuplicates_ += candidateCount_ - selected.cardinality();
+			ObjectInputStream in = new ObjectInputStream(
+					new BufferedInputStream(new FileInputStream(
+							candidatesFile_)));
+			try {
+				for (long i = 0; i < candidateCount_; i++) {
+					OWLAxiom axiom = (OWLAxiom) in.readObject();
+					if (selected.get(i))
+						output_.process(axiom);
+				}
+			} catch (ClassNotFoundException e) {
+				throw new IOException(e);
+			} finally {
+				in.close();
+			}
+		} finally {
+			deleteFiles();
+		}
+	}
+
+	/**
+	 * @return the fingerprint of the given axiom
+	 */
+	static long getFingerprint(OWLAxiom axiom) {
+		return getFingerprint(axiom.toString());
+	}
+
+	/**
+	 * @return the 64-bit fingerprint of the given string
+	 */
+	static long getFingerprint(String string) {
+		// 64-bit FNV-1a over the characters, followed by a final mix
+		long result = 0xcbf29ce484222325L;
+		for (int i = 0; i < string.length(); i++) {
+			result ^= string.charAt(i);
+			result *= 0x100000001b3L;
+		}
+		result ^= result >>> 33;
+		result *= 0xff51afd7ed558ccdL;
+		result ^= result >>> 33;
+		return result;
+	}
+
+	/**
+	 * Adds the given fingerprint to the Bloom filter
+	 * 
+	 * @return {@code true} if the fingerprint was not in the filter
+	 */
+	private boolean addToBloomFilter(long fingerprint) {
+		long mask = (long) bloomFilter_.length * 64 - 1;
+		// the high bits of the second hash are used for large filters
+		long hash1 = fingerprint;
+		long hash2 = Long.rotateLeft(fingerprint, 32) | 1;
+		boolean added = false;
+		for (int i = 0; i < BLOOM_HASH_COUNT; i++) {
+			long bit = (hash1 + i * hash2) & mask;
+			int wordIndex = (int) (bit >>> 6);
+			long word = bloomFilter_[wordIndex];
+			long bitMask = 1L << bit;
+			if ((word & bitMask) == 0) {
+				bloomFilter_[wordIndex] = word | bitMask;
+				added = true;
+			}
+		}
+		return added;
+	}
+
+	private void addFingerprint(long fingerprint, long index)
+			throws IOException {
+		if (bufferedCount_ * 2 == buffer_.length)
+			writeRun();
+		buffer_[2 * bufferedCount_] = fingerprint;
+		buffer_[2 * bufferedCount_ + 1] = index;
+		bufferedCount_++;
+	}
+
+	/**
+	 * Sorts the buffered pairs and writes them to a new run file
+	 */
+	private void writeRun() throws IOException {
+		if (bufferedCount_ == 0)
+			return;
+		// else
+		sortPairs(buffer_, 0, bufferedCount_ - 1);
+		File run = File.createTempFile("fingerprints", ".run", directory_);
+		runs_.add(run);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(run)));
+		try {
+			for (int i = 0; i < 2 * bufferedCount_; i++) {
+				out.writeLong(buffer_[i]);
+			}
+		} finally {
+			out.close();
+		}
+		bufferedCount_ = 0;
+	}
+
+	/**
+	 * Merges the run files and selects the first candidate for every
+	 * fingerprint of candidates that does not occur among the fingerprints of
+	 * the passed axioms
+	 * 
+	 * @return the indexes of the selected candidates
+	 */
+	private CandidateSet selectCandidates() throws IOException {
+		CandidateSet result = new CandidateSet();
+		PriorityQueue<RunReader> readers = new PriorityQueue<RunReader>(
+				Math.max(1, runs_.size()));
+		try {
+			for (File run : runs_) {
+				RunReader reader = new RunReader(run);
+				if (reader.advance())
+					readers.add(reader);
+			}
+			boolean first = true;
+			long fingerprint = 0;
+			boolean seen = false;
+			for (;;) {
+				RunReader reader = readers.poll();
+				if (reader == null)
+					break;
+				// else
+				if (first || reader.fingerprint != fingerprint) {
+					first = false;
+					fingerprint = reader.fingerprint;
+					seen = false;
+				}
+				if (!seen && reader.index != PASSED)
+					result.set(reader.index);
+				seen = true;
+				if (reader.advance())
+					readers.add(reader);
+			}
+		} finally {
+			for (RunReader reader : readers) {
+				reader.close();
+			}
+		}
+		return result;
+	}
+
+	private void deleteFiles() {
+		for (File run : runs_) {
+			if (!run.delete())
+				LOGGER_.warn("Cannot delete {}", run);
+		}
+		runs_.clear();
+		if (candidatesFile_ != null && !candidatesFile_.delete())
+			LOGGER_.warn("Cannot delete {}", candidatesFile_);
+		candidatesFile_ = null;
+	}
+
+	/**
+	 * Sorts the pairs of values stored at the even and odd positions of the
+	 * given array, in the order of the first and then the second values,
+	 * between the given pair numbers (inclusive)
+	 */
+	static void sortPairs(long[] pairs, int low, int high) {
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			long pivotFirst = pairs[2 * middle];
+			long pivotSecond = pairs[2 * middle + 1];
+			int i = low, j = high;
+			while (i <= j) {
+				while (comparePair(pairs, i, pivotFirst, pivotSecond) < 0)
+					i++;
+				while (comparePair(pairs, j, pivotFirst, pivotSecond) > 0)
+					j--;
+				if (i <= j) {
+					swapPairs(pairs, i++, j--);
+				}
+			}
+			// recursion on the smaller part to bound the stack depth
+			if (j - low < high - i) {
+				sortPairs(pairs, low, j);
+				low = i;
+			} else {
+				sortPairs(pairs, i, high);
+				high = j;
+			}
+		}
+	}
+
+	private static int comparePair(long[] pairs, int pair, long first,
+			long second) {
+		long value = pairs[2 * pair];
+		if (value != first)
+			return value < first ? -1 : 1;
+		// else
+		value = pairs[2 * pair + 1];
+		return value < second ? -1 : value == second ? 0 : 1;
+	}
+
+	private static void swapPairs(long[] pairs, int i, int j) {
+		for (int k = 0; k < 2; k++) {
+			long tmp = pairs[2 * i + k];
+			pairs[2 * i + k] = pairs[2 * j + k];
+			pairs[2 * j + k] = tmp;
+		}
+	}
+
+	/**
+	 * Reads the pairs of a run file in the sorted order
+	 */
+	private static class RunReader implements Comparable<RunReader> {
+
+		private final DataInputStream in_;
+
+		long fingerprint, index;
+
+		RunReader(File run) throws IOException {
+			this.in_ = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(run)));
+		}
+
+		boolean advance() throws IOException {
+			try {
+				fingerprint = in_.readLong();
+				index = in_.readLong();
+				return true;
+			} catch (EOFException e) {
+				close();
+				return false;
+			}
+		}
+
+		void close() throws IOException {
+			in_.close();
+		}
+
+		@Override
+		public int compareTo(RunReader other) {
+			if (fingerprint != other.fingerprint)
+				return fingerprint < other.fingerprint ? -1 : 1;
+			// else
+			return index < other.index ? -1 : index == other.index ? 0 : 1;
+		}
+
+	}
+
+	/**
+	 * A set of indexes of candidates, which, unlike {@link BitSet}, can
+	 * contain indexes that do not fit into an {@code int}
+	 */
+	static class CandidateSet {
+
+		/**
+		 * The number of indexes kept in one {@link BitSet}
+		 */
+		private static final int PAGE_SIZE = 1 << 30;
+
+		private final List<BitSet> pages_ = new ArrayList<BitSet>();
+
+		void set(long index) {
+			int page = (int) (index / PAGE_SIZE);
+			while (pages_.size() <= page)
+				pages_.add(new BitSet());
+			pages_.get(page).set((int) (index % PAGE_SIZE));
+		}
+
+		boolean get(long index) {
+			int page = (int) (index / PAGE_SIZE);
+			return page < pages_.size()
+					&& pages_.get(page).get((int) (index % PAGE_SIZE));
+		}
+
+		long cardinality() {
+			long result = 0;
+			for (BitSet page : pages_) {
+				result += page.cardinality();
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * A hash set of fingerprints using open addressing
+	 */
+	static class FingerprintSet {
+
+		/**
+		 * The fingerprints; 0 denotes an empty slot, so the fingerprint 0 is
+		 * recorded by {@link #containsZero_}
+		 */
+		private long[] table_ = new long[1024];
+
+		private int size_ = 0;
+
+		private boolean containsZero_ = false;
+
+		/**
+		 * @return {@code true} if the fingerprint was not in this set
+		 */
+		boolean add(long fingerprint) {
+			if (fingerprint == 0) {
+				if (containsZero_)
+					return false;
+				// else
+				containsZero_ = true;
+				return true;
+			}
+			if (insert(table_, fingerprint)) {
+				if (++size_ * 2 > table_.length)
+					grow();
+				return true;
+			}
+			// else
+			return false;
+		}
+
+		int size() {
+			return size_ + (containsZero_ ? 1 : 0);
+		}
+
+		private static boolean insert(long[] table, long fingerprint) {
+			int mask = table.length - 1;
+			int i = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+			for (;;) {
+				if (table[i] == fingerprint)
+					return false;
+				// else
+				if (table[i] == 0) {
+					table[i] = fingerprint;
+					return true;
+				}
+				// else
+				i = (i + 1) & mask;
+			}
+		}
+
+		private void grow() {
+			long[] table = new long[table_.length * 2];
+			for (long fingerprint : table_) {
+				if (fingerprint != 0)
+					insert(table, fingerprint);
+			}
+			table_ = table;
+		}
+
+	}
+
+}
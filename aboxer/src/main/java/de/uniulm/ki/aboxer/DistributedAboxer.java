@@ -0,0 +1,414 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The coordinator for converting ontologies to assertions using several
+ * processes, possibly on different machines. The input axioms are split into
+ * shards, which are saved in files accessible by all processes; the input is
+ * read as a stream, so the coordinator does not need to hold it in memory.
+ * Each shard is
+ * converted by a {@link DistributedWorker} connected to this coordinator over
+ * a socket. The workers first compute the blacklisted classes of their shards
+ * using {@link Blacklister}; since dependencies between classes may cross
+ * shards, the coordinator then repeatedly sends the newly blacklisted classes
+ * of all workers to all workers, which propagate them over their local
+ * dependencies, until no new classes are blacklisted. After this, each worker
+ * converts its shard using {@link AssertionCreator} with the global set of
+ * blacklisted classes and saves the result to a file. The union of the
+ * resulting files is equivalent to the result of
+ * {@link Aboxer#aboxify(OWLOntology)} for the union of the shards.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class DistributedAboxer {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(DistributedAboxer.class);
+
+	/**
+	 * The message sent to workers instead of the number of classes to
+	 * blacklist to indicate that the blacklisted classes are computed
+	 */
+	static final int BLACKLIST_DONE = -1;
+
+	/**
+	 * The default number of milliseconds to wait for a worker to connect
+	 */
+	public static final int DEFAULT_ACCEPT_TIMEOUT = 600000;
+
+	/**
+	 * The number of milliseconds to wait for a local worker to exit before
+	 * it is destroyed
+	 */
+	private static final int WORKER_EXIT_TIMEOUT = 10000;
+
+	/**
+	 * The socket on which the workers are accepted
+	 */
+	private final ServerSocket serverSocket_;
+
+	/**
+	 * The worker processes started by {@link #launchLocalWorkers(int)}
+	 */
+	private final List<Process> localWorkers_ = new ArrayList<Process>();
+
+	/**
+	 * Opens a coordinator accepting the workers on the given port
+	 * 
+	 * @param port
+	 *            the port number, or 0 to use any free port
+	 * @throws IOException
+	 *             if the port cannot be opened
+	 */
+	public DistributedAboxer(int port) throws IOException {
+		this.serverSocket_ = new ServerSocket(port);
+		serverSocket_.setSoTimeout(DEFAULT_ACCEPT_TIMEOUT);
+	}
+
+	/**
+	 * Sets for how long {@link #aboxify(List, File)} waits for the next
+	 * worker to connect before it fails
+	 * 
+	 * @param timeout
+	 *            the number of milliseconds, or 0 to wait forever
+	 * @throws IOException
+	 *             if the timeout cannot be set
+	 */
+	public void setAcceptTimeout(int timeout) throws IOException {
+		serverSocket_.setSoTimeout(timeout);
+	}
+
+	/**
+	 * @return the port on which the workers are accepted
+	 */
+	public int getPort() {
+		return serverSocket_.getLocalPort();
+	}
+
+	/**
+	 * Saves the axioms of the given {@link OWLAxiomSource} into the given
+	 * number of {@link InputSnapshot} files of roughly equal size in the given
+	 * directory. The axioms are written as they are read, so the memory used
+	 * does not depend on the number of axioms.
+	 * 
+	 * @param input
+	 *            the source of axioms to split, e.g., a
+	 *            {@link ParallelFunctionalSyntaxSource} for a large document
+	 * @param directory
+	 *            the directory where the files should be created
+	 * @param shardCount
+	 *            the number of files to create
+	 * @return the list of created files
+	 * @throws IOException
+	 *             if a file cannot be written
+	 */
+	public static List<File> splitInput(OWLAxiomSource input, File directory,
+			int shardCount) throws IOException {
+		if (shardCount < 1)
+			throw new IllegalArgumentException("Invalid number of shards: "
+					+ shardCount);
+		List<File> result = new ArrayList<File>(shardCount);
+		final List<InputSnapshot.Writer> writers = new ArrayList<InputSnapshot.Writer>(
+				shardCount);
+		boolean processed = false;
+		try {
+			for (int i = 0; i < shardCount; i++) {
+				File file = new File(directory, "shard-" + i + ".snapshot");
+				writers.add(new InputSnapshot.Writer(file));
+				result.add(file);
+			}
+			input.processAxioms(new OWLAxiomProcessor() {
+
+				private int next_ = 0;
+
+				@Override
+				public void process(OWLAxiom axiom) {
+					writers.get(next_).process(axiom);
+					next_ = (next_ + 1) % writers.size();
+				}
+			});
+			processed = true;
+		} catch (OWLRuntimeException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			// else
+			throw e;
+		} finally {
+			if (!processed)
+				for (InputSnapshot.Writer writer : writers) {
+					writer.abort();
+				}
+		}
+		for (InputSnapshot.Writer writer : writers) {
+			writer.close();
+		}
+		return result;
+	}
+
+	/**
+	 * Saves the axioms of the given ontology into the given number of files
+	 * as in {@link #splitInput(OWLAxiomSource, File, int)}
+	 * 
+	 * @param ontology
+	 *            the ontology to split
+	 * @param directory
+	 *            the directory where the files should be created
+	 * @param shardCount
+	 *            the number of files to create
+	 * @return the list of created files
+	 * @throws IOException
+	 *             if a file cannot be written
+	 */
+	public static List<File> splitInput(OWLOntology ontology, File directory,
+			int shardCount) throws IOException {
+		return splitInput(new OntologyAxiomSource(ontology), directory,
+				shardCount);
+	}
+
+	/**
+	 * Starts the given number of {@link DistributedWorker} processes on this
+	 * machine that connect to this coordinator; they use the same Java
+	 * installation and class path as the current process; the processes are
+	 * terminated by {@link #close()} if they have not exited by then
+	 * 
+	 * @param workerCount
+	 * @throws IOException
+	 *             if the processes cannot be started
+	 */
+	public void launchLocalWorkers(int workerCount) throws IOException {
+		String java = System.getProperty("java.home") + File.separator + "bin"
+				+ File.separator + "java";
+		for (int i = 0; i < workerCount; i++) {
+			ProcessBuilder builder = new ProcessBuilder(java, "-cp",
+					System.getProperty("java.class.path"),
+					DistributedWorker.class.getName(), "localhost",
+					String.valueOf(getPort()));
+			builder.redirectErrorStream(true);
+			final Process worker = builder.start();
+			localWorkers_.add(worker);
+			final int workerNo = i;
+			Thread output = new Thread() {
+				@Override
+				public void run() {
+					BufferedReader reader = new BufferedReader(
+							new InputStreamReader(worker.getInputStream()));
+					try {
+						String line;
+						while ((line = reader.readLine()) != null) {
+							LOGGER_.debug("worker {}: {}", workerNo, line);
+						}
+					} catch (IOException e) {
+						LOGGER_.debug("worker {}: {}", workerNo, e);
+					}
+				}
+			};
+			output.setDaemon(true);
+			output.start();
+		}
+	}
+
+	/**
+	 * Converts the axioms in the given shards to assertions using one
+	 * {@link DistributedWorker} per shard. The workers should be started
+	 * separately, e.g., using {@link #launchLocalWorkers(int)}; this method
+	 * waits until the required number of workers are connected, but at most
+	 * {@link #setAcceptTimeout(int) the timeout} for each of them. All files
+	 * should be accessible by the workers under the given paths.
+	 * 
+	 * @param inputShards
+	 *            the files containing the input axioms, e.g., created by
+	 *            {@link #splitInput(OWLAxiomSource, File, int)}, or ontology
+	 *            documents
+	 * @param outputDirectory
+	 *            the directory where the results for shards should be saved
+	 * @return the list of files containing the result of conversion, one per
+	 *         shard
+	 * @throws IOException
+	 *             if the communication with a worker fails or not all
+	 *             workers connect in time
+	 */
+	public List<File> aboxify(List<File> inputShards, File outputDirectory)
+			throws IOException {
+		List<Socket> sockets = new ArrayList<Socket>(inputShards.size());
+		List<DataInputStream> inputs = new ArrayList<DataInputStream>(
+				inputShards.size());
+		List<DataOutputStream> outputs = new ArrayList<DataOutputStream>(
+				inputShards.size());
+		List<File> result = new ArrayList<File>(inputShards.size());
+		try {
+			LOGGER_.info("Waiting for {} workers...", inputShards.size());
+			for (File shard : inputShards) {
+				Socket socket;
+				try {
+					socket = serverSocket_.accept();
+				} catch (SocketTimeoutException e) {
+					throw new IOException("Only " + sockets.size() + " of "
+							+ inputShards.size() + " workers connected");
+				}
+				sockets.add(socket);
+				DataInputStream input = new DataInputStream(
+						new BufferedInputStream(socket.getInputStream()));
+				DataOutputStream output = new DataOutputStream(
+						new BufferedOutputStream(socket.getOutputStream()));
+				inputs.add(input);
+				outputs.add(output);
+				File outputFile = new File(outputDirectory, shard.getName()
+						+ ".aboxed");
+				result.add(outputFile);
+				output.writeUTF(shard.getAbsolutePath());
+				output.writeUTF(outputFile.getAbsolutePath());
+				output.flush();
+			}
+			LOGGER_.info("Computing blacklisted classes...");
+			Set<String> blacklisted = new HashSet<String>();
+			List<String> newlyBlacklisted = new ArrayList<String>();
+			for (DataInputStream input : inputs) {
+				readNewIris(input, blacklisted, newlyBlacklisted);
+			}
+			int superstep = 0;
+			while (!newlyBlacklisted.isEmpty()) {
+				LOGGER_.debug("Superstep {}: {} newly blacklisted classes",
+						superstep++, newlyBlacklisted.size());
+				for (DataOutputStream output : outputs) {
+					writeIris(output, newlyBlacklisted);
+				}
+				newlyBlacklisted = new ArrayList<String>();
+				for (DataInputStream input : inputs) {
+					readNewIris(input, blacklisted, newlyBlacklisted);
+				}
+			}
+			LOGGER_.debug("Blacklisted classes: {}", blacklisted.size());
+			LOGGER_.info("Producing assertions...");
+			for (DataOutputStream output : outputs) {
+				output.writeInt(BLACKLIST_DONE);
+				output.flush();
+			}
+			for (DataInputStream input : inputs) {
+				// wait until the worker saves its result
+				input.readInt();
+			}
+			return result;
+		} finally {
+			for (Socket socket : sockets) {
+				socket.close();
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting workers and waits until the processes started by
+	 * {@link #launchLocalWorkers(int)} exit; those that do not exit in time
+	 * are destroyed
+	 * 
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		serverSocket_.close();
+		long deadline = System.currentTimeMillis() + WORKER_EXIT_TIMEOUT;
+		for (Process worker : localWorkers_) {
+			try {
+				while (isRunning(worker)
+						&& System.currentTimeMillis() < deadline) {
+					Thread.sleep(50);
+				}
+				if (isRunning(worker)) {
+					LOGGER_.warn("Destroying a worker that did not exit");
+					worker.destroy();
+				}
+				int exitValue = worker.waitFor();
+				if (exitValue != 0)
+					LOGGER_.warn("A worker exited with {}", exitValue);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted");
+			}
+		}
+		localWorkers_.clear();
+	}
+
+	private static boolean isRunning(Process process) {
+		try {
+			process.exitValue();
+			return false;
+		} catch (IllegalThreadStateException e) {
+			return true;
+		}
+	}
+
+	static void writeIris(DataOutputStream output, Collection<String> iris)
+			throws IOException {
+		output.writeInt(iris.size());
+		for (String iri : iris) {
+			output.writeUTF(iri);
+		}
+		output.flush();
+	}
+
+	static List<String> readIris(DataInputStream input) throws IOException {
+		int count = input.readInt();
+		List<String> result = new ArrayList<String>(count < 0 ? 0 : count);
+		for (int i = 0; i < count; i++) {
+			result.add(input.readUTF());
+		}
+		return result;
+	}
+
+	/**
+	 * Reads IRIs from the input and adds to the last collection those that
+	 * could be added to the given set
+	 */
+	private static void readNewIris(DataInputStream input, Set<String> known,
+			Collection<String> added) throws IOException {
+		for (String next : readIris(input)) {
+			if (known.add(next))
+				added.add(next);
+		}
+	}
+
+}
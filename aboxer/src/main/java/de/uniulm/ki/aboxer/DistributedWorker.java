@@ -0,0 +1,158 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A process that converts one shard of the input axioms to assertions under
+ * the control of a {@link DistributedAboxer}. The shard is either an
+ * {@link InputSnapshot}, which is read twice without loading it into an
+ * ontology, or an ontology document.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class DistributedWorker {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(DistributedWorker.class);
+
+	/**
+	 * Connects to the {@link DistributedAboxer} with the given host and port
+	 * and converts the shard assigned by it
+	 * 
+	 * @param host
+	 * @param port
+	 * @throws IOException
+	 *             if the communication with the coordinator fails
+	 * @throws OWLOntologyCreationException
+	 *             if the shard cannot be loaded or the result cannot be
+	 *             created
+	 * @throws OWLOntologyStorageException
+	 *             if the result cannot be saved
+	 */
+	public static void run(String host, int port) throws IOException,
+			OWLOntologyCreationException, OWLOntologyStorageException {
+		Socket socket = new Socket(host, port);
+		try {
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(socket.getOutputStream()));
+			File inputFile = new File(input.readUTF());
+			File outputFile = new File(input.readUTF());
+			OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+			OWLDataFactory factory = manager.getOWLDataFactory();
+			OWLAxiomSource shard;
+			if (InputSnapshot.isSnapshot(inputFile))
+				shard = new InputSnapshot(inputFile, factory);
+			else {
+				LOGGER_.info("Loading axioms from {} ...", inputFile);
+				shard = new OntologyAxiomSource(
+						manager.loadOntologyFromOntologyDocument(inputFile));
+			}
+			LOGGER_.info("Computing blacklisted classes...");
+			Blacklister blacklister = new Blacklister();
+			shard.processAxioms(new AxiomVisitorProcessor(blacklister));
+			DistributedAboxer.writeIris(output,
+					getIris(blacklister.getBlacklistedClasses()));
+			for (;;) {
+				int count = input.readInt();
+				if (count == DistributedAboxer.BLACKLIST_DONE)
+					break;
+				// else
+				List<OWLClass> received = new ArrayList<OWLClass>(count);
+				for (int i = 0; i < count; i++) {
+					received.add(factory.getOWLClass(IRI.create(input
+							.readUTF())));
+				}
+				List<OWLClass> newlyBlacklisted = new ArrayList<OWLClass>();
+				blacklister.blacklist(received, newlyBlacklisted);
+				DistributedAboxer.writeIris(output, getIris(newlyBlacklisted));
+			}
+			LOGGER_.info("Producing assertions...");
+			OntologyProducerProcessor ontologyProducer = new OntologyProducerProcessor(
+					manager);
+			AssertionCreator assertionCreator = new AssertionCreator(
+					blacklister.getBlacklistedClasses(), factory,
+					ontologyProducer);
+			shard.processAxioms(new AxiomVisitorProcessor(assertionCreator));
+			assertionCreator.printStatistics();
+			LOGGER_.info("Saving the result to {} ...", outputFile);
+			manager.saveOntology(ontologyProducer.getOntology(),
+					new OWLFunctionalSyntaxOntologyFormat(),
+					IRI.create(outputFile));
+			output.writeInt(0);
+			output.flush();
+		} finally {
+			socket.close();
+		}
+	}
+
+	private static List<String> getIris(Collection<OWLClass> classes) {
+		List<String> result = new ArrayList<String>(classes.size());
+		for (OWLClass next : classes) {
+			result.add(next.getIRI().toString());
+		}
+		return result;
+	}
+
+	/**
+	 * Starts a worker
+	 * 
+	 * @param args
+	 *            the host and the port of the {@link DistributedAboxer}
+	 */
+	public static void main(String[] args) throws IOException,
+			OWLOntologyCreationException, OWLOntologyStorageException {
+		if (args.length != 2) {
+			System.err.println("Usage: " + DistributedWorker.class.getName()
+					+ " <host> <port>");
+			System.exit(1);
+		}
+		run(args[0], Integer.parseInt(args[1]));
+	}
+
+}
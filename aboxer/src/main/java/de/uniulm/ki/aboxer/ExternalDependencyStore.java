@@ -0,0 +1,386 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the dependencies between {@link OWLClass}es used by the
+ * {@link Blacklister} in files instead of the heap. The dependencies are
+ * encoded as pairs of integer ids of {@link OWLClass}es and collected in a
+ * buffer of a fixed size; when the buffer is full, it is sorted and written
+ * to a new run file. When all dependencies are added, the run files are
+ * merged to one sorted file, which is memory-mapped, and the
+ * {@link OWLClass}es reachable from the given ones are computed by a
+ * breadth-first search that looks up the dependencies of every level in the
+ * order of the ids. Only the ids of {@link OWLClass}es and the visited ones
+ * are kept on the heap.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+class ExternalDependencyStore implements Closeable {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(ExternalDependencyStore.class);
+
+	/**
+	 * The default number of dependencies kept in the buffer, which takes 8
+	 * bytes per dependency
+	 */
+	static final int DEFAULT_BUFFER_SIZE = 1 << 22;
+
+	/**
+	 * The dependencies in the merged file are mapped in segments of this
+	 * many dependencies
+	 */
+	private static final int SEGMENT_SHIFT = 27;
+
+	/**
+	 * The directory where the files are created
+	 */
+	private final File directory_;
+
+	/**
+	 * The ids assigned to {@link OWLClass}es
+	 */
+	private final Map<OWLClass, Integer> ids_ = new HashMap<OWLClass, Integer>(
+			128);
+
+	/**
+	 * The {@link OWLClass}es by their ids
+	 */
+	private final List<OWLClass> classes_ = new ArrayList<OWLClass>(128);
+
+	/**
+	 * The dependencies not yet written to a run file; every dependency is
+	 * encoded as the id of the source in the upper 32 bits and the id of the
+	 * target in the lower 32 bits, so that sorting groups the dependencies by
+	 * their sources
+	 */
+	private final long[] buffer_;
+
+	private int bufferedCount_ = 0;
+
+	/**
+	 * The sorted run files written so far
+	 */
+	private final List<File> runs_ = new ArrayList<File>();
+
+	/**
+	 * @param directory
+	 *            the directory where the files are created; the files are
+	 *            deleted when this store is closed
+	 * @param bufferSize
+	 *            the number of dependencies kept in memory before they are
+	 *            written to a file
+	 */
+	ExternalDependencyStore(File directory, int bufferSize) {
+		this.directory_ = directory;
+		this.buffer_ = new long[bufferSize];
+	}
+
+	/**
+	 * Records that the target {@link OWLClass} should be blacklisted whenever
+	 * the source {@link OWLClass} is blacklisted
+	 * 
+	 * @param source
+	 * @param target
+	 * @throws IOException
+	 *             if the buffer cannot be written to a file
+	 */
+	void add(OWLClass source, OWLClass target) throws IOException {
+		if (bufferedCount_ == buffer_.length)
+			writeRun();
+		buffer_[bufferedCount_++] = ((long) getId(source) << 32)
+				| getId(target);
+	}
+
+	/**
+	 * Computes the {@link OWLClass}es that can be reached from the given ones
+	 * over the recorded dependencies
+	 * 
+	 * @param sources
+	 * @return the reachable {@link OWLClass}es, excluding the given ones
+	 *         unless they can be reached from others
+	 * @throws IOException
+	 *             if the dependencies cannot be read
+	 */
+	Set<OWLClass> getReachable(Collection<OWLClass> sources)
+			throws IOException {
+		Set<OWLClass> result = new HashSet<OWLClass>();
+		writeRun();
+		if (runs_.isEmpty())
+			return result;
+		// else
+		File merged = merge();
+		RandomAccessFile file = new RandomAccessFile(merged, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long count = channel.size() >>> 3;
+			LongBuffer[] segments = new LongBuffer[(int) ((count - 1) >>> SEGMENT_SHIFT) + 1];
+			for (int i = 0; i < segments.length; i++) {
+				long start = (long) i << SEGMENT_SHIFT;
+				long length = Math.min(count - start, 1L << SEGMENT_SHIFT);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						start << 3, length << 3).asLongBuffer();
+			}
+			BitSet visited = new BitSet(classes_.size());
+			int[] frontier = new int[sources.size()];
+			int frontierSize = 0;
+			for (OWLClass source : sources) {
+				Integer id = ids_.get(source);
+				if (id == null || visited.get(id))
+					continue;
+				// else
+				visited.set(id);
+				frontier[frontierSize++] = id;
+			}
+			int[] next = new int[16];
+			while (frontierSize > 0) {
+				Arrays.sort(frontier, 0, frontierSize);
+				int nextSize = 0;
+				long position = 0;
+				for (int i = 0; i < frontierSize; i++) {
+					long key = (long) frontier[i] << 32;
+					position = lowerBound(segments, key, position, count);
+					for (; position < count; position++) {
+						long edge = get(segments, position);
+						if ((edge >>> 32) != frontier[i])
+							break;
+						// else
+						int target = (int) edge;
+						result.add(classes_.get(target));
+						if (visited.get(target))
+							continue;
+						// else
+						visited.set(target);
+						if (nextSize == next.length)
+							next = Arrays.copyOf(next, nextSize * 2);
+						next[nextSize++] = target;
+					}
+				}
+				int[] tmp = frontier;
+				frontier = next;
+				frontierSize = nextSize;
+				next = tmp;
+			}
+		} finally {
+			file.close();
+		}
+		return result;
+	}
+
+	@Override
+	public void close() {
+		for (File run : runs_) {
+			if (!run.delete())
+				LOGGER_.warn("Cannot delete {}", run);
+		}
+		runs_.clear();
+	}
+
+	private int getId(OWLClass clazz) {
+		Integer id = ids_.get(clazz);
+		if (id != null)
+			return id;
+		// else
+		id = classes_.size();
+		ids_.put(clazz, id);
+		classes_.add(clazz);
+		return id;
+	}
+
+	/**
+	 * Sorts the buffered dependencies and writes them without duplicates to a
+	 * new run file
+	 */
+	private void writeRun() throws IOException {
+		if (bufferedCount_ == 0)
+			return;
+		// else
+		Arrays.sort(buffer_, 0, bufferedCount_);
+		File run = createRunFile();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(run)));
+		try {
+			long previous = -1;
+			for (int i = 0; i < bufferedCount_; i++) {
+				if (buffer_[i] == previous)
+					continue;
+				// else
+				previous = buffer_[i];
+				out.writeLong(previous);
+			}
+		} finally {
+			out.close();
+		}
+		LOGGER_.trace("{}: {} dependencies written", run, bufferedCount_);
+		bufferedCount_ = 0;
+	}
+
+	/**
+	 * Merges the run files without duplicates to one file, which replaces
+	 * them
+	 * 
+	 * @return the merged run file
+	 */
+	private File merge() throws IOException {
+		if (runs_.size() == 1)
+			return runs_.get(0);
+		// else
+		List<File> inputs = new ArrayList<File>(runs_);
+		PriorityQueue<RunReader> readers = new PriorityQueue<RunReader>(
+				inputs.size());
+		File merged = createRunFile();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(merged)));
+		try {
+			for (File run : inputs) {
+				RunReader reader = new RunReader(run);
+				if (reader.advance())
+					readers.add(reader);
+			}
+			long previous = -1;
+			for (;;) {
+				RunReader reader = readers.poll();
+				if (reader == null)
+					break;
+				// else
+				if (reader.current != previous) {
+					previous = reader.current;
+					out.writeLong(previous);
+				}
+				if (reader.advance())
+					readers.add(reader);
+			}
+		} finally {
+			for (RunReader reader : readers) {
+				reader.close();
+			}
+			out.close();
+		}
+		runs_.remove(merged);
+		close();
+		runs_.add(merged);
+		return merged;
+	}
+
+	private File createRunFile() throws IOException {
+		File run = File.createTempFile("dependencies", ".run", directory_);
+		runs_.add(run);
+		return run;
+	}
+
+	private static long get(LongBuffer[] segments, long position) {
+		return segments[(int) (position >>> SEGMENT_SHIFT)]
+				.get((int) (position & ((1 << SEGMENT_SHIFT) - 1)));
+	}
+
+	/**
+	 * @return the first position between {@code from} and {@code to} of a
+	 *         value that is not smaller than the given key, or {@code to} if
+	 *         there is no such value
+	 */
+	private static long lowerBound(LongBuffer[] segments, long key, long from,
+			long to) {
+		while (from < to) {
+			long middle = (from + to) >>> 1;
+			if (get(segments, middle) < key)
+				from = middle + 1;
+			else
+				to = middle;
+		}
+		return from;
+	}
+
+	/**
+	 * Reads the dependencies of a run file in the sorted order
+	 */
+	private static class RunReader implements Comparable<RunReader> {
+
+		private final DataInputStream in_;
+
+		long current;
+
+		RunReader(File run) throws IOException {
+			this.in_ = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(run)));
+		}
+
+		/**
+		 * Reads the next dependency to {@link #current}
+		 * 
+		 * @return {@code false} if there are no dependencies left, in which
+		 *         case the file is closed
+		 */
+		boolean advance() throws IOException {
+			try {
+				current = in_.readLong();
+				return true;
+			} catch (EOFException e) {
+				close();
+				return false;
+			}
+		}
+
+		void close() throws IOException {
+			in_.close();
+		}
+
+		@Override
+		public int compareTo(RunReader other) {
+			return current < other.current ? -1
+					: current == other.current ? 0 : 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,202 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the most frequent objects in a stream using a fixed number
+ * of counters (the Space-Saving algorithm). If an object that is not tracked
+ * occurs when all counters are in use, it replaces the tracked object with
+ * the smallest count and inherits this count as its possible overestimation.
+ * Every object that occurs more than n / capacity times among n occurrences
+ * is guaranteed to be tracked.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ * @param <T>
+ *            the type of the tracked objects
+ */
+public class HeavyHitters<T> {
+
+	/**
+	 * The tracked objects ordered as a binary min-heap by their counts
+	 */
+	private final Object[] objects_;
+
+	private final long[] counts_;
+
+	/**
+	 * For every tracked object, by how much its count may be overestimated
+	 */
+	private final long[] errors_;
+
+	/**
+	 * The positions of the tracked objects in the heap
+	 */
+	private final Map<T, Integer> positions_;
+
+	private int size_ = 0;
+
+	/**
+	 * @param capacity
+	 *            the maximal number of tracked objects
+	 */
+	public HeavyHitters(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		this.objects_ = new Object[capacity];
+		this.counts_ = new long[capacity];
+		this.errors_ = new long[capacity];
+		this.positions_ = new HashMap<T, Integer>(capacity * 2);
+	}
+
+	/**
+	 * Records one occurrence of the given object
+	 */
+	public void add(T object) {
+		Integer position = positions_.get(object);
+		if (position != null) {
+			counts_[position]++;
+			siftDown(position);
+			return;
+		}
+		// else
+		if (size_ < objects_.length) {
+			objects_[size_] = object;
+			counts_[size_] = 1;
+			errors_[size_] = 0;
+			positions_.put(object, size_);
+			siftUp(size_++);
+			return;
+		}
+		// else replace the object with the smallest count
+		positions_.remove(objects_[0]);
+		objects_[0] = object;
+		errors_[0] = counts_[0];
+		counts_[0]++;
+		positions_.put(object, 0);
+		siftDown(0);
+	}
+
+	/**
+	 * @return the estimated number of occurrences of the given object, which
+	 *         is never smaller than the real one if the object is tracked, or
+	 *         0 if it is not
+	 */
+	public long getCount(T object) {
+		Integer position = positions_.get(object);
+		return position == null ? 0 : counts_[position];
+	}
+
+	/**
+	 * @return by how much {@link #getCount(Object)} may exceed the real
+	 *         number of occurrences of the given object
+	 */
+	public long getError(T object) {
+		Integer position = positions_.get(object);
+		return position == null ? 0 : errors_[position];
+	}
+
+	/**
+	 * @return at most the given number of tracked objects in the order of
+	 *         decreasing counts
+	 */
+	public List<T> getTop(int count) {
+		Integer[] order = new Integer[size_];
+		for (int i = 0; i < size_; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer first, Integer second) {
+				long difference = counts_[second] - counts_[first];
+				return difference > 0 ? 1 : difference < 0 ? -1 : 0;
+			}
+		});
+		List<T> result = new ArrayList<T>(Math.min(count, size_));
+		for (int i = 0; i < size_ && i < count; i++) {
+			result.add(getObject(order[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of tracked objects
+	 */
+	public int size() {
+		return size_;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T getObject(int position) {
+		return (T) objects_[position];
+	}
+
+	private void siftUp(int position) {
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (counts_[parent] <= counts_[position])
+				return;
+			// else
+			swap(position, parent);
+			position = parent;
+		}
+	}
+
+	private void siftDown(int position) {
+		for (;;) {
+			int child = 2 * position + 1;
+			if (child >= size_)
+				return;
+			// else
+			if (child + 1 < size_ && counts_[child + 1] < counts_[child])
+				child++;
+			if (counts_[position] <= counts_[child])
+				return;
+			// else
+			swap(position, child);
+			position = child;
+		}
+	}
+
+	private void swap(int first, int second) {
+		Object object = objects_[first];
+		objects_[first] = objects_[second];
+		objects_[second] = object;
+		long count = counts_[first];
+		counts_[first] = counts_[second];
+		counts_[second] = count;
+		long error = errors_[first];
+		errors_[first] = errors_[second];
+		errors_[second] = error;
+		positions_.put(getObject(first), first);
+		positions_.put(getObject(second), second);
+	}
+
+}
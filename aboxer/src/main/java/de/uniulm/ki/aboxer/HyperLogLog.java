@@ -0,0 +1,124 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A HyperLogLog sketch that estimates the number of distinct objects added to
+ * it using a fixed amount of memory: 2<sup>p</sup> bytes for precision
+ * {@code p}. The standard error of the estimate is about 1.04 /
+ * 2<sup>p/2</sup>, e.g., 1.6% for {@code p = 12}. Objects are identified by
+ * 64-bit fingerprints of their string representations, which, unlike 32-bit
+ * hash codes, rarely collide even for billions of objects.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class HyperLogLog {
+
+	/**
+	 * The number of bits of a hash that select the register
+	 */
+	private final int precision_;
+
+	/**
+	 * For every register, the maximal position of the first 1-bit in the
+	 * remaining bits of hashes assigned to it
+	 */
+	private final byte[] registers_;
+
+	/**
+	 * @param precision
+	 *            the number of bits that determine the number of registers,
+	 *            between 4 and 18
+	 */
+	public HyperLogLog(int precision) {
+		if (precision < 4 || precision > 18)
+			throw new IllegalArgumentException("Invalid precision: "
+					+ precision);
+		this.precision_ = precision;
+		this.registers_ = new byte[1 << precision];
+	}
+
+	/**
+	 * Adds the given object to the sketch
+	 */
+	public void add(Object object) {
+		addHash(DeduplicatingProcessor.getFingerprint(object.toString()));
+	}
+
+	/**
+	 * Adds an object with the given 64-bit hash, whose bits should be
+	 * uniformly distributed, to the sketch
+	 */
+	public void addHash(long hash) {
+		int register = (int) (hash >>> (64 - precision_));
+		// the remaining bits with a 1-bit guard, so the rank is bounded
+		long rest = (hash << precision_) | (1L << (precision_ - 1));
+		byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+		if (rank > registers_[register])
+			registers_[register] = rank;
+	}
+
+	/**
+	 * Adds all objects added to the given sketch, which must have the same
+	 * precision, to this sketch
+	 */
+	public void merge(HyperLogLog other) {
+		if (other.precision_ != precision_)
+			throw new IllegalArgumentException("Different precisions: "
+					+ precision_ + " and " + other.precision_);
+		for (int i = 0; i < registers_.length; i++) {
+			if (other.registers_[i] > registers_[i])
+				registers_[i] = other.registers_[i];
+		}
+	}
+
+	/**
+	 * @return the estimated number of distinct objects added to this sketch
+	 */
+	public long estimate() {
+		int m = registers_.length;
+		double sum = 0;
+		int zeros = 0;
+		for (byte rank : registers_) {
+			sum += 1.0 / (1L << rank);
+			if (rank == 0)
+				zeros++;
+		}
+		double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709
+				: 0.7213 / (1 + 1.079 / m);
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5 * m && zeros > 0)
+			// small range correction: linear counting
+			estimate = m * Math.log((double) m / zeros);
+		return Math.round(estimate);
+	}
+
+	/**
+	 * @return the number of bytes used by the registers of this sketch
+	 */
+	public int getSize() {
+		return registers_.length;
+	}
+
+}
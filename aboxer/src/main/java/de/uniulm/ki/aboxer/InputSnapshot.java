@@ -0,0 +1,789 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
+import org.semanticweb.owlapi.model.OWLObjectInverseOf;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectUnionOf;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubPropertyChainOfAxiom;
+import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A binary snapshot of a set of input axioms stored in a file, which can be
+ * read much faster than the original ontology document. The snapshot is
+ * created once, e.g., from a parsed ontology using
+ * {@link #create(OWLOntology, File)}; after that, it can be used as an
+ * {@link OWLAxiomSource} for {@link Aboxer}. The file is memory-mapped and the
+ * axioms are decoded directly from the mapped memory; no ontology is created.
+ * 
+ * The file consists of a magic number, the version, and a sequence of chunks
+ * terminated by an (integer) 0; each chunk starts with the (integer) number of
+ * its bytes. A chunk is a sequence of records, each starting with the record
+ * type. Records of the type {@link #RECORD_IRI} introduce the next IRI, which
+ * is afterwards referred by its number, and records of the type
+ * {@link #RECORD_ANONYMOUS} similarly introduce the next anonymous individual
+ * by its node ID; other records encode axioms. Axioms that use the
+ * constructors most common in large terminologies (see {@link Encoder}) are
+ * encoded recursively using the numbers of IRIs, and, as in
+ * {@link BinaryAboxFormat}, variable length numbers for the (anonymous)
+ * individuals. All other axioms, including those with annotations, are stored
+ * using Java serialization. Since the node IDs are kept, an anonymous
+ * individual occurring in both kinds of records is read back as the same
+ * individual. The snapshot does not
+ * store ontology annotations and imports.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class InputSnapshot implements OWLAxiomSource {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(InputSnapshot.class);
+
+	private static final int MAGIC = 0x4F574C53; // "OWLS"
+
+	private static final int VERSION = 2;
+
+	/**
+	 * The number of bytes after which a chunk is finished
+	 */
+	private static final int CHUNK_SIZE = 1 << 24;
+
+	// record types
+	private static final int RECORD_IRI = 0;
+	private static final int RECORD_DECLARATION = 1;
+	private static final int RECORD_SUB_CLASS = 2;
+	private static final int RECORD_EQUIVALENT_CLASSES = 3;
+	private static final int RECORD_DISJOINT_CLASSES = 4;
+	private static final int RECORD_SUB_OBJECT_PROPERTY = 5;
+	private static final int RECORD_SUB_PROPERTY_CHAIN = 6;
+	private static final int RECORD_TRANSITIVE_OBJECT_PROPERTY = 7;
+	private static final int RECORD_CLASS_ASSERTION = 8;
+	private static final int RECORD_OBJECT_PROPERTY_ASSERTION = 9;
+	private static final int RECORD_SERIALIZED = 10;
+	private static final int RECORD_ANONYMOUS = 11;
+
+	// class expression types
+	private static final int CLASS = 0;
+	private static final int INTERSECTION = 1;
+	private static final int UNION = 2;
+	private static final int COMPLEMENT = 3;
+	private static final int SOME_VALUES = 4;
+	private static final int ALL_VALUES = 5;
+	private static final int HAS_VALUE = 6;
+	private static final int ONE_OF = 7;
+
+	/**
+	 * The file containing the snapshot
+	 */
+	private final File file_;
+
+	/**
+	 * The factory used to create the axioms
+	 */
+	private final OWLDataFactory factory_;
+
+	/**
+	 * @param file
+	 *            the file containing the snapshot
+	 * @param factory
+	 *            the factory used to create the axioms
+	 */
+	public InputSnapshot(File file, OWLDataFactory factory) {
+		this.file_ = file;
+		this.factory_ = factory;
+	}
+
+	/**
+	 * Saves a snapshot of the axioms in the given ontology to the given file
+	 * 
+	 * @param ontology
+	 * @param file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static void create(OWLOntology ontology, File file)
+			throws IOException {
+		create(new OntologyAxiomSource(ontology), file);
+	}
+
+	/**
+	 * Saves a snapshot of the axioms of the given {@link OWLAxiomSource} to
+	 * the given file
+	 * 
+	 * @param input
+	 * @param file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static void create(OWLAxiomSource input, File file)
+			throws IOException {
+		Writer writer = new Writer(file);
+		boolean processed = false;
+		try {
+			input.processAxioms(writer);
+			processed = true;
+		} catch (OWLRuntimeException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			// else
+			throw e;
+		} finally {
+			if (!processed)
+				// do not leave an incomplete snapshot that looks complete
+				writer.abort();
+		}
+		writer.close();
+	}
+
+	/**
+	 * @return {@code true} if the given file starts like a snapshot
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public static boolean isSnapshot(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			return in.length() >= 4 && in.readInt() == MAGIC;
+		} finally {
+			in.close();
+		}
+	}
+
+	@Override
+	public void processAxioms(OWLAxiomProcessor processor) {
+		try {
+			RandomAccessFile in = new RandomAccessFile(file_, "r");
+			try {
+				if (in.readInt() != MAGIC)
+					throw new IOException(file_ + ": not an input snapshot");
+				int version = in.readInt();
+				if (version != VERSION)
+					throw new IOException(file_ + ": unsupported version: "
+							+ version);
+				FileChannel channel = in.getChannel();
+				Decoder decoder = new Decoder(factory_);
+				for (;;) {
+					int length = in.readInt();
+					if (length == 0)
+						break;
+					// else
+					long position = in.getFilePointer();
+					decoder.decodeChunk(channel.map(
+							FileChannel.MapMode.READ_ONLY, position, length),
+							processor);
+					in.seek(position + length);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new OWLRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Loads the axioms of this snapshot into a new ontology
+	 * 
+	 * @param manager
+	 *            the manager used to create the ontology
+	 * @return the ontology containing all axioms of this snapshot
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology cannot be created
+	 */
+	public OWLOntology loadOntology(OWLOntologyManager manager)
+			throws OWLOntologyCreationException {
+		OntologyProducerProcessor ontologyProducer = new OntologyProducerProcessor(
+				manager);
+		processAxioms(ontologyProducer);
+		return ontologyProducer.getOntology();
+	}
+
+	/**
+	 * An {@link OWLAxiomProcessor} that writes the processed axioms to a new
+	 * snapshot file; the file is complete only after {@link #close()} is
+	 * called, which also forces its content to the storage device. If writing
+	 * fails, {@link #abort()} should be called instead. The
+	 * {@link IOException}s that occur during processing of axioms are rethrown
+	 * as {@link OWLRuntimeException}s.
+	 */
+	static class Writer implements OWLAxiomProcessor, Closeable {
+
+		private final File file_;
+
+		private final FileOutputStream fileOut_;
+
+		private final DataOutputStream out_;
+
+		private final Encoder encoder_;
+
+		Writer(File file) throws IOException {
+			this.file_ = file;
+			this.fileOut_ = new FileOutputStream(file);
+			this.out_ = new DataOutputStream(new BufferedOutputStream(fileOut_));
+			out_.writeInt(MAGIC);
+			out_.writeInt(VERSION);
+			this.encoder_ = new Encoder(out_);
+		}
+
+		@Override
+		public void process(OWLAxiom axiom) {
+			encoder_.process(axiom);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				encoder_.finish();
+				out_.flush();
+				fileOut_.getFD().sync();
+				LOGGER_.debug("{}: {} axioms, {} serialized", new Object[] {
+						file_, encoder_.countAxioms_, encoder_.countSerialized_ });
+			} finally {
+				out_.close();
+			}
+		}
+
+		/**
+		 * Closes the file without completing it and deletes it; nothing is
+		 * thrown, so that the exception that caused the abort is not lost
+		 */
+		void abort() {
+			try {
+				// the buffered content is discarded
+				fileOut_.close();
+			} catch (IOException e) {
+				LOGGER_.debug("{}: cannot close", file_, e);
+			}
+			if (!file_.delete())
+				LOGGER_.warn("{}: cannot delete incomplete snapshot", file_);
+		}
+
+	}
+
+	/**
+	 * Thrown when an axiom cannot be encoded without serialization
+	 */
+	private static class UnsupportedAxiomException extends Exception {
+
+		private static final long serialVersionUID = 1L;
+
+		static final UnsupportedAxiomException INSTANCE = new UnsupportedAxiomException();
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+
+	}
+
+	/**
+	 * Writes records for the processed axioms. The following axioms without
+	 * annotations are encoded without serialization: declarations, SubClassOf,
+	 * EquivalentClasses, DisjointClasses, SubObjectPropertyOf,
+	 * SubObjectPropertyOf with property chains, TransitiveObjectProperty,
+	 * ClassAssertion, and ObjectPropertyAssertion, provided their class
+	 * expressions are built using ObjectIntersectionOf, ObjectUnionOf,
+	 * ObjectComplementOf, ObjectSomeValuesFrom, ObjectAllValuesFrom,
+	 * ObjectHasValue, and ObjectOneOf.
+	 */
+	private static class Encoder implements OWLAxiomProcessor {
+
+		private final DataOutputStream out_;
+
+		private final Map<IRI, Integer> iriIds_ = new HashMap<IRI, Integer>(
+				1024);
+
+		private final Map<OWLAnonymousIndividual, Integer> anonymousIds_ = new HashMap<OWLAnonymousIndividual, Integer>();
+
+		/**
+		 * The IRIs and anonymous individuals that are used in the current
+		 * record for the first time
+		 */
+		private final List<IRI> newIris_ = new ArrayList<IRI>();
+		private final List<OWLAnonymousIndividual> newAnonymous_ = new ArrayList<OWLAnonymousIndividual>();
+
+		private final ByteArrayOutputStream chunk_ = new ByteArrayOutputStream(
+				CHUNK_SIZE + (CHUNK_SIZE >> 4));
+
+		private final ByteArrayOutputStream record_ = new ByteArrayOutputStream();
+
+		// counters for statistics
+		private int countAxioms_ = 0, countSerialized_ = 0;
+
+		Encoder(DataOutputStream out) {
+			this.out_ = out;
+		}
+
+		@Override
+		public void process(OWLAxiom axiom) {
+			try {
+				countAxioms_++;
+				record_.reset();
+				newIris_.clear();
+				newAnonymous_.clear();
+				try {
+					if (!axiom.getAnnotations().isEmpty())
+						throw UnsupportedAxiomException.INSTANCE;
+					// else
+					writeAxiom(axiom);
+				} catch (UnsupportedAxiomException e) {
+					// forget the new IRIs and individuals of this axiom
+					for (IRI iri : newIris_) {
+						iriIds_.remove(iri);
+					}
+					for (OWLAnonymousIndividual individual : newAnonymous_) {
+						anonymousIds_.remove(individual);
+					}
+					newIris_.clear();
+					newAnonymous_.clear();
+					record_.reset();
+					writeSerialized(axiom);
+				}
+				for (IRI iri : newIris_) {
+					BinaryAboxFormat.writeVarInt(chunk_, RECORD_IRI);
+					BinaryAboxFormat.writeString(chunk_, iri.toString());
+				}
+				for (OWLAnonymousIndividual individual : newAnonymous_) {
+					BinaryAboxFormat.writeVarInt(chunk_, RECORD_ANONYMOUS);
+					BinaryAboxFormat.writeString(chunk_, individual.getID()
+							.getID());
+				}
+				record_.writeTo(chunk_);
+				if (chunk_.size() >= CHUNK_SIZE)
+					writeChunk();
+			} catch (IOException e) {
+				throw new OWLRuntimeException(e);
+			}
+		}
+
+		void finish() throws IOException {
+			writeChunk();
+			out_.writeInt(0);
+		}
+
+		private void writeChunk() throws IOException {
+			if (chunk_.size() == 0)
+				return;
+			// else
+			out_.writeInt(chunk_.size());
+			chunk_.writeTo(out_);
+			chunk_.reset();
+		}
+
+		private void writeSerialized(OWLAxiom axiom) throws IOException {
+			countSerialized_++;
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream objects = new ObjectOutputStream(bytes);
+			objects.writeObject(axiom);
+			objects.close();
+			write(RECORD_SERIALIZED);
+			write(bytes.size());
+			bytes.writeTo(record_);
+		}
+
+		private void writeAxiom(OWLAxiom axiom) throws IOException,
+				UnsupportedAxiomException {
+			if (axiom instanceof OWLDeclarationAxiom) {
+				OWLEntity entity = ((OWLDeclarationAxiom) axiom).getEntity();
+				write(RECORD_DECLARATION);
+				write(EntityType.values().indexOf(entity.getEntityType()));
+				write(entity.getIRI());
+			} else if (axiom instanceof OWLSubClassOfAxiom) {
+				OWLSubClassOfAxiom inclusion = (OWLSubClassOfAxiom) axiom;
+				write(RECORD_SUB_CLASS);
+				write(inclusion.getSubClass());
+				write(inclusion.getSuperClass());
+			} else if (axiom instanceof OWLEquivalentClassesAxiom) {
+				write(RECORD_EQUIVALENT_CLASSES);
+				writeClassExpressions(((OWLEquivalentClassesAxiom) axiom)
+						.getClassExpressions());
+			} else if (axiom instanceof OWLDisjointClassesAxiom) {
+				write(RECORD_DISJOINT_CLASSES);
+				writeClassExpressions(((OWLDisjointClassesAxiom) axiom)
+						.getClassExpressions());
+			} else if (axiom instanceof OWLSubObjectPropertyOfAxiom) {
+				OWLSubObjectPropertyOfAxiom inclusion = (OWLSubObjectPropertyOfAxiom) axiom;
+				write(RECORD_SUB_OBJECT_PROPERTY);
+				write(inclusion.getSubProperty());
+				write(inclusion.getSuperProperty());
+			} else if (axiom instanceof OWLSubPropertyChainOfAxiom) {
+				OWLSubPropertyChainOfAxiom inclusion = (OWLSubPropertyChainOfAxiom) axiom;
+				List<OWLObjectPropertyExpression> chain = inclusion
+						.getPropertyChain();
+				write(RECORD_SUB_PROPERTY_CHAIN);
+				write(chain.size());
+				for (OWLObjectPropertyExpression property : chain) {
+					write(property);
+				}
+				write(inclusion.getSuperProperty());
+			} else if (axiom instanceof OWLTransitiveObjectPropertyAxiom) {
+				write(RECORD_TRANSITIVE_OBJECT_PROPERTY);
+				write(((OWLTransitiveObjectPropertyAxiom) axiom).getProperty());
+			} else if (axiom instanceof OWLClassAssertionAxiom) {
+				OWLClassAssertionAxiom assertion = (OWLClassAssertionAxiom) axiom;
+				write(RECORD_CLASS_ASSERTION);
+				write(assertion.getClassExpression());
+				write(assertion.getIndividual());
+			} else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+				OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+				write(RECORD_OBJECT_PROPERTY_ASSERTION);
+				write(assertion.getProperty());
+				write(assertion.getSubject());
+				write(assertion.getObject());
+			} else
+				throw UnsupportedAxiomException.INSTANCE;
+		}
+
+		private void write(OWLClassExpression ce) throws IOException,
+				UnsupportedAxiomException {
+			if (ce instanceof OWLClass) {
+				write(CLASS);
+				write(((OWLClass) ce).getIRI());
+			} else if (ce instanceof OWLObjectIntersectionOf) {
+				write(INTERSECTION);
+				writeClassExpressions(((OWLObjectIntersectionOf) ce)
+						.getOperands());
+			} else if (ce instanceof OWLObjectUnionOf) {
+				write(UNION);
+				writeClassExpressions(((OWLObjectUnionOf) ce).getOperands());
+			} else if (ce instanceof OWLObjectComplementOf) {
+				write(COMPLEMENT);
+				write(((OWLObjectComplementOf) ce).getOperand());
+			} else if (ce instanceof OWLObjectSomeValuesFrom) {
+				OWLObjectSomeValuesFrom restriction = (OWLObjectSomeValuesFrom) ce;
+				write(SOME_VALUES);
+				write(restriction.getProperty());
+				write(restriction.getFiller());
+			} else if (ce instanceof OWLObjectAllValuesFrom) {
+				OWLObjectAllValuesFrom restriction = (OWLObjectAllValuesFrom) ce;
+				write(ALL_VALUES);
+				write(restriction.getProperty());
+				write(restriction.getFiller());
+			} else if (ce instanceof OWLObjectHasValue) {
+				OWLObjectHasValue restriction = (OWLObjectHasValue) ce;
+				write(HAS_VALUE);
+				write(restriction.getProperty());
+				write(restriction.getValue());
+			} else if (ce instanceof OWLObjectOneOf) {
+				Set<OWLIndividual> individuals = ((OWLObjectOneOf) ce)
+						.getIndividuals();
+				write(ONE_OF);
+				write(individuals.size());
+				for (OWLIndividual individual : individuals) {
+					write(individual);
+				}
+			} else
+				throw UnsupportedAxiomException.INSTANCE;
+		}
+
+		private void writeClassExpressions(
+				Collection<OWLClassExpression> classExpressions)
+				throws IOException, UnsupportedAxiomException {
+			write(classExpressions.size());
+			for (OWLClassExpression ce : classExpressions) {
+				write(ce);
+			}
+		}
+
+		private void write(OWLObjectPropertyExpression property)
+				throws IOException, UnsupportedAxiomException {
+			if (!property.isAnonymous()) {
+				write(getId(property.asOWLObjectProperty().getIRI()) << 1);
+				return;
+			}
+			// else
+			OWLObjectPropertyExpression inverse = ((OWLObjectInverseOf) property)
+					.getInverse();
+			if (inverse.isAnonymous())
+				throw UnsupportedAxiomException.INSTANCE;
+			// else
+			write((getId(inverse.asOWLObjectProperty().getIRI()) << 1) | 1);
+		}
+
+		private void write(OWLIndividual individual) throws IOException {
+			if (individual.isNamed()) {
+				write(getId(individual.asOWLNamedIndividual().getIRI()) << 1);
+				return;
+			}
+			// else
+			OWLAnonymousIndividual anonymous = individual
+					.asOWLAnonymousIndividual();
+			Integer id = anonymousIds_.get(anonymous);
+			if (id == null) {
+				id = anonymousIds_.size();
+				anonymousIds_.put(anonymous, id);
+				newAnonymous_.add(anonymous);
+			}
+			write((id << 1) | 1);
+		}
+
+		private void write(IRI iri) throws IOException {
+			write(getId(iri));
+		}
+
+		private void write(int value) throws IOException {
+			BinaryAboxFormat.writeVarInt(record_, value);
+		}
+
+		private int getId(IRI iri) {
+			Integer id = iriIds_.get(iri);
+			if (id != null)
+				return id;
+			// else
+			int newId = iriIds_.size();
+			iriIds_.put(iri, newId);
+			newIris_.add(iri);
+			return newId;
+		}
+
+	}
+
+	/**
+	 * Reads the axioms from the records
+	 */
+	private static class Decoder {
+
+		private final OWLDataFactory factory_;
+
+		private final List<IRI> iris_ = new ArrayList<IRI>(1024);
+
+		private final List<OWLAnonymousIndividual> anonymousIndividuals_ = new ArrayList<OWLAnonymousIndividual>();
+
+		Decoder(OWLDataFactory factory) {
+			this.factory_ = factory;
+		}
+
+		void decodeChunk(ByteBuffer in, OWLAxiomProcessor processor)
+				throws IOException {
+			while (in.hasRemaining()) {
+				int recordType = BinaryAboxFormat.readVarInt(in);
+				if (recordType == RECORD_IRI)
+					iris_.add(IRI.create(BinaryAboxFormat.readString(in)));
+				else if (recordType == RECORD_ANONYMOUS)
+					anonymousIndividuals_.add(factory_
+							.getOWLAnonymousIndividual(BinaryAboxFormat
+									.readString(in)));
+				else
+					processor.process(readAxiom(recordType, in));
+			}
+		}
+
+		private OWLAxiom readAxiom(int recordType, ByteBuffer in)
+				throws IOException {
+			switch (recordType) {
+			case RECORD_DECLARATION:
+				EntityType<?> type = EntityType.values().get(
+						BinaryAboxFormat.readVarInt(in));
+				return factory_.getOWLDeclarationAxiom(factory_.getOWLEntity(
+						type, readIri(in)));
+			case RECORD_SUB_CLASS:
+				OWLClassExpression subClass = readClassExpression(in);
+				return factory_.getOWLSubClassOfAxiom(subClass,
+						readClassExpression(in));
+			case RECORD_EQUIVALENT_CLASSES:
+				return factory_
+						.getOWLEquivalentClassesAxiom(readClassExpressions(in));
+			case RECORD_DISJOINT_CLASSES:
+				return factory_
+						.getOWLDisjointClassesAxiom(readClassExpressions(in));
+			case RECORD_SUB_OBJECT_PROPERTY:
+				OWLObjectPropertyExpression subProperty = readProperty(in);
+				return factory_.getOWLSubObjectPropertyOfAxiom(subProperty,
+						readProperty(in));
+			case RECORD_SUB_PROPERTY_CHAIN:
+				int length = BinaryAboxFormat.readVarInt(in);
+				List<OWLObjectPropertyExpression> chain = new ArrayList<OWLObjectPropertyExpression>(
+						length);
+				for (int i = 0; i < length; i++) {
+					chain.add(readProperty(in));
+				}
+				return factory_.getOWLSubPropertyChainOfAxiom(chain,
+						readProperty(in));
+			case RECORD_TRANSITIVE_OBJECT_PROPERTY:
+				return factory_
+						.getOWLTransitiveObjectPropertyAxiom(readProperty(in));
+			case RECORD_CLASS_ASSERTION:
+				OWLClassExpression ce = readClassExpression(in);
+				return factory_.getOWLClassAssertionAxiom(ce,
+						readIndividual(in));
+			case RECORD_OBJECT_PROPERTY_ASSERTION:
+				OWLObjectPropertyExpression property = readProperty(in);
+				OWLIndividual subject = readIndividual(in);
+				return factory_.getOWLObjectPropertyAssertionAxiom(property,
+						subject, readIndividual(in));
+			case RECORD_SERIALIZED:
+				byte[] bytes = new byte[BinaryAboxFormat.readVarInt(in)];
+				in.get(bytes);
+				ObjectInputStream objects = new ObjectInputStream(
+						new ByteArrayInputStream(bytes));
+				try {
+					return (OWLAxiom) objects.readObject();
+				} catch (ClassNotFoundException e) {
+					throw new IOException(e);
+				} finally {
+					objects.close();
+				}
+			default:
+				throw new IOException("Unknown record type: " + recordType);
+			}
+		}
+
+		private OWLClassExpression readClassExpression(ByteBuffer in)
+				throws IOException {
+			int type = BinaryAboxFormat.readVarInt(in);
+			switch (type) {
+			case CLASS:
+				return factory_.getOWLClass(readIri(in));
+			case INTERSECTION:
+				return factory_
+						.getOWLObjectIntersectionOf(readClassExpressions(in));
+			case UNION:
+				return factory_.getOWLObjectUnionOf(readClassExpressions(in));
+			case COMPLEMENT:
+				return factory_
+						.getOWLObjectComplementOf(readClassExpression(in));
+			case SOME_VALUES:
+				OWLObjectPropertyExpression property = readProperty(in);
+				return factory_.getOWLObjectSomeValuesFrom(property,
+						readClassExpression(in));
+			case ALL_VALUES:
+				property = readProperty(in);
+				return factory_.getOWLObjectAllValuesFrom(property,
+						readClassExpression(in));
+			case HAS_VALUE:
+				property = readProperty(in);
+				return factory_.getOWLObjectHasValue(property,
+						readIndividual(in));
+			case ONE_OF:
+				int count = BinaryAboxFormat.readVarInt(in);
+				Set<OWLIndividual> individuals = new HashSet<OWLIndividual>(
+						count);
+				for (int i = 0; i < count; i++) {
+					individuals.add(readIndividual(in));
+				}
+				return factory_.getOWLObjectOneOf(individuals);
+			default:
+				throw new IOException("Unknown class expression type: " + type);
+			}
+		}
+
+		private Set<OWLClassExpression> readClassExpressions(ByteBuffer in)
+				throws IOException {
+			int count = BinaryAboxFormat.readVarInt(in);
+			Set<OWLClassExpression> result = new HashSet<OWLClassExpression>(
+					count);
+			for (int i = 0; i < count; i++) {
+				result.add(readClassExpression(in));
+			}
+			return result;
+		}
+
+		private OWLObjectPropertyExpression readProperty(ByteBuffer in)
+				throws IOException {
+			int id = BinaryAboxFormat.readVarInt(in);
+			OWLObjectPropertyExpression result = factory_
+					.getOWLObjectProperty(getIri(id >>> 1));
+			if ((id & 1) == 0)
+				return result;
+			// else
+			return factory_.getOWLObjectInverseOf(result);
+		}
+
+		private OWLIndividual readIndividual(ByteBuffer in) throws IOException {
+			int id = BinaryAboxFormat.readVarInt(in);
+			if ((id & 1) == 0)
+				return factory_.getOWLNamedIndividual(getIri(id >>> 1));
+			// else
+			int anonymousId = id >>> 1;
+			if (anonymousId >= anonymousIndividuals_.size())
+				throw new IOException("Unknown anonymous individual: "
+						+ anonymousId);
+			// else
+			return anonymousIndividuals_.get(anonymousId);
+		}
+
+		private IRI readIri(ByteBuffer in) throws IOException {
+			return getIri(BinaryAboxFormat.readVarInt(in));
+		}
+
+		private IRI getIri(int id) throws IOException {
+			if (id >= iris_.size())
+				throw new IOException("Unknown IRI: " + id);
+			// else
+			return iris_.get(id);
+		}
+
+	}
+
+}
@@ -0,0 +1,245 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Assigns consecutive numbers to {@link IRI}s and stores them in a compact,
+ * front-coded form: the IRIs are kept as UTF-8 bytes in a single array in the
+ * order of their numbers, where every IRI is stored as the length of the
+ * prefix it shares with the previous IRI followed by the remaining bytes. To
+ * allow access by number, every {@value #BLOCK_SIZE}-th IRI is stored in full.
+ * Since IRIs of the same ontology usually share long namespaces, and
+ * consecutive IRIs often differ only in few last characters, this requires
+ * much less memory than keeping the {@link IRI} objects. The {@link IRI}s are
+ * created again only when requested by numbers. The numbers of {@link IRI}s
+ * are found using a hash table of numbers, which compares the stored bytes
+ * only if the hash codes of the IRIs are equal. Since every lookup encodes
+ * the {@link IRI}, it is slower than in a map of {@link IRI}s, so the
+ * dictionary is meant for components that keep many IRIs, not for streaming
+ * ones.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+class IriDictionary {
+
+	private static final Charset UTF8_ = Charset.forName("UTF-8");
+
+	/**
+	 * The number of IRIs in each block; the first IRI of each block is stored
+	 * in full
+	 */
+	static final int BLOCK_SIZE = 16;
+
+	/**
+	 * The encoded IRIs
+	 */
+	private byte[] data_ = new byte[1024];
+
+	private int dataSize_ = 0;
+
+	/**
+	 * The positions in {@link #data_} at which the blocks start
+	 */
+	private int[] blockStarts_ = new int[64];
+
+	/**
+	 * The hash codes of the IRIs by their numbers
+	 */
+	private int[] hashes_ = new int[BLOCK_SIZE];
+
+	/**
+	 * The open addressing hash table of IRI numbers increased by one; 0
+	 * marks empty slots
+	 */
+	private int[] table_ = new int[64];
+
+	private int size_ = 0;
+
+	/**
+	 * The bytes of the last added IRI
+	 */
+	private byte[] last_ = new byte[0];
+
+	/**
+	 * @return the number of the given {@link IRI}, assigning a new one if
+	 *         necessary
+	 */
+	int getId(IRI iri) {
+		byte[] bytes = iri.toString().getBytes(UTF8_);
+		int hash = hash(bytes);
+		int slot = findSlot(bytes, hash);
+		if (table_[slot] != 0)
+			return table_[slot] - 1;
+		// else
+		int id = add(bytes, hash);
+		table_[slot] = id + 1;
+		if (size_ * 4 > table_.length * 3)
+			rehash();
+		return id;
+	}
+
+	/**
+	 * @return the number of the given {@link IRI} or -1 if it has no number
+	 */
+	int find(IRI iri) {
+		byte[] bytes = iri.toString().getBytes(UTF8_);
+		return table_[findSlot(bytes, hash(bytes))] - 1;
+	}
+
+	/**
+	 * @return the {@link IRI} with the given number
+	 */
+	IRI get(int id) {
+		return IRI.create(new String(getBytes(id), UTF8_));
+	}
+
+	/**
+	 * @return the number of stored {@link IRI}s
+	 */
+	int size() {
+		return size_;
+	}
+
+	/**
+	 * @return the number of bytes used for the encoded {@link IRI}s
+	 */
+	int getEncodedSize() {
+		return dataSize_;
+	}
+
+	private int add(byte[] bytes, int hash) {
+		int id = size_++;
+		if (id % BLOCK_SIZE == 0) {
+			int block = id / BLOCK_SIZE;
+			if (block == blockStarts_.length)
+				blockStarts_ = Arrays.copyOf(blockStarts_, block << 1);
+			blockStarts_[block] = dataSize_;
+			last_ = new byte[0];
+		}
+		if (id == hashes_.length)
+			hashes_ = Arrays.copyOf(hashes_, id << 1);
+		hashes_[id] = hash;
+		int shared = 0;
+		int max = Math.min(bytes.length, last_.length);
+		while (shared < max && bytes[shared] == last_[shared])
+			shared++;
+		ensureCapacity(10 + bytes.length - shared);
+		writeVarInt(shared);
+		writeVarInt(bytes.length - shared);
+		System.arraycopy(bytes, shared, data_, dataSize_, bytes.length
+				- shared);
+		dataSize_ += bytes.length - shared;
+		last_ = bytes;
+		return id;
+	}
+
+	/**
+	 * @return the UTF-8 bytes of the IRI with the given number
+	 */
+	byte[] getBytes(int id) {
+		if (id < 0 || id >= size_)
+			throw new IndexOutOfBoundsException("IRI number: " + id);
+		// else
+		int[] position = { blockStarts_[id / BLOCK_SIZE] };
+		byte[] result = new byte[0];
+		for (int i = id - id % BLOCK_SIZE; i <= id; i++) {
+			int shared = readVarInt(position);
+			int length = readVarInt(position);
+			byte[] next = Arrays.copyOf(result, shared + length);
+			System.arraycopy(data_, position[0], next, shared, length);
+			position[0] += length;
+			result = next;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the slot of the hash table that contains the number of the IRI
+	 *         with the given bytes and hash code, or the empty slot where it
+	 *         should be inserted
+	 */
+	private int findSlot(byte[] bytes, int hash) {
+		int mask = table_.length - 1;
+		for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+			int entry = table_[slot];
+			if (entry == 0)
+				return slot;
+			// else
+			if (hashes_[entry - 1] == hash
+					&& Arrays.equals(getBytes(entry - 1), bytes))
+				return slot;
+		}
+	}
+
+	private void rehash() {
+		int[] table = new int[table_.length << 1];
+		int mask = table.length - 1;
+		for (int entry : table_) {
+			if (entry == 0)
+				continue;
+			// else
+			int slot = hashes_[entry - 1] & mask;
+			while (table[slot] != 0)
+				slot = (slot + 1) & mask;
+			table[slot] = entry;
+		}
+		table_ = table;
+	}
+
+	private static int hash(byte[] bytes) {
+		int hash = Arrays.hashCode(bytes);
+		// spread the bits since the table size is a power of two
+		return hash ^ (hash >>> 16);
+	}
+
+	private void ensureCapacity(int extra) {
+		if (dataSize_ + extra > data_.length)
+			data_ = Arrays.copyOf(data_,
+					Math.max(data_.length << 1, dataSize_ + extra));
+	}
+
+	private void writeVarInt(int value) {
+		while ((value & ~0x7F) != 0) {
+			data_[dataSize_++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data_[dataSize_++] = (byte) value;
+	}
+
+	private int readVarInt(int[] position) {
+		int result = 0;
+		for (int shift = 0;; shift += 7) {
+			byte next = data_[position[0]++];
+			result |= (next & 0x7F) << shift;
+			if (next >= 0)
+				return result;
+		}
+	}
+
+}
@@ -0,0 +1,47 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/**
+ * A general interface for sources of {@link OWLAxiom}s that can be read
+ * several times, e.g., once for every pass of the conversion.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public interface OWLAxiomSource {
+
+	/**
+	 * Passes all {@link OWLAxiom}s of this source to the given
+	 * {@link OWLAxiomProcessor}
+	 * 
+	 * @param processor
+	 * @throws OWLRuntimeException
+	 *             if the axioms cannot be read
+	 */
+	public void processAxioms(OWLAxiomProcessor processor);
+
+}
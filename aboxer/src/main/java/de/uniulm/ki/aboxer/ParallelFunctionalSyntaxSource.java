@@ -0,0 +1,407 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.coode.owlapi.functionalparser.OWLFunctionalSyntaxOWLParser;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * An {@link OWLAxiomSource} that parses an ontology document in OWL 2
+ * Functional-Style Syntax using several threads. The document is split into
+ * chunks at the beginnings of lines that start with an upper case letter (the
+ * first letter of an axiom) outside of string literals, and the chunks are
+ * memory-mapped and parsed independently, each preceded by the prefix
+ * declarations of the document. Finding the beginnings of chunks requires
+ * one sequential scan of the document, which is much faster than parsing.
+ * This requires that every axiom starts on a new line, as in documents saved
+ * by the OWL API, and that the axioms do not use blank nodes shared with
+ * other axioms. Ontology annotations and imports are ignored. The parsed
+ * axioms are passed to the {@link OWLAxiomProcessor} in the order of chunks
+ * from the calling thread; the order of axioms within a chunk is not fixed.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class ParallelFunctionalSyntaxSource implements OWLAxiomSource {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(ParallelFunctionalSyntaxSource.class);
+
+	/**
+	 * The preferred number of bytes in a chunk
+	 */
+	private static final long CHUNK_SIZE = 1 << 24;
+
+	/**
+	 * The number of bytes read at once when scanning the document
+	 */
+	private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The file with the ontology document
+	 */
+	private final File file_;
+
+	/**
+	 * The number of threads used for parsing
+	 */
+	private final int threadCount_;
+
+	/**
+	 * @param file
+	 *            the file with the ontology document in OWL 2
+	 *            Functional-Style Syntax
+	 * @param threadCount
+	 *            the number of threads used for parsing
+	 */
+	public ParallelFunctionalSyntaxSource(File file, int threadCount) {
+		this.file_ = file;
+		this.threadCount_ = threadCount;
+	}
+
+	/**
+	 * Creates the source that uses one thread per available processor
+	 * 
+	 * @see #ParallelFunctionalSyntaxSource(File, int)
+	 */
+	public ParallelFunctionalSyntaxSource(File file) {
+		this(file, Runtime.getRuntime().availableProcessors());
+	}
+
+	@Override
+	public void processAxioms(OWLAxiomProcessor processor) {
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount_);
+		try {
+			RandomAccessFile in = new RandomAccessFile(file_, "r");
+			try {
+				processAxioms(in.getChannel(), executor, processor);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new OWLRuntimeException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OWLRuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new OWLRuntimeException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void processAxioms(final FileChannel channel,
+			ExecutorService executor, OWLAxiomProcessor processor)
+			throws IOException, InterruptedException, ExecutionException {
+		long size = channel.size();
+		LineScanner lines = new LineScanner(channel);
+		// find the header and the beginning of the axioms
+		long ontologyStart = -1;
+		long bodyStart = -1;
+		for (long pos = 0; pos < size; pos = lines.next()) {
+			String line = readLineStart(channel, pos);
+			if (ontologyStart < 0) {
+				if (line.startsWith("Ontology("))
+					ontologyStart = pos;
+			} else if (line.length() > 0
+					&& Character.isUpperCase(line.charAt(0))
+					&& !line.startsWith("Import(")
+					&& !line.startsWith("Annotation(")) {
+				bodyStart = pos;
+				break;
+			}
+		}
+		if (ontologyStart < 0)
+			throw new IOException(file_
+					+ ": not in OWL 2 Functional-Style Syntax");
+		if (bodyStart < 0)
+			// no axioms
+			return;
+		// else
+		final byte[] header = new byte[(int) ontologyStart + 10];
+		ByteBuffer prefixes = ByteBuffer.wrap(header, 0, (int) ontologyStart);
+		while (prefixes.hasRemaining()) {
+			if (channel.read(prefixes, prefixes.position()) < 0)
+				throw new IOException(file_ + ": unexpected end of file");
+		}
+		System.arraycopy("Ontology(\n".getBytes("UTF-8"), 0, header,
+				(int) ontologyStart, 10);
+		// the closing parenthesis of Ontology( is excluded from chunks
+		long bodyEnd = lastIndexOf(channel, (byte) ')', bodyStart, size);
+		if (bodyEnd < 0)
+			throw new IOException(file_ + ": unbalanced parentheses");
+		// split into chunks
+		int chunkCount = (int) Math.max(threadCount_ * 4L,
+				(bodyEnd - bodyStart) / CHUNK_SIZE);
+		List<Long> boundaries = new ArrayList<Long>(chunkCount + 1);
+		boundaries.add(bodyStart);
+		for (int i = 1; i < chunkCount; i++) {
+			long target = bodyStart + (bodyEnd - bodyStart) * i / chunkCount;
+			long boundary;
+			do {
+				boundary = lines.next();
+			} while (boundary < bodyEnd
+					&& (boundary < target || !lines.startsWithUpperCase()));
+			if (boundary >= bodyEnd)
+				break;
+			// else
+			boundaries.add(boundary);
+		}
+		boundaries.add(bodyEnd);
+		LOGGER_.debug("{}: parsing {} chunks", file_, boundaries.size() - 1);
+		// parse the chunks keeping a bounded number of them in memory
+		Queue<Future<Set<OWLAxiom>>> parsed = new LinkedList<Future<Set<OWLAxiom>>>();
+		int next = 0;
+		for (;;) {
+			while (next < boundaries.size() - 1
+					&& parsed.size() < 2 * threadCount_) {
+				final long start = boundaries.get(next);
+				final long end = boundaries.get(++next);
+				parsed.add(executor.submit(new Callable<Set<OWLAxiom>>() {
+					@Override
+					public Set<OWLAxiom> call() throws Exception {
+						return parseChunk(header, channel.map(
+								FileChannel.MapMode.READ_ONLY, start, end
+										- start));
+					}
+				}));
+			}
+			Future<Set<OWLAxiom>> chunk = parsed.poll();
+			if (chunk == null)
+				return;
+			// else
+			for (OWLAxiom axiom : chunk.get()) {
+				processor.process(axiom);
+			}
+		}
+	}
+
+	/**
+	 * Parses the axioms in the given chunk
+	 */
+	static Set<OWLAxiom> parseChunk(byte[] header, ByteBuffer chunk)
+			throws Exception {
+		Vector<InputStream> parts = new Vector<InputStream>(3);
+		parts.add(new ByteArrayInputStream(header));
+		parts.add(new ByteBufferInputStream(chunk));
+		parts.add(new ByteArrayInputStream(new byte[] { ')', '\n' }));
+		// every thread uses its own factory
+		OWLOntologyManager manager = OWLManager
+				.createOWLOntologyManager(new OWLDataFactoryImpl());
+		OWLOntology ontology = manager.createOntology();
+		// the parser uses the manager of the ontology
+		new OWLFunctionalSyntaxOWLParser().parse(new StreamDocumentSource(new SequenceInputStream(parts
+				.elements())), ontology);
+		return ontology.getAxioms();
+	}
+
+	/**
+	 * @return the first characters of the line starting at the given
+	 *         position, without leading white spaces
+	 */
+	private static String readLineStart(FileChannel channel, long pos)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		channel.read(buffer, pos);
+		String result = new String(buffer.array(), 0, buffer.position(),
+				"UTF-8");
+		int end = result.indexOf('\n');
+		if (end >= 0)
+			result = result.substring(0, end);
+		return result.trim();
+	}
+
+	/**
+	 * @return the position of the last occurrence of the given byte between
+	 *         the given positions, or -1 if it does not occur there
+	 */
+	private static long lastIndexOf(FileChannel channel, byte value,
+			long start, long end) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		while (end > start) {
+			long pos = Math.max(start, end - SCAN_BUFFER_SIZE);
+			buffer.clear();
+			buffer.limit((int) (end - pos));
+			channel.read(buffer, pos);
+			for (int i = buffer.position() - 1; i >= 0; i--) {
+				if (buffer.get(i) == value)
+					return pos + i;
+			}
+			end = pos;
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads a document sequentially to find the beginnings of lines that are
+	 * not inside string literals
+	 */
+	static class LineScanner {
+
+		private final FileChannel channel_;
+
+		private final long size_;
+
+		private final ByteBuffer buffer_ = ByteBuffer
+				.allocate(SCAN_BUFFER_SIZE);
+
+		/**
+		 * The position in the document of the first byte in the buffer
+		 */
+		private long bufferStart_ = 0;
+
+		/**
+		 * The position of the next byte to read
+		 */
+		private long pos_ = 0;
+
+		private boolean inLiteral_ = false;
+
+		/**
+		 * {@code true} if the last byte was a backslash inside a literal
+		 */
+		private boolean escaped_ = false;
+
+		LineScanner(FileChannel channel) throws IOException {
+			this.channel_ = channel;
+			this.size_ = channel.size();
+			buffer_.limit(0);
+		}
+
+		/**
+		 * @return the beginning of the next line that does not start inside
+		 *         a string literal, or the size of the document if there is no
+		 *         such line
+		 */
+		long next() throws IOException {
+			while (pos_ < size_) {
+				byte next = get(pos_++);
+				if (inLiteral_) {
+					if (escaped_)
+						escaped_ = false;
+					else if (next == '\\')
+						escaped_ = true;
+					else if (next == '"')
+						inLiteral_ = false;
+				} else if (next == '"')
+					inLiteral_ = true;
+				else if (next == '\n')
+					return pos_;
+			}
+			return size_;
+		}
+
+		/**
+		 * @return {@code true} if the line found by the last call of
+		 *         {@link #next()} starts with an upper case letter
+		 */
+		boolean startsWithUpperCase() throws IOException {
+			if (pos_ >= size_)
+				return false;
+			// else
+			byte first = get(pos_);
+			return first >= 'A' && first <= 'Z';
+		}
+
+		private byte get(long pos) throws IOException {
+			if (pos < bufferStart_ || pos >= bufferStart_ + buffer_.limit()) {
+				buffer_.clear();
+				bufferStart_ = pos;
+				while (buffer_.position() == 0) {
+					if (channel_.read(buffer_, pos) < 0)
+						throw new IOException("unexpected end of file");
+				}
+				buffer_.flip();
+			}
+			return buffer_.get((int) (pos - bufferStart_));
+		}
+
+	}
+
+	/**
+	 * An {@link InputStream} reading the content of a {@link ByteBuffer}
+	 */
+	static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer_;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer_ = buffer;
+		}
+
+		@Override
+		public int read() {
+			if (!buffer_.hasRemaining())
+				return -1;
+			// else
+			return buffer_.get() & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (!buffer_.hasRemaining())
+				return -1;
+			// else
+			int count = Math.min(length, buffer_.remaining());
+			buffer_.get(bytes, offset, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer_.remaining();
+		}
+
+	}
+
+}
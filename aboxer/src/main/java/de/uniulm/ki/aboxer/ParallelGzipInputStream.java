@@ -0,0 +1,259 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * An {@link InputStream} that decompresses data in the gzip format using
+ * several threads. The members written by {@link ParallelGzipOutputStream}
+ * contain their sizes in the headers, so they are read without decompression
+ * and decompressed in parallel. When a member without this information is
+ * found, e.g., if the data was compressed by another tool, the rest of the
+ * data is decompressed sequentially using {@link GZIPInputStream}.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+	private final InputStream in_;
+
+	private final ExecutorService executor_;
+
+	/**
+	 * The maximal number of members decompressed at the same time
+	 */
+	private final int maxPending_;
+
+	/**
+	 * The decompressed members in the order they should be read
+	 */
+	private final Queue<Future<byte[]>> pending_ = new LinkedList<Future<byte[]>>();
+
+	/**
+	 * The member that is currently read
+	 */
+	private byte[] current_ = new byte[0];
+
+	private int position_ = 0;
+
+	/**
+	 * The stream used for the remaining data after a member without size is
+	 * found
+	 */
+	private InputStream fallback_ = null;
+
+	/**
+	 * {@code true} if all members are read from {@link #in_}
+	 */
+	private boolean eof_ = false;
+
+	/**
+	 * @param in
+	 *            the stream from which the compressed data is read
+	 * @param threadCount
+	 *            the number of threads used for decompression
+	 */
+	public ParallelGzipInputStream(InputStream in, int threadCount) {
+		this.in_ = new BufferedInputStream(in);
+		this.executor_ = Executors.newFixedThreadPool(threadCount,
+				ParallelGzipOutputStream.DAEMON_THREAD_FACTORY);
+		this.maxPending_ = 2 * threadCount;
+	}
+
+	/**
+	 * Creates a stream using all available processors
+	 * 
+	 * @param in
+	 *            the stream from which the compressed data is read
+	 */
+	public ParallelGzipInputStream(InputStream in) {
+		this(in, Runtime.getRuntime().availableProcessors());
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!ensureAvailable())
+			return fallback_ == null ? -1 : fallback_.read();
+		// else
+		return current_[position_++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		if (length == 0)
+			return 0;
+		// else
+		if (!ensureAvailable())
+			return fallback_ == null ? -1 : fallback_.read(bytes, offset,
+					length);
+		// else
+		int count = Math.min(length, current_.length - position_);
+		System.arraycopy(current_, position_, bytes, offset, count);
+		position_ += count;
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return current_.length - position_;
+	}
+
+	@Override
+	public void close() throws IOException {
+		executor_.shutdownNow();
+		if (fallback_ != null)
+			fallback_.close();
+		else
+			in_.close();
+	}
+
+	/**
+	 * Makes sure that {@link #current_} has unread data
+	 * 
+	 * @return {@code false} if all members with sizes are read
+	 */
+	private boolean ensureAvailable() throws IOException {
+		while (position_ == current_.length) {
+			submitMembers();
+			if (pending_.isEmpty())
+				return false;
+			// else
+			current_ = ParallelGzipOutputStream.getResult(pending_.poll());
+			position_ = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the next members from the input and submits them for
+	 * decompression
+	 */
+	private void submitMembers() throws IOException {
+		byte[] header = new byte[ParallelGzipOutputStream.HEADER_SIZE];
+		while (!eof_ && fallback_ == null && pending_.size() < maxPending_) {
+			in_.mark(header.length);
+			int read = readFully(header, 0, header.length);
+			if (read == 0) {
+				eof_ = true;
+				return;
+			}
+			// else
+			if (read < header.length || !hasSize(header)) {
+				in_.reset();
+				fallback_ = new GZIPInputStream(in_);
+				return;
+			}
+			// else
+			final byte[] member = new byte[ParallelGzipOutputStream.getInt(
+					header, header.length - 4)];
+			System.arraycopy(header, 0, member, 0, header.length);
+			int rest = member.length - header.length;
+			if (readFully(member, header.length, rest) < rest)
+				throw new EOFException("Unexpected end of gzip data");
+			// else
+			pending_.add(executor_.submit(new Callable<byte[]>() {
+				@Override
+				public byte[] call() throws IOException {
+					return decompress(member);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * @return the number of bytes read, which is smaller than the given
+	 *         length only at the end of the input
+	 */
+	private int readFully(byte[] bytes, int offset, int length)
+			throws IOException {
+		int result = 0;
+		while (result < length) {
+			int read = in_.read(bytes, offset + result, length - result);
+			if (read < 0)
+				break;
+			// else
+			result += read;
+		}
+		return result;
+	}
+
+	/**
+	 * @return {@code true} if the given header is written by
+	 *         {@link ParallelGzipOutputStream}
+	 */
+	private static boolean hasSize(byte[] header) {
+		return header[0] == 0x1f && header[1] == (byte) 0x8b
+				&& header[2] == 8 && header[3] == 4 && header[10] == 8
+				&& header[11] == 0
+				&& header[12] == ParallelGzipOutputStream.SUBFIELD_ID1
+				&& header[13] == ParallelGzipOutputStream.SUBFIELD_ID2
+				&& header[14] == 4 && header[15] == 0;
+	}
+
+	static byte[] decompress(byte[] member) throws IOException {
+		int trailer = member.length - ParallelGzipOutputStream.TRAILER_SIZE;
+		byte[] result = new byte[ParallelGzipOutputStream.getInt(member,
+				trailer + 4)];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(member, ParallelGzipOutputStream.HEADER_SIZE,
+					trailer - ParallelGzipOutputStream.HEADER_SIZE);
+			int length = 0;
+			while (length < result.length) {
+				int count = inflater.inflate(result, length, result.length
+						- length);
+				if (count == 0 && (inflater.finished() || inflater.needsInput()))
+					throw new IOException("Corrupt gzip member");
+				// else
+				length += count;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		} finally {
+			inflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(result);
+		if ((int) crc.getValue() != ParallelGzipOutputStream.getInt(member,
+				trailer))
+			throw new IOException("CRC error in gzip member");
+		// else
+		return result;
+	}
+
+}
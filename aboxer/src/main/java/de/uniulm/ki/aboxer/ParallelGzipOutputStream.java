@@ -0,0 +1,298 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An {@link OutputStream} that compresses the written data in the gzip
+ * format using several threads. The data is split into blocks of a fixed
+ * size, each of which is compressed independently as a separate gzip member;
+ * a file consisting of several members is a valid gzip file that can be
+ * decompressed by the usual tools. In addition, similarly to the BGZF format,
+ * the header of every member contains the size of the member in an extra
+ * field, so that {@link ParallelGzipInputStream} can read the members without
+ * decompressing them and decompress them in parallel.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+	/**
+	 * The default number of uncompressed bytes in a block
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+	/**
+	 * The identifier of the extra field containing the size of the member
+	 */
+	static final byte SUBFIELD_ID1 = 'A', SUBFIELD_ID2 = 'B';
+
+	/**
+	 * The size of the header of a member: the fixed part, the length of the
+	 * extra fields, and the extra field with the size of the member
+	 */
+	static final int HEADER_SIZE = 10 + 2 + 8;
+
+	/**
+	 * The size of the trailer of a member: the CRC-32 and the uncompressed
+	 * size
+	 */
+	static final int TRAILER_SIZE = 8;
+
+	private final OutputStream out_;
+
+	private final ExecutorService executor_;
+
+	/**
+	 * The maximal number of blocks compressed at the same time
+	 */
+	private final int maxPending_;
+
+	/**
+	 * The compressed blocks in the order they should be written
+	 */
+	private final Queue<Future<byte[]>> pending_ = new LinkedList<Future<byte[]>>();
+
+	/**
+	 * The block that is currently filled
+	 */
+	private byte[] block_;
+
+	private int blockLength_ = 0;
+
+	/**
+	 * {@code true} if at least one member is written
+	 */
+	private boolean written_ = false;
+
+	private boolean closed_ = false;
+
+	/**
+	 * @param out
+	 *            the stream to which the compressed data is written
+	 * @param threadCount
+	 *            the number of threads used for compression
+	 * @param blockSize
+	 *            the number of uncompressed bytes in each block
+	 */
+	public ParallelGzipOutputStream(OutputStream out, int threadCount,
+			int blockSize) {
+		this.out_ = out;
+		this.executor_ = Executors.newFixedThreadPool(threadCount,
+				DAEMON_THREAD_FACTORY);
+		this.maxPending_ = 2 * threadCount;
+		this.block_ = new byte[blockSize];
+	}
+
+	/**
+	 * Creates a stream using all available processors and
+	 * {@link #DEFAULT_BLOCK_SIZE}
+	 * 
+	 * @param out
+	 *            the stream to which the compressed data is written
+	 */
+	public ParallelGzipOutputStream(OutputStream out) {
+		this(out, Runtime.getRuntime().availableProcessors(),
+				DEFAULT_BLOCK_SIZE);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (blockLength_ == block_.length)
+			submitBlock();
+		block_[blockLength_++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (blockLength_ == block_.length)
+				submitBlock();
+			int count = Math.min(length, block_.length - blockLength_);
+			System.arraycopy(bytes, offset, block_, blockLength_, count);
+			blockLength_ += count;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Compresses and writes all data written so far; the remaining data is
+	 * compressed in a new block, so frequent flushing reduces compression
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (blockLength_ > 0)
+			submitBlock();
+		while (!pending_.isEmpty())
+			writeNext();
+		out_.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed_)
+			return;
+		// else
+		closed_ = true;
+		try {
+			if (blockLength_ > 0 || !written_)
+				// an empty gzip file still has one member
+				submitBlock();
+			while (!pending_.isEmpty())
+				writeNext();
+			out_.close();
+		} finally {
+			executor_.shutdownNow();
+		}
+	}
+
+	private void submitBlock() throws IOException {
+		final byte[] block = block_;
+		final int length = blockLength_;
+		pending_.add(executor_.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return compress(block, length);
+			}
+		}));
+		written_ = true;
+		block_ = new byte[block.length];
+		blockLength_ = 0;
+		while (pending_.size() > maxPending_)
+			writeNext();
+	}
+
+	private void writeNext() throws IOException {
+		out_.write(getResult(pending_.poll()));
+	}
+
+	/**
+	 * Compresses the given data as a gzip member with the size of the member
+	 * in the header
+	 */
+	static byte[] compress(byte[] data, int length) {
+		ByteArrayOutputStream result = new ByteArrayOutputStream(
+				length / 2 + HEADER_SIZE + TRAILER_SIZE);
+		// header with a placeholder for the size
+		result.write(new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED,
+				4 /* FEXTRA */, 0, 0, 0, 0, 0, (byte) 0xff, 8, 0,
+				SUBFIELD_ID1, SUBFIELD_ID2, 4, 0, 0, 0, 0, 0 }, 0, HEADER_SIZE);
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				int count = deflater.deflate(buffer);
+				result.write(buffer, 0, count);
+			}
+		} finally {
+			deflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		writeInt(result, (int) crc.getValue());
+		writeInt(result, length);
+		byte[] member = result.toByteArray();
+		setInt(member, HEADER_SIZE - 4, member.length);
+		return member;
+	}
+
+	/**
+	 * Writes the given value in the little-endian order
+	 */
+	private static void writeInt(OutputStream out, int value) {
+		try {
+			for (int i = 0; i < 4; i++) {
+				out.write(value >>> (8 * i));
+			}
+		} catch (IOException e) {
+			// cannot happen for ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void setInt(byte[] bytes, int offset, int value) {
+		for (int i = 0; i < 4; i++) {
+			bytes[offset + i] = (byte) (value >>> (8 * i));
+		}
+	}
+
+	/**
+	 * @return the value of the given int in the little-endian order starting
+	 *         from the given offset
+	 */
+	static int getInt(byte[] bytes, int offset) {
+		int result = 0;
+		for (int i = 0; i < 4; i++) {
+			result |= (bytes[offset + i] & 0xff) << (8 * i);
+		}
+		return result;
+	}
+
+	/**
+	 * Waits for the given {@link Future}
+	 */
+	static byte[] getResult(Future<byte[]> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			// else
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Creates daemon threads, so that the streams that are not closed do not
+	 * prevent the program from terminating
+	 */
+	static final ThreadFactory DAEMON_THREAD_FACTORY = new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread result = new Thread(runnable, "aboxer-gzip");
+			result.setDaemon(true);
+			return result;
+		}
+	};
+
+}
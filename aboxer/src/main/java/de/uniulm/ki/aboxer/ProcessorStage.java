@@ -0,0 +1,75 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * An {@link OWLAxiomProcessor} that can be combined with other processors to
+ * a pipeline. Closing a stage passes the axioms that it still holds to the
+ * next processors and then closes those of them that are {@link Closeable},
+ * so the whole pipeline is completed by closing its first stage.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public abstract class ProcessorStage implements OWLAxiomProcessor, Closeable {
+
+	/**
+	 * A processor that ignores all axioms
+	 */
+	public static final OWLAxiomProcessor DISCARD = new OWLAxiomProcessor() {
+		@Override
+		public void process(OWLAxiom axiom) {
+			// ignore
+		}
+	};
+
+	/**
+	 * Closes those of the given objects that are {@link Closeable}; all of
+	 * them are closed even if some of them throw exceptions
+	 * 
+	 * @throws IOException
+	 *             the first exception thrown when closing the objects
+	 */
+	protected static void close(Object... objects) throws IOException {
+		IOException exception = null;
+		for (Object object : objects) {
+			if (!(object instanceof Closeable))
+				continue;
+			// else
+			try {
+				((Closeable) object).close();
+			} catch (IOException e) {
+				if (exception == null)
+					exception = e;
+			}
+		}
+		if (exception != null)
+			throw exception;
+	}
+
+}
@@ -0,0 +1,273 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/**
+ * A {@link ProcessorStage} that produces several renamed copies of the
+ * processed assertions, e.g., to create large benchmarks for instance
+ * reasoners from the result of a conversion. In copy number {@code i}, the
+ * IRI of every named individual is extended with the suffix
+ * {@value #COPY_SUFFIX}{@code i}, and every anonymous individual is replaced
+ * with the anonymous individual whose node ID is extended the same way. A
+ * given fraction of object property assertions with named objects in every
+ * copy is redirected to the object of another, randomly chosen, copy; the
+ * choice is determined by a seed. Assertions with anonymous objects are never
+ * redirected since anonymous individuals passed to different outputs, e.g.,
+ * saved in different files, cannot be identified with each other. Copies are
+ * made of class assertions, object property assertions, and declarations of
+ * individuals; all other axioms are passed once without changes.
+ * <p>
+ * The copies are distributed over several output processors, each of which
+ * is used by a separate thread: copy number {@code i} is passed to the output
+ * with number {@code i} modulo the number of outputs. Hence, the outputs need
+ * not be thread-safe. The axioms that are not copied are passed to the first
+ * output. The axioms are copied in batches, so that the copies are complete
+ * only after {@link #close()} is called.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class ReplicatingProcessor extends ProcessorStage {
+
+	/**
+	 * The string that is put before the number of a copy in the IRIs of the
+	 * copied individuals
+	 */
+	public static final String COPY_SUFFIX = "_copy";
+
+	/**
+	 * The number of axioms copied at once
+	 */
+	static final int BATCH_SIZE = 4096;
+
+	private final OWLDataFactory factory_;
+
+	private final List<OWLAxiomProcessor> outputs_;
+
+	private final int copyCount_;
+
+	private final double crossEdgeFraction_;
+
+	private final long seed_;
+
+	/**
+	 * The executor used if there are several outputs, or {@code null}
+	 */
+	private final ExecutorService executor_;
+
+	private List<OWLAxiom> batch_ = new ArrayList<OWLAxiom>(BATCH_SIZE);
+
+	/**
+	 * @param factory
+	 *            the factory used to create the copies
+	 * @param outputs
+	 *            the processors that receive the copies
+	 * @param copyCount
+	 *            the number of copies to create
+	 * @param crossEdgeFraction
+	 *            the fraction of object property assertions with named
+	 *            objects whose object is taken from another copy, between 0
+	 *            and 1
+	 * @param seed
+	 *            the seed that determines the assertions whose object is
+	 *            taken from another copy
+	 */
+	public ReplicatingProcessor(OWLDataFactory factory,
+			List<? extends OWLAxiomProcessor> outputs, int copyCount,
+			double crossEdgeFraction, long seed) {
+		if (outputs.isEmpty())
+			throw new IllegalArgumentException("No outputs");
+		if (copyCount <= 0)
+			throw new IllegalArgumentException("Invalid number of copies: "
+					+ copyCount);
+		if (crossEdgeFraction < 0 || crossEdgeFraction > 1)
+			throw new IllegalArgumentException(
+					"Invalid fraction of cross-copy edges: "
+							+ crossEdgeFraction);
+		this.factory_ = factory;
+		this.outputs_ = new ArrayList<OWLAxiomProcessor>(outputs);
+		this.copyCount_ = copyCount;
+		this.crossEdgeFraction_ = crossEdgeFraction;
+		this.seed_ = seed;
+		this.executor_ = outputs.size() > 1 ? Executors.newFixedThreadPool(
+				outputs.size(), ParallelGzipOutputStream.DAEMON_THREAD_FACTORY)
+				: null;
+	}
+
+	/**
+	 * Creates copies without cross-copy edges, which are passed to a single
+	 * output in the calling thread
+	 * 
+	 * @see #ReplicatingProcessor(OWLDataFactory, List, int, double, long)
+	 */
+	public ReplicatingProcessor(OWLDataFactory factory,
+			OWLAxiomProcessor output, int copyCount) {
+		this(factory, Collections.singletonList(output), copyCount, 0, 0);
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		batch_.add(axiom);
+		if (batch_.size() == BATCH_SIZE)
+			flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		if (executor_ != null)
+			executor_.shutdown();
+		close(outputs_.toArray());
+	}
+
+	private void flush() {
+		final List<OWLAxiom> batch = batch_;
+		batch_ = new ArrayList<OWLAxiom>(BATCH_SIZE);
+		if (executor_ == null) {
+			copy(batch, 0);
+			return;
+		}
+		// else
+		List<Future<?>> futures = new ArrayList<Future<?>>(outputs_.size());
+		for (int output = 0; output < outputs_.size(); output++) {
+			final int outputNumber = output;
+			futures.add(executor_.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					copy(batch, outputNumber);
+					return null;
+				}
+			}));
+		}
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OWLRuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			// else
+			throw new OWLRuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * Passes to the output with the given number the copies of the given
+	 * axioms that belong to this output
+	 */
+	void copy(List<OWLAxiom> axioms, int outputNumber) {
+		OWLAxiomProcessor output = outputs_.get(outputNumber);
+		for (OWLAxiom axiom : axioms) {
+			if (!isCopied(axiom)) {
+				if (outputNumber == 0)
+					output.process(axiom);
+				continue;
+			}
+			// else
+			for (int copy = outputNumber; copy < copyCount_; copy += outputs_
+					.size()) {
+				output.process(getCopy(axiom, copy));
+			}
+		}
+	}
+
+	static boolean isCopied(OWLAxiom axiom) {
+		if (axiom instanceof OWLClassAssertionAxiom
+				|| axiom instanceof OWLObjectPropertyAssertionAxiom)
+			return true;
+		if (axiom instanceof OWLDeclarationAxiom)
+			return ((OWLDeclarationAxiom) axiom).getEntity()
+					.isOWLNamedIndividual();
+		// else
+		return false;
+	}
+
+	/**
+	 * @return the copy with the given number of an axiom for which
+	 *         {@link #isCopied(OWLAxiom)} holds
+	 */
+	OWLAxiom getCopy(OWLAxiom axiom, int copy) {
+		if (axiom instanceof OWLClassAssertionAxiom) {
+			OWLClassAssertionAxiom assertion = (OWLClassAssertionAxiom) axiom;
+			return factory_.getOWLClassAssertionAxiom(
+					assertion.getClassExpression(),
+					getCopy(assertion.getIndividual(), copy));
+		}
+		if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+			int objectCopy = copy;
+			if (crossEdgeFraction_ > 0 && copyCount_ > 1
+					&& assertion.getObject().isNamed()) {
+				double random = SamplingAssertionCreator.uniform(seed_ + copy,
+						axiom.hashCode());
+				if (random < crossEdgeFraction_)
+					// another copy chosen uniformly
+					objectCopy = (copy + 1 + (int) (random
+							/ crossEdgeFraction_ * (copyCount_ - 1)))
+							% copyCount_;
+			}
+			return factory_.getOWLObjectPropertyAssertionAxiom(
+					assertion.getProperty(),
+					getCopy(assertion.getSubject(), copy),
+					getCopy(assertion.getObject(), objectCopy));
+		}
+		// else a declaration of an individual
+		OWLEntity entity = ((OWLDeclarationAxiom) axiom).getEntity();
+		return factory_.getOWLDeclarationAxiom((OWLNamedIndividual) getCopy(
+				entity.asOWLNamedIndividual(), copy));
+	}
+
+	OWLIndividual getCopy(OWLIndividual individual, int copy) {
+		if (individual.isNamed())
+			return factory_.getOWLNamedIndividual(IRI.create(individual
+					.asOWLNamedIndividual().getIRI() + COPY_SUFFIX + copy));
+		// else
+		return factory_.getOWLAnonymousIndividual(individual
+				.asOWLAnonymousIndividual().getID() + COPY_SUFFIX + copy);
+	}
+
+}
@@ -0,0 +1,141 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+/**
+ * An {@link AssertionCreator} that converts only the parts of axioms for a
+ * random sample of subject {@link OWLClass}es, i.e., the declarations and the
+ * sub-class axioms of the sampled classes; axioms that are not converted are
+ * sampled individually. The sample is determined by the hash codes of the
+ * classes and axioms and the given seed, so it is the same on every run with
+ * the same seed. The numbers of all and of the sampled parts are counted so
+ * that the statistics can be extrapolated to the full conversion.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+class SamplingAssertionCreator extends AssertionCreator {
+
+	private final double sampleRate_;
+
+	private final long seed_;
+
+	private long partCount_ = 0, sampledPartCount_ = 0;
+
+	private boolean axiomSampled_ = false;
+
+	/**
+	 * @param sampleRate
+	 *            the probability with which every class or axiom is sampled,
+	 *            between 0 (exclusive) and 1 (inclusive)
+	 * @param seed
+	 *            the seed that determines the sample
+	 * 
+	 * @see AssertionCreator#AssertionCreator(Set, OWLDataFactory,
+	 *      OWLAxiomProcessor, boolean)
+	 */
+	SamplingAssertionCreator(Set<OWLClass> blackListedClasses,
+			OWLDataFactory factory, OWLAxiomProcessor processor,
+			boolean shareWitnesses, double sampleRate, long seed) {
+		super(blackListedClasses, factory, processor, shareWitnesses);
+		if (sampleRate <= 0 || sampleRate > 1)
+			throw new IllegalArgumentException("Invalid sample rate: "
+					+ sampleRate);
+		this.sampleRate_ = sampleRate;
+		this.seed_ = seed;
+	}
+
+	@Override
+	public void defaultVisit(OWLAxiom axiom) {
+		if (isSampled(axiom.hashCode()))
+			super.defaultVisit(axiom);
+	}
+
+	@Override
+	void visitClassDeclaration(OWLClass declaredClass) {
+		if (isSampled(declaredClass.hashCode()))
+			super.visitClassDeclaration(declaredClass);
+	}
+
+	@Override
+	void visitClassInclusion(OWLClass subClass, OWLClassExpression superClass) {
+		if (isSampled(subClass.hashCode()))
+			super.visitClassInclusion(subClass, superClass);
+	}
+
+	/**
+	 * Counts a part of an axiom with the given hash code and decides whether
+	 * it is sampled
+	 */
+	private boolean isSampled(int hash) {
+		partCount_++;
+		if (uniform(seed_, hash) >= sampleRate_)
+			return false;
+		// else
+		sampledPartCount_++;
+		axiomSampled_ = true;
+		return true;
+	}
+
+	/**
+	 * @return a number between 0 (inclusive) and 1 (exclusive) determined by
+	 *         the given seed and hash code, which is distributed uniformly for
+	 *         different hash codes
+	 */
+	static double uniform(long seed, int hash) {
+		// a 64-bit mix function, see SplitMix64
+		long z = seed + hash * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		// the upper 53 bits
+		return (z >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @return {@code true} if some part of some axiom was sampled since the
+	 *         last call of this method
+	 */
+	boolean pollAxiomSampled() {
+		boolean result = axiomSampled_;
+		axiomSampled_ = false;
+		return result;
+	}
+
+	/**
+	 * @return the factor by which the counts of the sample should be
+	 *         multiplied to estimate the counts of the full conversion
+	 */
+	double getScale() {
+		return sampledPartCount_ == 0 ? 0 : (double) partCount_
+				/ sampledPartCount_;
+	}
+
+}
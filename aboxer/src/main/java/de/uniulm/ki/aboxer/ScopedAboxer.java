@@ -0,0 +1,252 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+/**
+ * Converts only the part of an ontology relevant for a given signature. For
+ * the signature, a syntactic locality-based module (bottom module) is
+ * extracted, which contains in particular all axioms SubClassOf(:A ...) for
+ * the classes :A in the signature of the module. The axioms of the module are
+ * converted as in {@link Aboxer#aboxify(OWLOntology)}, so that the result is
+ * the part of the result of converting the whole ontology that is produced
+ * from the axioms of the module.
+ * <p>
+ * To determine which classes in the module are blacklisted, it is not
+ * sufficient to consider the axioms of the module. Instead, the
+ * {@link Blacklister} processes the axioms referencing the classes of the
+ * module until they become blacklisted, and, recursively, the axioms
+ * referencing the classes :A of axioms SubClassOf(:A ...) that can make them
+ * blacklisted; these are found using the index of referencing axioms of the
+ * ontology. The processed part can still be large, e.g., for long chains of
+ * such axioms.
+ * <p>
+ * The module extractor is created once for the ontology, so that several
+ * conversions for different signatures can be done using the same
+ * {@link ScopedAboxer}. The ontology should not be modified meanwhile.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class ScopedAboxer {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(ScopedAboxer.class);
+
+	private final OWLOntology ontology_;
+
+	private final SyntacticLocalityModuleExtractor extractor_;
+
+	/**
+	 * @param ontology
+	 *            the ontology from which the parts should be converted
+	 */
+	public ScopedAboxer(OWLOntology ontology) {
+		this.ontology_ = ontology;
+		this.extractor_ = new SyntacticLocalityModuleExtractor(
+				ontology.getOWLOntologyManager(), ontology, ModuleType.BOT);
+	}
+
+	/**
+	 * Converts the part of the ontology relevant for the given signature
+	 * 
+	 * @param signature
+	 *            the entities, e.g., {@link OWLClass}es, for which the
+	 *            assertions should be produced
+	 * @return the ontology containing the axioms produced from the module of
+	 *         the signature
+	 * @throws OWLOntologyCreationException
+	 *             if the resulting ontology cannot be created
+	 */
+	public OWLOntology aboxify(Set<OWLEntity> signature)
+			throws OWLOntologyCreationException {
+		OntologyProducerProcessor ontologyProducer = new OntologyProducerProcessor(
+				ontology_.getOWLOntologyManager());
+		aboxify(signature, ontologyProducer);
+		return ontologyProducer.getOntology();
+	}
+
+	/**
+	 * Converts the part of the ontology relevant for the given signature, and
+	 * passes the resulting axioms to the given {@link OWLAxiomProcessor}
+	 * 
+	 * @param signature
+	 *            the entities, e.g., {@link OWLClass}es, for which the
+	 *            assertions should be produced
+	 * @param outputProcessor
+	 *            the {@link OWLAxiomProcessor} that receives the axioms of the
+	 *            result; it may receive the same axiom several times
+	 */
+	public void aboxify(Set<OWLEntity> signature,
+			OWLAxiomProcessor outputProcessor) {
+		Set<OWLAxiom> module = extractor_.extract(signature);
+		LOGGER_.debug("Module: {} of {} axioms", module.size(),
+				ontology_.getAxiomCount());
+		Set<OWLAxiom> processed = new HashSet<OWLAxiom>();
+		Set<OWLClass> blacklisted = getBlacklistedClasses(module, processed);
+		LOGGER_.debug("Axioms processed for blacklisting: {}",
+				processed.size());
+		AssertionCreator assertionCreator = new AssertionCreator(blacklisted,
+				ontology_.getOWLOntologyManager().getOWLDataFactory(),
+				outputProcessor);
+		for (OWLAxiom axiom : module) {
+			axiom.accept(assertionCreator);
+		}
+		assertionCreator.printStatistics();
+	}
+
+	/**
+	 * Determines which classes of the given module are blacklisted in the
+	 * ontology. For every class of the module, the {@link Blacklister}
+	 * processes the axioms referencing it until the class becomes blacklisted.
+	 * If the class is not blacklisted by such an axiom, it can only become
+	 * blacklisted through axioms SubClassOf(:A ...) in which it is a filler of
+	 * a convertible existential restriction, namely if :A is blacklisted; so
+	 * the same is done for :A.
+	 * 
+	 * @param module
+	 *            the axioms whose classes should be checked
+	 * @param processed
+	 *            the set to which the axioms processed by the
+	 *            {@link Blacklister} are added
+	 * @return the set of blacklisted classes, which contains all blacklisted
+	 *         classes of the module
+	 */
+	Set<OWLClass> getBlacklistedClasses(Set<OWLAxiom> module,
+			Set<OWLAxiom> processed) {
+		Blacklister blacklister = new Blacklister();
+		FillerFinder fillerFinder = new FillerFinder();
+		Set<OWLClass> visited = new HashSet<OWLClass>();
+		Queue<OWLClass> todo = new LinkedList<OWLClass>();
+		for (OWLAxiom axiom : module) {
+			todo.addAll(axiom.getClassesInSignature());
+		}
+		for (;;) {
+			OWLClass next = todo.poll();
+			if (next == null)
+				break;
+			// else
+			if (!visited.add(next))
+				continue;
+			// else
+			for (OWLAxiom axiom : ontology_.getReferencingAxioms(next, true)) {
+				if (blacklister.blacklisted(next))
+					// other axioms cannot change anything for next
+					break;
+				// else
+				if (!processed.add(axiom))
+					continue;
+				// else
+				axiom.accept(blacklister);
+				OWLClass source = fillerFinder.getSource(axiom, next);
+				if (source != null)
+					todo.add(source);
+			}
+		}
+		return blacklister.getBlacklistedClasses();
+	}
+
+	/**
+	 * Finds the classes whose blacklisting can make other classes blacklisted
+	 * according to the rules of the {@link Blacklister}
+	 * 
+	 * @author "Yevgeny Kazakov"
+	 * 
+	 */
+	private static class FillerFinder extends
+			AbstractPatternProcessor<OWLClass> {
+
+		private boolean found_;
+
+		/**
+		 * @return the class :A if the given axiom is SubClassOf(:A ...) in
+		 *         which the given {@link OWLClass} is a filler of a
+		 *         convertible existential restriction, and {@code null}
+		 *         otherwise; in all other cases, the axiom either blacklists
+		 *         the given {@link OWLClass} regardless of other classes, or
+		 *         cannot make it blacklisted
+		 */
+		OWLClass getSource(OWLAxiom axiom, OWLClass owlClass) {
+			if (!(axiom instanceof OWLSubClassOfAxiom))
+				return null;
+			// else
+			OWLSubClassOfAxiom subClassOfAxiom = (OWLSubClassOfAxiom) axiom;
+			OWLClassExpression subClass = subClassOfAxiom.getSubClass();
+			if (subClass.isAnonymous() || subClass.equals(owlClass))
+				return null;
+			// else
+			found_ = false;
+			for (OWLClassExpression conjunct : subClassOfAxiom
+					.getSuperClass().asConjunctSet()) {
+				process(owlClass, conjunct);
+			}
+			return found_ ? subClass.asOWLClass() : null;
+		}
+
+		@Override
+		public void visitUnsplitable(OWLClass context, OWLClassExpression ce) {
+			// blacklisted regardless of the sub-class
+		}
+
+		@Override
+		public void visitSimpleExistential(OWLClass context,
+				OWLObjectPropertyExpression property, OWLClass filler) {
+			if (filler.equals(context))
+				found_ = true;
+		}
+
+		@Override
+		public void visitIndividualExistential(OWLClass context,
+				OWLObjectPropertyExpression property, OWLIndividual value) {
+			// there are no classes
+		}
+
+		@Override
+		public OWLClass getNewContext(OWLClass oldContext,
+				OWLObjectPropertyExpression property, OWLClassExpression filler) {
+			return oldContext;
+		}
+
+	}
+
+}
@@ -0,0 +1,283 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLIndividualAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link OWLAxiomProcessor} that partitions the processed assertions into
+ * connected components of individuals, and distributes them over a given
+ * number of ontologies (shards). Two individuals belong to the same component
+ * if they occur in the same assertion, e.g., ObjectPropertyAssertion(:r :a
+ * :b); declarations of individuals belong to the component of the declared
+ * individual. All other axioms are copied to every shard. Components are
+ * computed using a union-find structure over individuals.
+ * <p>
+ * If some of the other axioms mention individuals, e.g., in nominals such as
+ * SubClassOf(:A ObjectHasValue(:r :o)), then the assertions of different
+ * components may affect each other through these individuals, so the
+ * components cannot be processed independently. In this case, all assertions
+ * are treated as one component and put into the same shard.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class ShardingProcessor implements OWLAxiomProcessor {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(ShardingProcessor.class);
+
+	/**
+	 * The axioms that do not mention individuals; they are copied to every
+	 * shard
+	 */
+	private final Set<OWLAxiom> residualAxioms_ = new HashSet<OWLAxiom>();
+
+	/**
+	 * {@code true} if some of {@link #residualAxioms_} mention individuals, in
+	 * which case all assertions belong to one component
+	 */
+	private boolean residualIndividuals_ = false;
+
+	/**
+	 * The processed axioms that mention individuals
+	 */
+	private final List<OWLAxiom> assertions_ = new ArrayList<OWLAxiom>();
+
+	/**
+	 * For each axiom in {@link #assertions_}, the id of some individual in
+	 * this axiom
+	 */
+	private int[] assertionIndividuals_ = new int[128];
+
+	/**
+	 * The ids assigned to individuals
+	 */
+	private final Map<OWLIndividual, Integer> individualIds_ = new HashMap<OWLIndividual, Integer>(
+			128);
+
+	/**
+	 * The union-find forest: for every individual id, the id of its parent
+	 * (the id itself for the roots)
+	 */
+	private int[] parents_ = new int[128];
+
+	/**
+	 * For every root individual id, the number of individuals in its tree; used
+	 * for union by size
+	 */
+	private int[] sizes_ = new int[128];
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		int individual = -1;
+		if (axiom instanceof OWLIndividualAxiom) {
+			for (OWLIndividual next : axiom.getIndividualsInSignature()) {
+				individual = union(individual, getId(next));
+			}
+			for (OWLIndividual next : axiom.getAnonymousIndividuals()) {
+				individual = union(individual, getId(next));
+			}
+		} else if (axiom instanceof OWLDeclarationAxiom) {
+			OWLDeclarationAxiom declaration = (OWLDeclarationAxiom) axiom;
+			if (declaration.getEntity().isOWLNamedIndividual())
+				individual = getId(declaration.getEntity()
+						.asOWLNamedIndividual());
+		}
+		if (individual < 0) {
+			if (!residualIndividuals_
+					&& (!axiom.getIndividualsInSignature().isEmpty() || !axiom
+							.getAnonymousIndividuals().isEmpty())) {
+				LOGGER_.warn(
+						"Individuals in {}: all assertions are put into one shard",
+						axiom);
+				residualIndividuals_ = true;
+			}
+			residualAxioms_.add(axiom);
+			return;
+		}
+		// else
+		int pos = assertions_.size();
+		if (pos == assertionIndividuals_.length)
+			assertionIndividuals_ = Arrays.copyOf(assertionIndividuals_,
+					pos * 2);
+		assertionIndividuals_[pos] = individual;
+		assertions_.add(axiom);
+	}
+
+	/**
+	 * @return the number of connected components of individuals found in the
+	 *         processed assertions; at most one if some other processed axioms
+	 *         mention individuals
+	 */
+	public int getComponentCount() {
+		if (residualIndividuals_)
+			return assertions_.isEmpty() ? 0 : 1;
+		// else
+		int result = 0;
+		for (int i = 0; i < individualIds_.size(); i++) {
+			if (parents_[i] == i)
+				result++;
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the given number of ontologies, each containing all processed
+	 * axioms without individuals and the assertions of some connected
+	 * components of individuals. The components are assigned to shards,
+	 * starting from the largest, each time to a shard with the smallest
+	 * number of assertions.
+	 * 
+	 * @param manager
+	 *            the manager used to create the ontologies
+	 * @param shardCount
+	 *            the number of ontologies to create
+	 * @return the list of created ontologies
+	 * @throws OWLOntologyCreationException
+	 *             if the ontologies cannot be created
+	 */
+	public List<OWLOntology> createShards(OWLOntologyManager manager,
+			int shardCount) throws OWLOntologyCreationException {
+		if (shardCount < 1)
+			throw new IllegalArgumentException("Invalid number of shards: "
+					+ shardCount);
+		// collect the assertions of every component
+		Map<Integer, List<OWLAxiom>> components = new HashMap<Integer, List<OWLAxiom>>();
+		for (int i = 0; i < assertions_.size(); i++) {
+			Integer root = residualIndividuals_ ? 0
+					: find(assertionIndividuals_[i]);
+			List<OWLAxiom> component = components.get(root);
+			if (component == null) {
+				component = new ArrayList<OWLAxiom>();
+				components.put(root, component);
+			}
+			component.add(assertions_.get(i));
+		}
+		LOGGER_.debug("Connected components: {}", components.size());
+		List<List<OWLAxiom>> sorted = new ArrayList<List<OWLAxiom>>(
+				components.values());
+		Collections.sort(sorted, new Comparator<List<OWLAxiom>>() {
+			@Override
+			public int compare(List<OWLAxiom> first, List<OWLAxiom> second) {
+				return second.size() - first.size();
+			}
+		});
+		List<Set<OWLAxiom>> shards = new ArrayList<Set<OWLAxiom>>(shardCount);
+		for (int i = 0; i < shardCount; i++) {
+			shards.add(new HashSet<OWLAxiom>());
+		}
+		for (List<OWLAxiom> component : sorted) {
+			Set<OWLAxiom> smallest = shards.get(0);
+			for (Set<OWLAxiom> shard : shards) {
+				if (shard.size() < smallest.size())
+					smallest = shard;
+			}
+			smallest.addAll(component);
+		}
+		List<OWLOntology> result = new ArrayList<OWLOntology>(shardCount);
+		for (Set<OWLAxiom> shard : shards) {
+			LOGGER_.debug("Shard {}: {} assertions", result.size(),
+					shard.size());
+			OWLOntology ontology = manager.createOntology();
+			manager.addAxioms(ontology, residualAxioms_);
+			manager.addAxioms(ontology, shard);
+			result.add(ontology);
+		}
+		return result;
+	}
+
+	private int getId(OWLIndividual individual) {
+		Integer id = individualIds_.get(individual);
+		if (id != null)
+			return id;
+		// else
+		int newId = individualIds_.size();
+		if (newId == parents_.length) {
+			parents_ = Arrays.copyOf(parents_, newId * 2);
+			sizes_ = Arrays.copyOf(sizes_, newId * 2);
+		}
+		parents_[newId] = newId;
+		sizes_[newId] = 1;
+		individualIds_.put(individual, newId);
+		return newId;
+	}
+
+	private int find(int id) {
+		int root = id;
+		while (parents_[root] != root)
+			root = parents_[root];
+		// path compression
+		while (parents_[id] != root) {
+			int next = parents_[id];
+			parents_[id] = root;
+			id = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Merges the components of the given individual ids
+	 * 
+	 * @return the root of the merged component; if the first id is negative,
+	 *         the root of the second id
+	 */
+	private int union(int first, int second) {
+		int secondRoot = find(second);
+		if (first < 0)
+			return secondRoot;
+		// else
+		int firstRoot = find(first);
+		if (firstRoot == secondRoot)
+			return firstRoot;
+		// else
+		if (sizes_[firstRoot] < sizes_[secondRoot]) {
+			int tmp = firstRoot;
+			firstRoot = secondRoot;
+			secondRoot = tmp;
+		}
+		parents_[secondRoot] = firstRoot;
+		sizes_[firstRoot] += sizes_[secondRoot];
+		return firstRoot;
+	}
+
+}
@@ -0,0 +1,325 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link ProcessorStage} that collects statistics about the processed
+ * assertions before passing them to the next processor, using memory that
+ * does not grow with the number of individuals. The numbers of distinct
+ * individuals, asserted class expressions, object properties, and subjects
+ * and objects of every object property are estimated using
+ * {@link HyperLogLog} sketches; the individuals occurring in the most object
+ * property assertions (hubs) and the most frequently asserted class
+ * expressions are tracked using {@link HeavyHitters}. The statistics are
+ * reported to the log when the stage is closed.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class StatisticsProcessor extends ProcessorStage {
+
+	// logger for events
+	private static final Logger LOGGER_ = LoggerFactory
+			.getLogger(StatisticsProcessor.class);
+
+	/**
+	 * The precision of the sketches for all individuals and class expressions
+	 */
+	static final int PRECISION = 14;
+
+	/**
+	 * The precision of the sketches for individual object properties
+	 */
+	static final int PROPERTY_PRECISION = 10;
+
+	/**
+	 * The default number of tracked hubs and class expressions
+	 */
+	public static final int DEFAULT_CAPACITY = 100;
+
+	/**
+	 * The number of hubs and class expressions that are reported
+	 */
+	static final int REPORTED_COUNT = 10;
+
+	private final OWLAxiomProcessor next_;
+
+	private final HyperLogLog individuals_ = new HyperLogLog(PRECISION);
+
+	private final HyperLogLog classExpressions_ = new HyperLogLog(PRECISION);
+
+	private final Map<OWLObjectProperty, PropertyStatistics> properties_ = new HashMap<OWLObjectProperty, PropertyStatistics>();
+
+	private final HeavyHitters<OWLIndividual> hubs_;
+
+	private final HeavyHitters<OWLClassExpression> fillers_;
+
+	private long classAssertionCount_ = 0;
+
+	private long objectPropertyAssertionCount_ = 0;
+
+	/**
+	 * @param next
+	 *            the processor to which the axioms are passed
+	 * @param capacity
+	 *            the number of hubs and class expressions that are tracked;
+	 *            the more, the more accurate are the counts for them
+	 */
+	public StatisticsProcessor(OWLAxiomProcessor next, int capacity) {
+		this.next_ = next;
+		this.hubs_ = new HeavyHitters<OWLIndividual>(capacity);
+		this.fillers_ = new HeavyHitters<OWLClassExpression>(capacity);
+	}
+
+	/**
+	 * @param next
+	 *            the processor to which the axioms are passed
+	 */
+	public StatisticsProcessor(OWLAxiomProcessor next) {
+		this(next, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a stage that only collects statistics
+	 */
+	public StatisticsProcessor() {
+		this(DISCARD);
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		if (axiom instanceof OWLObjectPropertyAssertionAxiom)
+			processObjectPropertyAssertion((OWLObjectPropertyAssertionAxiom) axiom);
+		else if (axiom instanceof OWLClassAssertionAxiom)
+			processClassAssertion((OWLClassAssertionAxiom) axiom);
+		else if (axiom instanceof OWLDeclarationAxiom) {
+			OWLEntity entity = ((OWLDeclarationAxiom) axiom).getEntity();
+			if (entity.isOWLNamedIndividual())
+				addIndividual(entity.asOWLNamedIndividual());
+		}
+		next_.process(axiom);
+	}
+
+	private void processClassAssertion(OWLClassAssertionAxiom axiom) {
+		classAssertionCount_++;
+		OWLClassExpression filler = axiom.getClassExpression();
+		addIndividual(axiom.getIndividual());
+		classExpressions_.add(filler);
+		fillers_.add(filler);
+	}
+
+	private void processObjectPropertyAssertion(
+			OWLObjectPropertyAssertionAxiom axiom) {
+		objectPropertyAssertionCount_++;
+		OWLObjectPropertyExpression property = axiom.getProperty();
+		OWLIndividual subject = axiom.getSubject();
+		OWLIndividual object = axiom.getObject();
+		if (property.isAnonymous()) {
+			// an assertion for the inverse property
+			subject = axiom.getObject();
+			object = axiom.getSubject();
+		}
+		OWLObjectProperty namedProperty = property.getNamedProperty();
+		PropertyStatistics statistics = properties_.get(namedProperty);
+		if (statistics == null) {
+			statistics = new PropertyStatistics();
+			properties_.put(namedProperty, statistics);
+		}
+		long subjectFingerprint = getFingerprint(subject);
+		long objectFingerprint = getFingerprint(object);
+		statistics.assertionCount++;
+		statistics.subjects.addHash(subjectFingerprint);
+		statistics.objects.addHash(objectFingerprint);
+		individuals_.addHash(subjectFingerprint);
+		individuals_.addHash(objectFingerprint);
+		hubs_.add(subject);
+		hubs_.add(object);
+	}
+
+	private void addIndividual(OWLIndividual individual) {
+		individuals_.addHash(getFingerprint(individual));
+	}
+
+	/**
+	 * @return the fingerprint of the IRI or the node ID of the given
+	 *         individual
+	 */
+	static long getFingerprint(OWLIndividual individual) {
+		if (individual.isNamed())
+			return DeduplicatingProcessor.getFingerprint(individual
+					.asOWLNamedIndividual().getIRI().toString());
+		// else
+		return DeduplicatingProcessor.getFingerprint(individual
+				.asOWLAnonymousIndividual().getID().toString());
+	}
+
+	/**
+	 * @return the number of processed class assertions
+	 */
+	public long getClassAssertionCount() {
+		return classAssertionCount_;
+	}
+
+	/**
+	 * @return the number of processed object property assertions
+	 */
+	public long getObjectPropertyAssertionCount() {
+		return objectPropertyAssertionCount_;
+	}
+
+	/**
+	 * @return the estimated number of distinct individuals occurring in the
+	 *         processed assertions and declarations
+	 */
+	public long getIndividualCount() {
+		return individuals_.estimate();
+	}
+
+	/**
+	 * @return the estimated number of distinct class expressions occurring in
+	 *         the processed class assertions
+	 */
+	public long getClassExpressionCount() {
+		return classExpressions_.estimate();
+	}
+
+	/**
+	 * @return the object properties occurring in the processed object
+	 *         property assertions
+	 */
+	public Set<OWLObjectProperty> getObjectProperties() {
+		return properties_.keySet();
+	}
+
+	/**
+	 * @return the number of processed object property assertions for the
+	 *         given object property
+	 */
+	public long getAssertionCount(OWLObjectProperty property) {
+		PropertyStatistics statistics = properties_.get(property);
+		return statistics == null ? 0 : statistics.assertionCount;
+	}
+
+	/**
+	 * @return the estimated number of distinct subjects of the processed
+	 *         object property assertions for the given object property
+	 */
+	public long getSubjectCount(OWLObjectProperty property) {
+		PropertyStatistics statistics = properties_.get(property);
+		return statistics == null ? 0 : statistics.subjects.estimate();
+	}
+
+	/**
+	 * @return the estimated number of distinct objects of the processed
+	 *         object property assertions for the given object property
+	 */
+	public long getObjectCount(OWLObjectProperty property) {
+		PropertyStatistics statistics = properties_.get(property);
+		return statistics == null ? 0 : statistics.objects.estimate();
+	}
+
+	/**
+	 * @return the individuals occurring in the most object property
+	 *         assertions, with (over-)estimated numbers of such assertions
+	 */
+	public HeavyHitters<OWLIndividual> getHubs() {
+		return hubs_;
+	}
+
+	/**
+	 * @return the most frequently asserted class expressions, with
+	 *         (over-)estimated numbers of their class assertions
+	 */
+	public HeavyHitters<OWLClassExpression> getFrequentFillers() {
+		return fillers_;
+	}
+
+	void printStatistics() {
+		LOGGER_.info("class assertions: {}", classAssertionCount_);
+		LOGGER_.info("object property assertions: {}",
+				objectPropertyAssertionCount_);
+		LOGGER_.info("distinct individuals (estimated): {}",
+				getIndividualCount());
+		LOGGER_.info("distinct class expressions (estimated): {}",
+				getClassExpressionCount());
+		LOGGER_.info("object properties: {}", properties_.size());
+		if (!LOGGER_.isDebugEnabled())
+			return;
+		// else
+		for (Map.Entry<OWLObjectProperty, PropertyStatistics> entry : properties_
+				.entrySet()) {
+			PropertyStatistics statistics = entry.getValue();
+			LOGGER_.debug("{}: {} assertions, {} subjects, {} objects",
+					new Object[] { entry.getKey(), statistics.assertionCount,
+							statistics.subjects.estimate(),
+							statistics.objects.estimate() });
+		}
+		for (OWLIndividual hub : hubs_.getTop(REPORTED_COUNT)) {
+			LOGGER_.debug("hub {}: {} assertions", hub, hubs_.getCount(hub));
+		}
+		for (OWLClassExpression filler : fillers_.getTop(REPORTED_COUNT)) {
+			LOGGER_.debug("filler {}: {} assertions", filler,
+					fillers_.getCount(filler));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		printStatistics();
+		close(next_);
+	}
+
+	/**
+	 * The statistics for one object property
+	 * 
+	 * @author "Yevgeny Kazakov"
+	 * 
+	 */
+	static class PropertyStatistics {
+
+		long assertionCount = 0;
+
+		final HyperLogLog subjects = new HyperLogLog(PROPERTY_PRECISION);
+
+		final HyperLogLog objects = new HyperLogLog(PROPERTY_PRECISION);
+
+	}
+
+}
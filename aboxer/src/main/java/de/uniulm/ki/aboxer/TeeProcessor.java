@@ -0,0 +1,60 @@
+package de.uniulm.ki.aboxer;
+
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * A {@link ProcessorStage} that passes every axiom to several processors in
+ * the given order.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class TeeProcessor extends ProcessorStage {
+
+	private final OWLAxiomProcessor[] processors_;
+
+	/**
+	 * @param processors
+	 *            the processors that receive every axiom
+	 */
+	public TeeProcessor(OWLAxiomProcessor... processors) {
+		this.processors_ = processors.clone();
+	}
+
+	@Override
+	public void process(OWLAxiom axiom) {
+		for (OWLAxiomProcessor processor : processors_) {
+			processor.process(axiom);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		close((Object[]) processors_);
+	}
+
+}
@@ -23,6 +23,11 @@ package de.uniulm.ki.aboxer;
  */
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.IRI;
@@ -47,28 +52,54 @@ public class UsageExample {
 			.getLogger(UsageExample.class);
 
 	public static void main(String[] args) throws OWLOntologyCreationException,
-			OWLOntologyStorageException {
+			OWLOntologyStorageException, IOException {
 		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
 
-		// loading axioms from a file
+		// loading axioms from a file; files ending with .gz are decompressed
+		// using several threads
 		File inputOntologyFile = new File(
 				"src/main/resources/full-galen.fss.owl");
 		LOGGER_.info("Loading axioms from {} ...", inputOntologyFile);
-		OWLOntology ontology = manager
-				.loadOntologyFromOntologyDocument(inputOntologyFile);
+		OWLOntology ontology;
+		if (isCompressed(inputOntologyFile)) {
+			InputStream input = new ParallelGzipInputStream(
+					new FileInputStream(inputOntologyFile));
+			try {
+				ontology = manager.loadOntologyFromOntologyDocument(input);
+			} finally {
+				input.close();
+			}
+		} else
+			ontology = manager
+					.loadOntologyFromOntologyDocument(inputOntologyFile);
 
 		// converting axioms to assertions
 		OWLOntology outputOntology = Aboxer.aboxify(ontology);
 
-		// saving the output ontology to a file
-		File outputOntologyFile = new File(inputOntologyFile.toString()
+		// saving the output ontology to a file, compressed if the input was
+		File outputOntologyFile = isCompressed(inputOntologyFile) ? new File(
+				inputOntologyFile.toString().replaceFirst("\\.gz$",
+						".aboxed.gz")) : new File(inputOntologyFile.toString()
 				+ ".aboxed");
 		LOGGER_.info("Saving the output ontology to {} ...", outputOntologyFile);
 		OWLOntologyFormat format = manager.getOntologyFormat(ontology);
-		manager.saveOntology(outputOntology, format,
-				IRI.create(outputOntologyFile.toURI()));
+		if (isCompressed(outputOntologyFile)) {
+			OutputStream output = new ParallelGzipOutputStream(
+					new FileOutputStream(outputOntologyFile));
+			try {
+				manager.saveOntology(outputOntology, format, output);
+			} finally {
+				output.close();
+			}
+		} else
+			manager.saveOntology(outputOntology, format,
+					IRI.create(outputOntologyFile.toURI()));
 
 		LOGGER_.info("Done.");
 	}
 
+	private static boolean isCompressed(File file) {
+		return file.getName().endsWith(".gz");
+	}
+
 }
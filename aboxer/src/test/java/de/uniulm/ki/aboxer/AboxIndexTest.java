@@ -0,0 +1,102 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+
+public class AboxIndexTest extends TestUtils {
+
+	@Test
+	public void testLookups() {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLClass C = getClass("C");
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLObjectProperty s = getObjectProperty("s");
+		OWLObjectPropertyExpression rInverse = factory.getOWLObjectInverseOf(r);
+		OWLNamedIndividual a = getIndividual("A");
+		OWLNamedIndividual b = getIndividual("B");
+		OWLNamedIndividual c = getIndividual("C");
+		OWLAxiom tbox = factory.getOWLSubClassOfAxiom(A, B);
+		OWLAxiom complex = factory.getOWLClassAssertionAxiom(
+				factory.getOWLObjectAllValuesFrom(r, C), b);
+
+		List<OWLAxiom> others = new ArrayList<OWLAxiom>();
+		AboxIndex index = new AboxIndex(factory, new Collector(others));
+		index.process(tbox);
+		index.process(factory.getOWLDeclarationAxiom(a));
+		index.process(factory.getOWLClassAssertionAxiom(B, a));
+		index.process(factory.getOWLObjectPropertyAssertionAxiom(r, a, b));
+		index.process(factory.getOWLObjectPropertyAssertionAxiom(s, a, c));
+		index.process(factory.getOWLObjectPropertyAssertionAxiom(rInverse, c,
+				b));
+		index.process(factory.getOWLClassAssertionAxiom(A, c));
+		index.process(complex);
+		// duplicates are removed
+		index.process(factory.getOWLObjectPropertyAssertionAxiom(r, a, b));
+
+		assertEquals(3, index.getIndividualCount());
+		assertEquals(5, index.getAssertionCount());
+		assertEquals(Arrays.asList(B), index.getTypes(a));
+		assertEquals(Arrays.asList(a), index.getInstances(B));
+		assertEquals(Arrays.asList(b), index.getObjects(a, r));
+		assertEquals(Arrays.asList(c), index.getObjects(a, s));
+		// the inverse assertion is indexed for the named property
+		assertEquals(Arrays.asList(c), index.getObjects(b, r));
+		assertEquals(Arrays.asList(a), index.getObjects(b, rInverse));
+		assertEquals(asSet(a, b),
+				new HashSet<OWLIndividual>(index.getSubjects(r)));
+		assertEquals(Arrays.asList(a), index.getSubjects(s));
+		assertEquals(TestUtils.<OWLAxiom> asSet(
+				factory.getOWLClassAssertionAxiom(B, a),
+				factory.getOWLObjectPropertyAssertionAxiom(r, a, b),
+				factory.getOWLObjectPropertyAssertionAxiom(s, a, c)),
+				new HashSet<OWLAxiom>(index.getAssertions(a)));
+		assertTrue(index.getTypes(getIndividual("D")).isEmpty());
+		assertTrue(index.getObjects(c, s).isEmpty());
+		assertEquals(asSet(tbox, complex), asSet(others.toArray()));
+
+		// the lookups reflect assertions processed later
+		OWLNamedIndividual d = getIndividual("D");
+		index.process(factory.getOWLObjectPropertyAssertionAxiom(s, d, a));
+		index.process(factory.getOWLClassAssertionAxiom(C, d));
+		assertEquals(Arrays.asList(C), index.getTypes(d));
+		assertEquals(Arrays.asList(a), index.getObjects(d, s));
+		assertEquals(asSet(a, d),
+				new HashSet<OWLIndividual>(index.getSubjects(s)));
+	}
+
+}
@@ -0,0 +1,157 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class AboxerDaemonTest extends TestUtils {
+
+	@Test
+	public void testConversions() throws Exception {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLClass C = getClass("C");
+		OWLObjectProperty r = getObjectProperty("r");
+
+		OWLOntology ontology = manager.createOntology();
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(A, B));
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(C,
+				factory.getOWLObjectSomeValuesFrom(r, A)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		manager.saveOntology(ontology, new OWLFunctionalSyntaxOntologyFormat(),
+				out);
+		byte[] document = out.toByteArray();
+
+		AboxerDaemon daemon = new AboxerDaemon(0, 2, 10);
+		daemon.start();
+		try {
+			for (int i = 0; i < 3; i++) {
+				byte[] result = AboxerDaemon.convert(daemon.getPort(),
+						document, false);
+				OWLOntology loaded = OWLManager.createOWLOntologyManager()
+						.loadOntologyFromOntologyDocument(
+								new ByteArrayInputStream(result));
+				assertEquals(Aboxer.aboxify(ontology).getAxioms(),
+						loaded.getAxioms());
+			}
+			assertEquals(1, daemon.getConversionCount());
+			assertEquals(2, daemon.getCacheHitCount());
+			try {
+				AboxerDaemon.convert(daemon.getPort(),
+						"Ontology(".getBytes("UTF-8"), false);
+				fail();
+			} catch (IOException e) {
+				// expected
+			}
+		} finally {
+			daemon.close();
+		}
+	}
+
+	@Test
+	public void testInvalidRequests() throws Exception {
+		AboxerDaemon daemon = new AboxerDaemon(0, 2, 10);
+		daemon.setMaxDocumentLength(10);
+		daemon.start();
+		try {
+			Socket socket = new Socket(InetAddress.getByName(null),
+					daemon.getPort());
+			try {
+				DataInputStream input = new DataInputStream(
+						socket.getInputStream());
+				DataOutputStream output = new DataOutputStream(
+						socket.getOutputStream());
+				// too long documents are skipped
+				for (int i = 0; i < 2; i++) {
+					output.writeBoolean(false);
+					output.writeInt(100);
+					output.write(new byte[100]);
+					output.flush();
+					assertEquals(AboxerDaemon.STATUS_ERROR, input.readInt());
+					assertTrue(input.readUTF().contains("longer than 10"));
+				}
+				// after a negative length the connection is closed
+				output.writeBoolean(false);
+				output.writeInt(-1);
+				output.flush();
+				assertEquals(AboxerDaemon.STATUS_ERROR, input.readInt());
+				input.readUTF();
+				assertEquals(-1, input.read());
+			} finally {
+				socket.close();
+			}
+		} finally {
+			daemon.close();
+		}
+	}
+
+	@Test
+	public void testLongErrorMessage() throws Exception {
+		StringBuilder message = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			message.append('\u00e4');
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AboxerDaemon.writeError(new DataOutputStream(out), message.toString());
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(
+				out.toByteArray()));
+		assertEquals(AboxerDaemon.STATUS_ERROR, input.readInt());
+		assertTrue(message.toString().startsWith(
+				input.readUTF().replace("...", "")));
+	}
+
+	@Test
+	public void testCloseIdleConnections() throws Exception {
+		AboxerDaemon daemon = new AboxerDaemon(0, 2, 10);
+		daemon.start();
+		Socket socket = new Socket(InetAddress.getByName(null),
+				daemon.getPort());
+		try {
+			socket.setSoTimeout(10000);
+			// the connection is handled
+			AboxerDaemon.convert(daemon.getPort(), "Ontology()"
+					.getBytes("UTF-8"), false);
+			daemon.close();
+			assertEquals(-1, socket.getInputStream().read());
+		} finally {
+			socket.close();
+		}
+	}
+
+}
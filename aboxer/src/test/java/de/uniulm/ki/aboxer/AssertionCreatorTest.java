@@ -290,6 +290,78 @@ public class AssertionCreatorTest extends TestUtils {
 		assertEquals(1, processor.getObjectPropertyAssertionAxioms().size());
 	}
 
+	@Test
+	public void testIndividualExistentials() {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLNamedIndividual b = getIndividual("b");
+		OWLNamedIndividual c = getIndividual("c");
+		OWLObjectProperty r = getObjectProperty("r");
+
+		Processor processor = new Processor();
+		AssertionCreator creator = getAssertionCreator(processor, B);
+
+		factory.getOWLSubClassOfAxiom(A, factory.getOWLObjectHasValue(r, b))
+				.accept(creator);
+		factory.getOWLSubClassOfAxiom(
+				A,
+				factory.getOWLObjectSomeValuesFrom(r,
+						factory.getOWLObjectIntersectionOf(B, factory
+								.getOWLObjectSomeValuesFrom(r,
+										factory.getOWLObjectOneOf(c)))))
+				.accept(creator);
+
+		// assertions r(a, b), r(a, _i), B(_i), r(_i, c), where _i is an
+		// anonymous individual
+		assertEquals(processor.getClassesInSignature(), asSet(B));
+		assertEquals(getIRIs(processor.getIndividualsInSignature()),
+				getIRIs(A, b, c));
+		assertEquals(1, processor.getClassAssertionAxioms().size());
+		assertEquals(3, processor.getObjectPropertyAssertionAxioms().size());
+	}
+
+	@Test
+	public void testSharedWitnesses() {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLClass C = getClass("C");
+		OWLClass D = getClass("D");
+		OWLObjectProperty r = getObjectProperty("r");
+
+		Processor processor = new Processor();
+		AssertionCreator creator = new AssertionCreator(asSet(B, C, D),
+				factory, processor, true);
+
+		factory.getOWLSubClassOfAxiom(
+				A,
+				factory.getOWLObjectSomeValuesFrom(r,
+						factory.getOWLObjectIntersectionOf(B, C))).accept(
+				creator);
+		factory.getOWLSubClassOfAxiom(
+				A,
+				factory.getOWLObjectIntersectionOf(D, factory
+						.getOWLObjectSomeValuesFrom(r,
+								factory.getOWLObjectIntersectionOf(C, B))))
+				.accept(creator);
+
+		// assertions r(a,_i), B(_i), C(_i), D(a), where _i is an anonymous
+		// individual, are created only once
+		assertEquals(4, processor.getAxioms().size());
+		assertEquals(3, processor.getClassAssertionAxioms().size());
+		assertEquals(1, processor.getObjectPropertyAssertionAxioms().size());
+
+		factory.getOWLSubClassOfAxiom(
+				A,
+				factory.getOWLObjectSomeValuesFrom(r,
+						factory.getOWLObjectIntersectionOf(B, D))).accept(
+				creator);
+
+		// a different filler requires a new anonymous individual
+		assertEquals(7, processor.getAxioms().size());
+		assertEquals(5, processor.getClassAssertionAxioms().size());
+		assertEquals(2, processor.getObjectPropertyAssertionAxioms().size());
+	}
+
 	AssertionCreator getAssertionCreator(OWLAxiomProcessor processor,
 			OWLClass... blacklisted) {
 		return new AssertionCreator(asSet(blacklisted), factory, processor);
@@ -0,0 +1,101 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+
+public class BinaryAboxTest extends TestUtils {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLNamedIndividual a = getIndividual("a");
+		OWLNamedIndividual b = getIndividual("b");
+		OWLAnonymousIndividual i = factory.getOWLAnonymousIndividual();
+		OWLObjectProperty r = getObjectProperty("r");
+
+		List<OWLAxiom> assertions = new ArrayList<OWLAxiom>();
+		assertions.add(factory.getOWLDeclarationAxiom(a));
+		assertions.add(factory.getOWLClassAssertionAxiom(A, a));
+		assertions.add(factory.getOWLObjectPropertyAssertionAxiom(r, a, b));
+		assertions.add(factory.getOWLObjectPropertyAssertionAxiom(
+				factory.getOWLObjectInverseOf(r), b, a));
+		assertions.add(factory.getOWLObjectPropertyAssertionAxiom(r, a, i));
+		assertions.add(factory.getOWLClassAssertionAxiom(B, i));
+		OWLAxiom tbox = factory.getOWLSubClassOfAxiom(A, B);
+		OWLAxiom complex = factory.getOWLClassAssertionAxiom(
+				factory.getOWLObjectSomeValuesFrom(r, B), b);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<OWLAxiom> others = new ArrayList<OWLAxiom>();
+		// small blocks so that every assertion is in a separate block
+		BinaryAboxWriter writer = new BinaryAboxWriter(out, new Collector(
+				others), 1);
+		writer.process(tbox);
+		for (OWLAxiom assertion : assertions) {
+			writer.process(assertion);
+		}
+		writer.process(complex);
+		writer.close();
+
+		assertEquals(assertions.size(), writer.getWrittenAxiomCount());
+		assertEquals(asSet(tbox, complex), asSet(others.toArray()));
+
+		List<OWLAxiom> read = new ArrayList<OWLAxiom>();
+		BinaryAboxReader.read(new ByteArrayInputStream(out.toByteArray()),
+				factory, new Collector(read));
+		assertEquals(assertions.size(), read.size());
+		// the anonymous individual is replaced with a new one
+		for (int pos = 0; pos < 4; pos++) {
+			assertEquals(assertions.get(pos), read.get(pos));
+		}
+		OWLObjectPropertyAssertionAxiom edge = (OWLObjectPropertyAssertionAxiom) read
+				.get(4);
+		assertTrue(edge.getObject().isAnonymous());
+		assertEquals(factory.getOWLClassAssertionAxiom(B, edge.getObject()),
+				read.get(5));
+	}
+
+	@Test(expected = IOException.class)
+	public void testWrongFormat() throws IOException {
+		BinaryAboxReader.read(new ByteArrayInputStream(new byte[] { 1, 2, 3,
+				4, 5, 6, 7, 8 }), factory, new Collector(
+				new ArrayList<OWLAxiom>()));
+	}
+
+}
@@ -21,15 +21,28 @@ package de.uniulm.ki.aboxer;
  * #L%
  */
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
 
 public class BlacklisterTest extends TestUtils {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void testSubsumption() {
 		OWLClass A = getClass("A");
@@ -131,6 +144,29 @@ public class BlacklisterTest extends TestUtils {
 
 	}
 
+	@Test
+	public void testSplitEquivalence() {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLClass C = getClass("C");
+
+		OWLObjectProperty r = getObjectProperty("r");
+
+		Blacklister blacklister = new Blacklister();
+
+		OWLEquivalentClassesAxiom axiom = factory.getOWLEquivalentClassesAxiom(
+				A, factory.getOWLObjectIntersectionOf(B,
+						factory.getOWLObjectSomeValuesFrom(r, C)));
+		for (OWLSubClassOfAxiom inclusion : axiom.asOWLSubClassOfAxioms())
+			inclusion.accept(blacklister);
+		// the inclusion from the right-hand side to :A cannot be converted to
+		// assertions, so the result is the same as for the equivalence
+		assertTrue(blacklister.blacklisted(A));
+		assertTrue(blacklister.blacklisted(B));
+		assertTrue(blacklister.blacklisted(C));
+
+	}
+
 	@Test
 	public void testUniversalDependencies() {
 		OWLClass A = getClass("A");
@@ -262,4 +298,34 @@ public class BlacklisterTest extends TestUtils {
 
 	}
 
+	@Test
+	public void testExternalDependencies() throws Exception {
+		OWLObjectProperty r = getObjectProperty("r");
+		Random random = new Random(42);
+		List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+		for (int i = 0; i < 200; i++) {
+			OWLClass A = getClass("A" + random.nextInt(100));
+			OWLClass B = getClass("A" + random.nextInt(100));
+			if (random.nextInt(20) == 0)
+				axioms.add(factory.getOWLSubClassOfAxiom(A, B));
+			else
+				axioms.add(factory.getOWLSubClassOfAxiom(A,
+						factory.getOWLObjectSomeValuesFrom(r, B)));
+		}
+		Blacklister expected = new Blacklister();
+		// a small buffer to create several run files
+		ExternalDependencyStore dependencies = new ExternalDependencyStore(
+				folder.getRoot(), 7);
+		Blacklister blacklister = new Blacklister(dependencies);
+		for (OWLAxiom axiom : axioms) {
+			axiom.accept(expected);
+			axiom.accept(blacklister);
+		}
+		blacklister.propagateDependencies();
+		dependencies.close();
+		assertEquals(expected.getBlacklistedClasses(),
+				blacklister.getBlacklistedClasses());
+		assertEquals(0, folder.getRoot().list().length);
+	}
+
 }
@@ -0,0 +1,108 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class CheckpointingAboxerTest extends TestUtils {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testResume() throws Exception {
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLOntology ontology = manager.createOntology();
+		for (int i = 0; i < 100; i++) {
+			manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(
+					getClass("A" + i), factory.getOWLObjectSomeValuesFrom(r,
+							getClass("A" + (i + 1) % 100))));
+			manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(
+					getClass("A" + i), getClass("B" + i % 10)));
+		}
+		File snapshot = folder.newFile("snapshot");
+		InputSnapshot.create(ontology, snapshot);
+		Set<OWLAxiom> expected = Aboxer.aboxify(ontology).getAxioms();
+
+		File directory = folder.newFolder("checkpoints");
+		// a checkpoint after every axiom
+		CheckpointingAboxer aboxer = new CheckpointingAboxer(directory, 0);
+		// the first run fails in the second pass
+		try {
+			aboxer.aboxify(new FailingSource(new InputSnapshot(snapshot,
+					factory), ontology.getAxiomCount() + 150), factory, false);
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		// the second run fails again a bit later
+		try {
+			aboxer.aboxify(new FailingSource(new InputSnapshot(snapshot,
+					factory), 170), factory, false);
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		aboxer.aboxify(new InputSnapshot(snapshot, factory), factory, false);
+		assertEquals(expected, aboxer.loadResult(manager).getAxioms());
+	}
+
+	/**
+	 * An {@link OWLAxiomSource} that fails after a given number of axioms
+	 */
+	static class FailingSource implements OWLAxiomSource {
+
+		private final OWLAxiomSource source_;
+
+		private int remaining_;
+
+		FailingSource(OWLAxiomSource source, int failAfter) {
+			this.source_ = source;
+			this.remaining_ = failAfter;
+		}
+
+		@Override
+		public void processAxioms(final OWLAxiomProcessor processor) {
+			source_.processAxioms(new OWLAxiomProcessor() {
+				@Override
+				public void process(OWLAxiom axiom) {
+					if (remaining_-- == 0)
+						throw new IllegalStateException("interrupted");
+					processor.process(axiom);
+				}
+			});
+		}
+
+	}
+
+}
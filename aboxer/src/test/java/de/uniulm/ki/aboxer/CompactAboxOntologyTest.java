@@ -0,0 +1,129 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+public class CompactAboxOntologyTest extends TestUtils {
+
+	@Test
+	public void testSameAxioms() throws Exception {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLClass C = getClass("C");
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLOntology ontology = manager.createOntology();
+		manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(A));
+		manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(B));
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(A, B));
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(A,
+				factory.getOWLObjectSomeValuesFrom(r, B)));
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(B,
+				factory.getOWLObjectSomeValuesFrom(r, C)));
+		// blacklists C
+		OWLAxiom tbox = factory.getOWLSubClassOfAxiom(C,
+				factory.getOWLObjectAllValuesFrom(r, B));
+		manager.addAxiom(ontology, tbox);
+		// annotated assertion
+		OWLAxiom annotated = factory.getOWLClassAssertionAxiom(getClass("D"),
+				getIndividual("x"), Collections.singleton(factory
+						.getOWLAnnotation(factory.getRDFSComment(),
+								factory.getOWLLiteral("source"))));
+		manager.addAxiom(ontology, annotated);
+
+		OWLOntology expected = Aboxer.aboxify(ontology);
+		CompactAboxOntology actual = Aboxer.aboxifyCompact(ontology, false);
+
+		assertEquals(expected.getAxioms(), new HashSet<OWLAxiom>(actual
+				.getAxioms()));
+		assertEquals(expected.getAxiomCount(), actual.getAxiomCount());
+		assertTrue(actual.containsAxiom(annotated));
+		assertEquals(expected.getLogicalAxioms(), actual.getLogicalAxioms());
+		assertEquals(expected.getSignature(), actual.getSignature());
+		for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+			assertEquals(expected.getAxioms(type), actual.getAxioms(type));
+			assertEquals(expected.getAxiomCount(type),
+					actual.getAxiomCount(type));
+		}
+		for (OWLNamedIndividual individual : expected
+				.getIndividualsInSignature()) {
+			assertEquals(expected.getReferencingAxioms(individual),
+					actual.getReferencingAxioms(individual));
+			assertEquals(expected.getClassAssertionAxioms(individual),
+					actual.getClassAssertionAxioms(individual));
+			assertEquals(expected.getObjectPropertyAssertionAxioms(individual),
+					actual.getObjectPropertyAssertionAxioms(individual));
+			assertEquals(expected.isDeclared(individual),
+					actual.isDeclared(individual));
+		}
+		for (OWLClass owlClass : expected.getClassesInSignature()) {
+			assertEquals(expected.getClassAssertionAxioms(owlClass),
+					actual.getClassAssertionAxioms(owlClass));
+		}
+		assertEquals(expected.getReferencingAxioms(r),
+				actual.getReferencingAxioms(r));
+		for (OWLAxiom axiom : expected.getAxioms()) {
+			assertTrue(actual.containsAxiom(axiom));
+		}
+		assertTrue(actual.containsAxiom(tbox));
+		assertFalse(actual.containsAxiom(factory.getOWLClassAssertionAxiom(
+				C, getIndividual("A"))));
+		assertTrue(actual.containsIndividualInSignature(A.getIRI()));
+
+		// the result can be saved as usual
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		manager.saveOntology(actual, new OWLFunctionalSyntaxOntologyFormat(),
+				out);
+		OWLOntologyManager otherManager = OWLManager
+				.createOWLOntologyManager();
+		OWLOntology loaded = otherManager
+				.loadOntologyFromOntologyDocument(new ByteArrayInputStream(out
+						.toByteArray()));
+		assertEquals(expected.getAxioms(), loaded.getAxioms());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReadOnly() {
+		CompactAboxOntology ontology = new CompactAboxOntology(manager);
+		manager.addAxiom(ontology,
+				factory.getOWLDeclarationAxiom(getIndividual("a")));
+	}
+
+}
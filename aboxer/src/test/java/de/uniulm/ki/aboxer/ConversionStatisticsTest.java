@@ -0,0 +1,82 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class ConversionStatisticsTest extends TestUtils {
+
+	@After
+	public void removeListener() {
+		ConversionEvents.setListener(null);
+		ConversionEvents.setExpensiveAxiomThreshold(1000000);
+	}
+
+	@Test
+	public void testEvents() throws Exception {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLClass C = getClass("C");
+		OWLObjectProperty r = getObjectProperty("r");
+
+		OWLOntology ontology = manager.createOntology();
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(A,
+				factory.getOWLObjectSomeValuesFrom(r, B)));
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(C, A));
+
+		ConversionStatistics statistics = new ConversionStatistics();
+		statistics.register();
+		ConversionEvents.setListener(statistics);
+		// report every axiom
+		ConversionEvents.setExpensiveAxiomThreshold(0);
+		Aboxer.aboxify(ontology);
+
+		// every axiom is processed in two phases
+		assertEquals(4, statistics.getProcessedAxiomCount());
+		assertEquals(4, statistics.getExpensiveAxiomCount());
+		assertNotNull(statistics.getLastExpensiveAxiom());
+		// either A is blacklisted after the dependency to B is created, or
+		// the dependency is not created since A is already blacklisted
+		assertEquals(statistics.getPropagationBatchCount(),
+				statistics.getPropagatedClassCount());
+		assertEquals(4L, ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName(ConversionStatistics.OBJECT_NAME),
+						"ProcessedAxiomCount"));
+
+		statistics.reset();
+		ConversionEvents.setListener(null);
+		Aboxer.aboxify(ontology);
+		assertEquals(0, statistics.getProcessedAxiomCount());
+	}
+
+}
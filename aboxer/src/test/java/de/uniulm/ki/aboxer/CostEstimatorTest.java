@@ -0,0 +1,102 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class CostEstimatorTest extends TestUtils {
+
+	@Test
+	public void testFullSample() throws Exception {
+		OWLOntology ontology = generate(100, 10, true);
+		CostEstimate estimate = CostEstimator.estimate(ontology, 1);
+		assertEquals(400, estimate.getInputAxiomCount());
+		assertEquals(400, estimate.getSampledAxiomCount());
+		assertEquals(100, estimate.getNewIndividualCount());
+		assertEquals(100, estimate.getAnonymousIndividualCount());
+		assertEquals(300, estimate.getClassAssertionCount());
+		assertEquals(200, estimate.getObjectPropertyAssertionCount());
+		assertEquals(600, estimate.getOutputAxiomCount());
+		long bytes = 0;
+		for (OWLAxiom axiom : Aboxer.aboxify(ontology).getAxioms()) {
+			bytes += axiom.toString().length() + 1;
+		}
+		// anonymous individuals have different names
+		assertEquals(bytes, estimate.getOutputBytes(), bytes / 10);
+	}
+
+	@Test
+	public void testSample() throws Exception {
+		CostEstimate estimate = CostEstimator.estimate(new OntologyAxiomSource(
+				generate(5000, 10, true)), factory, 0.1, new Random(42));
+		assertEquals(20000, estimate.getInputAxiomCount());
+		assertTrue(estimate.getSampledAxiomCount() < 4000);
+		assertEquals(5000, estimate.getNewIndividualCount(), 500);
+		assertEquals(10000, estimate.getObjectPropertyAssertionCount(), 1000);
+		assertTrue(estimate.getPeakHeapBytes() > 0);
+	}
+
+	@Test
+	public void testPreview() throws Exception {
+		OWLOntology ontology = generate(2000, 10, true);
+		List<OWLAxiom> sample = new ArrayList<OWLAxiom>();
+		CostEstimate estimate = CostEstimator.preview(ontology, new Collector(
+				sample), false, 0.1, 7);
+		assertEquals(8000, estimate.getInputAxiomCount());
+		assertTrue(estimate.getSampledAxiomCount() < 1600);
+		assertEquals(2000, estimate.getNewIndividualCount(), 300);
+		assertEquals(4000, estimate.getObjectPropertyAssertionCount(), 600);
+		assertEquals(estimate.getSampledAxiomCount() * 3 / 2, sample.size());
+		// the sample is converted as in the full conversion
+		Set<OWLAxiom> full = Aboxer.aboxify(ontology).getAxioms();
+		for (OWLAxiom axiom : sample) {
+			if (axiom.getAnonymousIndividuals().isEmpty())
+				assertTrue(full.contains(axiom));
+		}
+		// the same seed gives the same sample
+		List<OWLAxiom> other = new ArrayList<OWLAxiom>();
+		CostEstimator.preview(ontology, new Collector(other), false, 0.1, 7);
+		assertEquals(sample.size(), other.size());
+		for (int i = 0; i < sample.size(); i++) {
+			if (sample.get(i).getAnonymousIndividuals().isEmpty())
+				assertEquals(sample.get(i), other.get(i));
+		}
+		// the full sample gives the exact counts
+		estimate = CostEstimator.preview(ontology, new Collector(
+				new ArrayList<OWLAxiom>()), false, 1, 7);
+		assertEquals(8000, estimate.getSampledAxiomCount());
+		assertEquals(2000, estimate.getNewIndividualCount());
+		assertEquals(6000, estimate.getClassAssertionCount());
+		assertEquals(12000, estimate.getOutputAxiomCount());
+	}
+
+}
@@ -0,0 +1,119 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+public class CsvAboxWriterTest extends TestUtils {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testExport() throws IOException {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLNamedIndividual a = getIndividual("A");
+		OWLNamedIndividual b = getIndividual("b");
+		OWLAnonymousIndividual i = factory.getOWLAnonymousIndividual();
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLAxiom tbox = factory.getOWLSubClassOfAxiom(A, B);
+		OWLAxiom complex = factory.getOWLClassAssertionAxiom(
+				factory.getOWLObjectSomeValuesFrom(r, B), b);
+
+		List<OWLAxiom> others = new ArrayList<OWLAxiom>();
+		File directory = folder.newFolder();
+		CsvAboxWriter writer = new CsvAboxWriter(directory,
+				new Collector(others));
+		writer.process(tbox);
+		writer.process(factory.getOWLDeclarationAxiom(a));
+		writer.process(factory.getOWLClassAssertionAxiom(A, a));
+		writer.process(factory.getOWLObjectPropertyAssertionAxiom(r, a, b));
+		writer.process(factory.getOWLObjectPropertyAssertionAxiom(
+				factory.getOWLObjectInverseOf(r), b, i));
+		writer.process(factory.getOWLClassAssertionAxiom(B, i));
+		writer.process(complex);
+		writer.close();
+
+		assertEquals(5, writer.getWrittenAxiomCount());
+		assertEquals(asSet(tbox, complex), asSet(others.toArray()));
+		// the individual and the class with the same IRI are different nodes
+		assertEquals(Arrays.asList("id:ID,iri,:LABEL", "0,A,Individual",
+				"1,A,Class", "3,b,Individual", "4," + i.getID()
+						+ ",AnonymousIndividual", "5,B,Class"), read(
+				directory, CsvAboxWriter.NODES_FILE));
+		assertEquals(Arrays.asList("id,iri", "2,r"), read(directory,
+				CsvAboxWriter.PROPERTIES_FILE));
+		assertEquals(Arrays.asList("individual,class", "0,1", "4,5"), read(
+				directory, CsvAboxWriter.CLASS_ASSERTIONS_FILE));
+		// the inverse assertion is written with swapped individuals
+		assertEquals(Arrays.asList("subject,property,object", "0,2,3", "4,2,3"),
+				read(directory, CsvAboxWriter.PROPERTY_ASSERTIONS_FILE));
+		assertEquals(Arrays.asList(":START_ID,:END_ID,:TYPE", "0,1,rdf:type",
+				"0,3,r", "4,3,r", "4,5,rdf:type"), read(directory,
+				CsvAboxWriter.EDGES_FILE));
+	}
+
+	@Test
+	public void testQuoting() throws IOException {
+		StringWriter out = new StringWriter();
+		CsvAboxWriter.writeRecord(out, 1, "a,b", "say \"x\"", "plain");
+		assertEquals("1,\"a,b\",\"say \"\"x\"\"\",plain\n", out.toString());
+	}
+
+	static List<String> read(File directory, String name) throws IOException {
+		List<String> result = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(new File(directory, name)), "UTF-8"));
+		try {
+			for (;;) {
+				String line = reader.readLine();
+				if (line == null)
+					return result;
+				// else
+				result.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+}
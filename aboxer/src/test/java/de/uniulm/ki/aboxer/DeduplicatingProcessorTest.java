@@ -0,0 +1,125 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+public class DeduplicatingProcessorTest extends TestUtils {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	List<OWLAxiom> generate(int count) {
+		Random random = new Random(count);
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLAnonymousIndividual x = factory.getOWLAnonymousIndividual();
+		List<OWLAxiom> result = new ArrayList<OWLAxiom>();
+		for (int i = 0; i < count; i++) {
+			int n = random.nextInt(count / 3);
+			if (n % 5 == 0)
+				result.add(factory.getOWLObjectPropertyAssertionAxiom(r,
+						getIndividual("a" + n), x));
+			else
+				result.add(factory.getOWLClassAssertionAxiom(getClass("A" + n),
+						getIndividual("a" + n % 7)));
+		}
+		return result;
+	}
+
+	void check(List<OWLAxiom> input, DeduplicatingProcessor processor,
+			List<OWLAxiom> output) throws Exception {
+		for (OWLAxiom axiom : input) {
+			processor.process(axiom);
+		}
+		processor.close();
+		HashSet<OWLAxiom> expected = new HashSet<OWLAxiom>(input);
+		assertEquals(expected.size(), output.size());
+		assertEquals(expected, new HashSet<OWLAxiom>(output));
+		assertEquals(input.size() - output.size(),
+				processor.getDuplicateCount());
+	}
+
+	@Test
+	public void testExact() throws Exception {
+		List<OWLAxiom> output = new ArrayList<OWLAxiom>();
+		check(generate(10000), new DeduplicatingProcessor(new Collector(
+				output)), output);
+	}
+
+	@Test
+	public void testBounded() throws Exception {
+		List<OWLAxiom> output = new ArrayList<OWLAxiom>();
+		// a small filter and buffer to produce many candidates and runs
+		check(generate(10000), new DeduplicatingProcessor(
+				new Collector(output), folder.getRoot(), 4096, 500), output);
+		assertEquals(0, folder.getRoot().list().length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBloomFilterTooLarge() {
+		new DeduplicatingProcessor(new Collector(new ArrayList<OWLAxiom>()),
+				folder.getRoot(),
+				DeduplicatingProcessor.MAX_BLOOM_FILTER_BITS + 1, 500);
+	}
+
+	@Test
+	public void testLargeCandidateIndexes() {
+		DeduplicatingProcessor.CandidateSet candidates = new DeduplicatingProcessor.CandidateSet();
+		long large = 3L << 31;
+		candidates.set(5);
+		candidates.set(large);
+		assertTrue(candidates.get(5));
+		assertTrue(candidates.get(large));
+		assertFalse(candidates.get(large + 5));
+		assertFalse(candidates.get(large - large / 3));
+		assertEquals(2, candidates.cardinality());
+	}
+
+	@Test
+	public void testSortPairs() {
+		Random random = new Random(42);
+		long[] pairs = new long[2000];
+		for (int i = 0; i < pairs.length; i++) {
+			pairs[i] = random.nextInt(20) - 10;
+		}
+		DeduplicatingProcessor.sortPairs(pairs, 0, pairs.length / 2 - 1);
+		for (int i = 2; i < pairs.length; i += 2) {
+			assertEquals(true, pairs[i - 2] < pairs[i]
+					|| pairs[i - 2] == pairs[i] && pairs[i - 1] <= pairs[i + 1]);
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+public class DistributedAboxerTest extends TestUtils {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * @return an ontology in which classes are blacklisted because of
+	 *         dependencies that cross shards
+	 */
+	OWLOntology createInput() throws Exception {
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLOntology input = manager.createOntology();
+		// a chain A0 -> A1 -> ... -> A9 of convertible existentials
+		for (int i = 0; i < 9; i++) {
+			manager.addAxiom(input, factory.getOWLSubClassOfAxiom(
+					getClass("A" + i),
+					factory.getOWLObjectSomeValuesFrom(r, getClass("A"
+							+ (i + 1)))));
+			manager.addAxiom(input, factory.getOWLSubClassOfAxiom(
+					getClass("B" + i),
+					factory.getOWLObjectSomeValuesFrom(r, getClass("B"
+							+ (i + 1)))));
+		}
+		// A5 is blacklisted, and hence A6, ... A9 as well
+		OWLClass D = getClass("D");
+		manager.addAxiom(input, factory.getOWLSubClassOfAxiom(D,
+				factory.getOWLObjectAllValuesFrom(r, getClass("A5"))));
+		return input;
+	}
+
+	/**
+	 * @return the union of the axioms in the given ontology documents
+	 */
+	static Set<OWLAxiom> load(List<File> files) throws Exception {
+		Set<OWLAxiom> result = new HashSet<OWLAxiom>();
+		OWLOntologyManager resultManager = OWLManager
+				.createOWLOntologyManager();
+		for (File file : files) {
+			result.addAll(resultManager.loadOntologyFromOntologyDocument(file)
+					.getAxioms());
+		}
+		return result;
+	}
+
+	@Test
+	public void testCrossShardDependencies() throws Exception {
+		OWLOntology input = createInput();
+		Set<OWLAxiom> expected = Aboxer.aboxify(input).getAxioms();
+
+		int shardCount = 3;
+		List<File> shards = DistributedAboxer.splitInput(input,
+				folder.newFolder("input"), shardCount);
+		final DistributedAboxer coordinator = new DistributedAboxer(0);
+		final List<Exception> errors = new ArrayList<Exception>();
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int i = 0; i < shardCount; i++) {
+			Thread worker = new Thread() {
+				@Override
+				public void run() {
+					try {
+						DistributedWorker.run("localhost",
+								coordinator.getPort());
+					} catch (Exception e) {
+						synchronized (errors) {
+							errors.add(e);
+						}
+					}
+				}
+			};
+			worker.start();
+			workers.add(worker);
+		}
+		List<File> results = coordinator.aboxify(shards,
+				folder.newFolder("output"));
+		coordinator.close();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals(0, errors.size());
+		assertEquals(expected, load(results));
+	}
+
+	@Test
+	public void testLocalWorkers() throws Exception {
+		OWLOntology input = createInput();
+		Set<OWLAxiom> expected = Aboxer.aboxify(input).getAxioms();
+
+		int shardCount = 2;
+		List<File> shards = DistributedAboxer.splitInput(
+				new OntologyAxiomSource(input), folder.newFolder("input"),
+				shardCount);
+		DistributedAboxer coordinator = new DistributedAboxer(0);
+		coordinator.setAcceptTimeout(60000);
+		List<File> results;
+		try {
+			coordinator.launchLocalWorkers(shardCount);
+			results = coordinator.aboxify(shards, folder.newFolder("output"));
+		} finally {
+			coordinator.close();
+		}
+		assertEquals(expected, load(results));
+	}
+
+	@Test
+	public void testAcceptTimeout() throws Exception {
+		DistributedAboxer coordinator = new DistributedAboxer(0);
+		coordinator.setAcceptTimeout(100);
+		try {
+			coordinator.aboxify(Collections.singletonList(folder
+					.newFile("shard")), folder.newFolder("output"));
+			fail();
+		} catch (IOException e) {
+			// no worker connected
+		} finally {
+			coordinator.close();
+		}
+	}
+
+}
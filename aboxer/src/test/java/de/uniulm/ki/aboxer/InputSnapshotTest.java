@@ -0,0 +1,173 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class InputSnapshotTest extends TestUtils {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLClass C = getClass("C");
+		OWLNamedIndividual a = getIndividual("a");
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLObjectProperty s = getObjectProperty("s");
+
+		OWLOntology ontology = manager.createOntology();
+		manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(A));
+		manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(r));
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(A, factory
+				.getOWLObjectIntersectionOf(B, factory
+						.getOWLObjectSomeValuesFrom(r,
+								factory.getOWLObjectComplementOf(C)))));
+		manager.addAxiom(ontology, factory.getOWLEquivalentClassesAxiom(B,
+				factory.getOWLObjectAllValuesFrom(
+						factory.getOWLObjectInverseOf(r),
+						factory.getOWLObjectUnionOf(A, C))));
+		manager.addAxiom(ontology, factory.getOWLDisjointClassesAxiom(A, C));
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(C,
+				factory.getOWLObjectHasValue(s, a)));
+		manager.addAxiom(ontology, factory.getOWLSubObjectPropertyOfAxiom(r,
+				s));
+		List<OWLObjectProperty> chain = new ArrayList<OWLObjectProperty>();
+		chain.add(r);
+		chain.add(s);
+		manager.addAxiom(ontology,
+				factory.getOWLSubPropertyChainOfAxiom(chain, s));
+		manager.addAxiom(ontology,
+				factory.getOWLTransitiveObjectPropertyAxiom(s));
+		manager.addAxiom(ontology, factory.getOWLClassAssertionAxiom(
+				factory.getOWLObjectOneOf(a), a));
+		manager.addAxiom(ontology,
+				factory.getOWLObjectPropertyAssertionAxiom(r, a, a));
+		// stored using serialization
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(A,
+				factory.getOWLObjectMinCardinality(2, r, C)));
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(C, A,
+				Collections.singleton(factory.getOWLAnnotation(
+						factory.getRDFSComment(),
+						factory.getOWLLiteral("comment")))));
+
+		File file = folder.newFile("snapshot");
+		InputSnapshot.create(ontology, file);
+
+		InputSnapshot snapshot = new InputSnapshot(file, factory);
+		List<OWLAxiom> read = new ArrayList<OWLAxiom>();
+		snapshot.processAxioms(new Collector(read));
+		assertEquals(ontology.getAxioms(), new HashSet<OWLAxiom>(read));
+	}
+
+	@Test
+	public void testSharedAnonymousIndividual() throws Exception {
+		OWLAnonymousIndividual x = factory.getOWLAnonymousIndividual();
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLOntology ontology = manager.createOntology();
+		manager.addAxiom(ontology, factory.getOWLObjectPropertyAssertionAxiom(
+				r, getIndividual("a"), x));
+		// stored using serialization
+		manager.addAxiom(ontology, factory.getOWLClassAssertionAxiom(
+				getClass("A"), x, Collections.singleton(factory
+						.getOWLAnnotation(factory.getRDFSComment(),
+								factory.getOWLLiteral("comment")))));
+
+		File file = folder.newFile("snapshot");
+		InputSnapshot.create(ontology, file);
+
+		List<OWLAxiom> read = new ArrayList<OWLAxiom>();
+		new InputSnapshot(file, factory).processAxioms(new Collector(read));
+		assertEquals(ontology.getAxioms(), new HashSet<OWLAxiom>(read));
+		Set<OWLAnonymousIndividual> individuals = new HashSet<OWLAnonymousIndividual>();
+		for (OWLAxiom axiom : read) {
+			individuals.addAll(axiom.getAnonymousIndividuals());
+		}
+		assertEquals(Collections.singleton(x), individuals);
+	}
+
+	@Test
+	public void testAboxify() throws Exception {
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLOntology ontology = manager.createOntology();
+		for (int i = 0; i < 100; i++) {
+			manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(
+					getClass("A" + i), factory.getOWLObjectSomeValuesFrom(r,
+							getClass("A" + (i + 1) % 100))));
+		}
+		manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(
+				getClass("A50"), getClass("B")));
+
+		File file = folder.newFile("snapshot");
+		InputSnapshot.create(ontology, file);
+
+		Set<OWLAxiom> expected = Aboxer.aboxify(ontology).getAxioms();
+		List<OWLAxiom> actual = new ArrayList<OWLAxiom>();
+		Aboxer.aboxify(new InputSnapshot(file, factory), factory,
+				new Collector(actual), false);
+		assertEquals(expected, new HashSet<OWLAxiom>(actual));
+	}
+
+	@Test
+	public void testFailedCreate() throws Exception {
+		final RuntimeException failure = new RuntimeException("failed");
+		final OWLAxiom axiom = factory.getOWLDeclarationAxiom(getClass("A"));
+		OWLAxiomSource input = new OWLAxiomSource() {
+			@Override
+			public void processAxioms(OWLAxiomProcessor processor) {
+				processor.process(axiom);
+				throw failure;
+			}
+		};
+		File file = new File(folder.getRoot(), "snapshot");
+		try {
+			InputSnapshot.create(input, file);
+			fail();
+		} catch (RuntimeException e) {
+			assertSame(failure, e);
+		}
+		assertFalse(file.exists());
+	}
+
+}
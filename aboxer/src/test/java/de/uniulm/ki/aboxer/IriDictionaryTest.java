@@ -0,0 +1,66 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+
+public class IriDictionaryTest {
+
+	@Test
+	public void testRoundTrip() {
+		IriDictionary dictionary = new IriDictionary();
+		List<IRI> iris = new ArrayList<IRI>();
+		int length = 0;
+		for (int i = 0; i < 1000; i++) {
+			IRI iri = IRI.create("http://www.example.org/ontologies/2013/"
+					+ "very-long-namespace#Class" + i);
+			iris.add(iri);
+			length += iri.length();
+			assertEquals(i, dictionary.getId(iri));
+		}
+		// non-ASCII characters and a shorter IRI after a longer one
+		IRI special = IRI.create("http://www.example.org/\u00e4\u00f6\u00fc");
+		iris.add(special);
+		assertEquals(1000, dictionary.getId(special));
+		iris.add(IRI.create("urn:x"));
+		assertEquals(1001, dictionary.getId(IRI.create("urn:x")));
+
+		assertEquals(iris.size(), dictionary.size());
+		for (int i = 0; i < iris.size(); i++) {
+			assertEquals(i, dictionary.getId(iris.get(i)));
+			assertEquals(i, dictionary.find(iris.get(i)));
+			assertEquals(iris.get(i), dictionary.get(i));
+		}
+		assertEquals(-1, dictionary.find(IRI.create("urn:y")));
+		assertEquals(iris.size(), dictionary.size());
+		// the common prefixes are stored only once per block
+		assertTrue(dictionary.getEncodedSize() < length / 4);
+	}
+
+}
@@ -0,0 +1,144 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Checks that the memory used by the conversion of generated ontologies of
+ * increasing size stays within budgets given in bytes per input axiom. The
+ * budgets can be changed using the system properties
+ * {@value #BLACKLISTER_BUDGET}, {@value #ASSERTION_CREATOR_BUDGET},
+ * {@value #RESULT_BUDGET}, and {@value #ALLOCATION_BUDGET}.
+ * 
+ * @author "Yevgeny Kazakov"
+ * 
+ */
+public class MemoryFootprintTest extends TestUtils {
+
+	static final String BLACKLISTER_BUDGET = "aboxer.budget.blacklister";
+	static final String ASSERTION_CREATOR_BUDGET = "aboxer.budget.assertionCreator";
+	static final String RESULT_BUDGET = "aboxer.budget.result";
+	static final String ALLOCATION_BUDGET = "aboxer.budget.allocation";
+
+	/**
+	 * The sizes of generated ontologies in the numbers of axioms
+	 */
+	static final int[] SIZES = { 10000, 20000, 40000 };
+
+	@Test
+	public void testFootprint() throws Exception {
+		for (int size : SIZES) {
+			OWLOntology ontology = generate(size / 4, 100, true);
+			int axiomCount = ontology.getAxiomCount();
+
+			long baseline = getUsedMemory();
+			Blacklister blacklister = new Blacklister();
+			for (OWLAxiom axiom : ontology.getAxioms()) {
+				axiom.accept(blacklister);
+			}
+			check(BLACKLISTER_BUDGET, 300, getUsedMemory() - baseline,
+					axiomCount);
+
+			baseline = getUsedMemory();
+			AssertionCreator assertionCreator = new AssertionCreator(
+					blacklister.getBlacklistedClasses(), factory,
+					new OWLAxiomProcessor() {
+						@Override
+						public void process(OWLAxiom axiom) {
+							// discard
+						}
+					}, true);
+			for (OWLAxiom axiom : ontology.getAxioms()) {
+				axiom.accept(assertionCreator);
+			}
+			check(ASSERTION_CREATOR_BUDGET, 400, getUsedMemory() - baseline,
+					axiomCount);
+			// keep the measured objects reachable until here
+			assertionCreator.printStatistics();
+
+			baseline = getUsedMemory();
+			long allocated = getAllocatedBytes();
+			OWLOntology result = Aboxer.aboxify(ontology);
+			allocated = getAllocatedBytes() - allocated;
+			check(RESULT_BUDGET, 1500, getUsedMemory() - baseline,
+					axiomCount);
+			if (allocated >= 0)
+				check(ALLOCATION_BUDGET, 6000, allocated, axiomCount);
+			manager.removeOntology(result);
+			manager.removeOntology(ontology);
+		}
+	}
+
+	/**
+	 * Checks that the given number of bytes per axiom is within the budget
+	 * set by the given system property, or the given default budget
+	 */
+	static void check(String budgetProperty, long defaultBudget, long bytes,
+			int axiomCount) {
+		long budget = Long.getLong(budgetProperty, defaultBudget);
+		long bytesPerAxiom = bytes / axiomCount;
+		assertTrue(budgetProperty + " exceeded for " + axiomCount
+				+ " axioms: " + bytesPerAxiom + " bytes per axiom > "
+				+ budget, bytesPerAxiom <= budget);
+	}
+
+	/**
+	 * @return the heap memory used after garbage collection
+	 */
+	static long getUsedMemory() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		long result = Long.MAX_VALUE;
+		// repeat until garbage collection does not free anything
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			Thread.sleep(10);
+			long used = runtime.totalMemory() - runtime.freeMemory();
+			if (used >= result)
+				break;
+			// else
+			result = used;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of bytes allocated by the current thread so far, or
+	 *         -1 if this cannot be measured
+	 */
+	static long getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) bean)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		// else
+		return -1;
+	}
+
+}
@@ -0,0 +1,105 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class ParallelFunctionalSyntaxSourceTest extends TestUtils {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testParse() throws Exception {
+		OWLObjectProperty r = getObjectProperty("http://example.org/r");
+		OWLOntology ontology = manager.createOntology(IRI
+				.create("http://example.org/ontology"));
+		manager.applyChange(new AddOntologyAnnotation(ontology, factory
+				.getOWLAnnotation(factory.getRDFSComment(),
+						factory.getOWLLiteral("test"))));
+		for (int i = 0; i < 1000; i++) {
+			manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(
+					getClass("http://example.org/A" + i), factory
+							.getOWLObjectIntersectionOf(
+									getClass("http://example.org/B" + i),
+									factory.getOWLObjectSomeValuesFrom(r,
+											getClass("http://example.org/A"
+													+ (i + 1))))));
+			manager.addAxiom(ontology, factory.getOWLAnnotationAssertionAxiom(
+					factory.getRDFSLabel(), IRI.create("http://example.org/A"
+							+ i), factory.getOWLLiteral("A (" + i + ")")));
+		}
+		File file = folder.newFile("ontology.owl");
+		manager.saveOntology(ontology, new OWLFunctionalSyntaxOntologyFormat(),
+				IRI.create(file));
+
+		List<OWLAxiom> parsed = new ArrayList<OWLAxiom>();
+		new ParallelFunctionalSyntaxSource(file, 3)
+				.processAxioms(new Collector(parsed));
+		assertEquals(ontology.getAxiomCount(), parsed.size());
+		assertEquals(ontology.getAxioms(), new HashSet<OWLAxiom>(parsed));
+	}
+
+	@Test
+	public void testMultiLineLiterals() throws Exception {
+		OWLOntology ontology = manager.createOntology(IRI
+				.create("http://example.org/ontology"));
+		manager.applyChange(new AddOntologyAnnotation(ontology, factory
+				.getOWLAnnotation(factory.getRDFSComment(),
+						factory.getOWLLiteral("first line\nSecond line"))));
+		for (int i = 0; i < 1000; i++) {
+			manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(
+					getClass("http://example.org/A" + i),
+					getClass("http://example.org/B" + i)));
+			// the continuation lines look like axioms
+			manager.addAxiom(ontology, factory.getOWLAnnotationAssertionAxiom(
+					factory.getRDFSComment(), IRI.create("http://example.org/A"
+							+ i), factory.getOWLLiteral("A" + i
+							+ " is\nSubClassOf(\"B" + i + "\")\nEnd\\")));
+		}
+		File file = folder.newFile("ontology.owl");
+		manager.saveOntology(ontology, new OWLFunctionalSyntaxOntologyFormat(),
+				IRI.create(file));
+
+		List<OWLAxiom> parsed = new ArrayList<OWLAxiom>();
+		new ParallelFunctionalSyntaxSource(file, 3)
+				.processAxioms(new Collector(parsed));
+		assertEquals(ontology.getAxiomCount(), parsed.size());
+		assertEquals(ontology.getAxioms(), new HashSet<OWLAxiom>(parsed));
+	}
+
+}
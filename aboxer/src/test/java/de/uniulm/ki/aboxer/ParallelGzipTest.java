@@ -0,0 +1,130 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class ParallelGzipTest extends TestUtils {
+
+	static byte[] generate(int size) {
+		Random random = new Random(size);
+		byte[] result = new byte[size];
+		for (int i = 0; i < size; i++) {
+			// compressible data
+			result[i] = (byte) ('a' + random.nextInt(4));
+		}
+		return result;
+	}
+
+	static byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 3,
+				1000);
+		// write in pieces of different sizes
+		int offset = 0;
+		for (int i = 0; offset < data.length; i++) {
+			int length = Math.min(i % 1500, data.length - offset);
+			if (length == 1)
+				gzip.write(data[offset]);
+			else
+				gzip.write(data, offset, length);
+			offset += length;
+		}
+		gzip.close();
+		return out.toByteArray();
+	}
+
+	static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		byte[] buffer = new byte[777];
+		int read;
+		while ((read = in.read(buffer)) >= 0) {
+			result.write(buffer, 0, read);
+		}
+		in.close();
+		return result.toByteArray();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		for (int size : new int[] { 0, 1, 999, 1000, 1001, 54321 }) {
+			byte[] data = generate(size);
+			byte[] compressed = compress(data);
+			assertArrayEquals(data, readAll(new ParallelGzipInputStream(
+					new ByteArrayInputStream(compressed), 3)));
+			// readable as a usual gzip file
+			assertArrayEquals(data, readAll(new GZIPInputStream(
+					new ByteArrayInputStream(compressed))));
+		}
+	}
+
+	@Test
+	public void testUsualGzip() throws IOException {
+		byte[] data = generate(12345);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// a member in the parallel format followed by a usual one
+		out.write(compress(data));
+		GZIPOutputStream gzip = new GZIPOutputStream(out);
+		gzip.write(data);
+		gzip.close();
+		byte[] result = readAll(new ParallelGzipInputStream(
+				new ByteArrayInputStream(out.toByteArray()), 2));
+		assertEquals(2 * data.length, result.length);
+	}
+
+	@Test
+	public void testOntology() throws Exception {
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLOntology ontology = manager.createOntology();
+		for (int i = 0; i < 1000; i++) {
+			manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(
+					getClass("A" + i), factory.getOWLObjectSomeValuesFrom(r,
+							getClass("B" + i % 10))));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 2,
+				4096);
+		manager.saveOntology(ontology, new OWLFunctionalSyntaxOntologyFormat(),
+				gzip);
+		gzip.close();
+		manager.removeOntology(ontology);
+		OWLOntology loaded = manager
+				.loadOntologyFromOntologyDocument(new ParallelGzipInputStream(
+						new ByteArrayInputStream(out.toByteArray()), 2));
+		assertEquals(1000, loaded.getLogicalAxiomCount());
+	}
+
+}
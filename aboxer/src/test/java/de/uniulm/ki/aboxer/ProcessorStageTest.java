@@ -0,0 +1,101 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+public class ProcessorStageTest extends TestUtils {
+
+	@Test
+	public void testPipeline() throws Exception {
+		OWLOntology ontology = generate(100, 1, false);
+		OWLOntology expected = Aboxer.aboxify(ontology);
+
+		List<OWLAxiom> all = Collections
+				.synchronizedList(new ArrayList<OWLAxiom>());
+		List<OWLAxiom> assertions = new ArrayList<OWLAxiom>();
+		final List<List<OWLAxiom>> batches = new ArrayList<List<OWLAxiom>>();
+		CountingProcessor counter = new CountingProcessor();
+		TeeProcessor pipeline = new TeeProcessor(counter, new AsyncProcessor(
+				new Collector(all), 2, 7), new AxiomTypeFilterProcessor(
+				new Collector(assertions), AxiomType.CLASS_ASSERTION,
+				AxiomType.OBJECT_PROPERTY_ASSERTION), new BatchingProcessor(
+				new OWLAxiomBatchProcessor() {
+					@Override
+					public void process(List<OWLAxiom> axioms) {
+						batches.add(axioms);
+					}
+				}, 50));
+		Aboxer.aboxify(ontology, pipeline, false);
+		pipeline.close();
+
+		assertEquals(expected.getAxioms(), new HashSet<OWLAxiom>(all));
+		assertEquals(all.size(), counter.getCount());
+		assertEquals(100, counter.getCount(AxiomType.DECLARATION));
+		assertEquals(100, counter.getCount(AxiomType.CLASS_ASSERTION));
+		assertEquals(0, counter.getCount(AxiomType.SUBCLASS_OF));
+		assertEquals(expected.getABoxAxioms(false),
+				new HashSet<OWLAxiom>(assertions));
+		int batched = 0;
+		for (List<OWLAxiom> batch : batches) {
+			assertTrue(batch.size() <= 50);
+			batched += batch.size();
+		}
+		assertEquals(all.size(), batched);
+		assertEquals((all.size() + 49) / 50, batches.size());
+	}
+
+	@Test
+	public void testAsyncFailure() throws IOException {
+		AsyncProcessor processor = new AsyncProcessor(new OWLAxiomProcessor() {
+			@Override
+			public void process(OWLAxiom axiom) {
+				throw new OWLRuntimeException("test");
+			}
+		}, 1, 1);
+		try {
+			for (int i = 0; i < 10; i++) {
+				processor.process(factory
+						.getOWLDeclarationAxiom(getClass("A" + i)));
+			}
+			processor.close();
+			fail();
+		} catch (OWLRuntimeException e) {
+			assertEquals("test", e.getMessage());
+		}
+	}
+
+}
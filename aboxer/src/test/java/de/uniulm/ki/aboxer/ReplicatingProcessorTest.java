@@ -0,0 +1,151 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class ReplicatingProcessorTest extends TestUtils {
+
+	@Test
+	public void testCopies() throws Exception {
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLNamedIndividual a = getIndividual("a");
+		OWLNamedIndividual b = getIndividual("b");
+		List<OWLAxiom> output = new ArrayList<OWLAxiom>();
+		ReplicatingProcessor replicator = new ReplicatingProcessor(factory,
+				new Collector(output), 2);
+		replicator.process(factory.getOWLDeclarationAxiom(a));
+		replicator.process(factory.getOWLClassAssertionAxiom(getClass("A"), a));
+		replicator.process(factory.getOWLObjectPropertyAssertionAxiom(r, a, b));
+		replicator.process(factory.getOWLDeclarationAxiom(r));
+		replicator.close();
+		Set<OWLAxiom> expected = new HashSet<OWLAxiom>();
+		expected.add(factory.getOWLDeclarationAxiom(r));
+		for (int i = 0; i < 2; i++) {
+			OWLNamedIndividual ai = getIndividual("a_copy" + i);
+			expected.add(factory.getOWLDeclarationAxiom(ai));
+			expected.add(factory.getOWLClassAssertionAxiom(getClass("A"), ai));
+			expected.add(factory.getOWLObjectPropertyAssertionAxiom(r, ai,
+					getIndividual("b_copy" + i)));
+		}
+		assertEquals(7, output.size());
+		assertEquals(expected, new HashSet<OWLAxiom>(output));
+	}
+
+	@Test
+	public void testParallelCopies() throws Exception {
+		OWLOntology ontology = generate(3000, 10, false);
+		List<OWLAxiom> original = new ArrayList<OWLAxiom>();
+		Aboxer.aboxify(ontology, new Collector(original), false);
+		int copies = 5;
+		double fraction = 0.2;
+		List<List<OWLAxiom>> outputs = new ArrayList<List<OWLAxiom>>();
+		List<OWLAxiomProcessor> collectors = new ArrayList<OWLAxiomProcessor>();
+		for (int i = 0; i < 2; i++) {
+			List<OWLAxiom> axioms = Collections
+					.synchronizedList(new ArrayList<OWLAxiom>());
+			outputs.add(axioms);
+			collectors.add(new Collector(axioms));
+		}
+		ReplicatingProcessor replicator = new ReplicatingProcessor(factory,
+				collectors, copies, fraction, 42);
+		Aboxer.aboxify(ontology, replicator, false);
+		replicator.close();
+
+		int copied = 0;
+		for (OWLAxiom axiom : original) {
+			if (ReplicatingProcessor.isCopied(axiom))
+				copied++;
+		}
+		assertEquals(copies * copied + original.size() - copied, outputs
+				.get(0).size() + outputs.get(1).size());
+		int edges = 0;
+		int crossEdges = 0;
+		for (List<OWLAxiom> axioms : outputs) {
+			for (OWLAxiom axiom : axioms) {
+				if (!(axiom instanceof OWLObjectPropertyAssertionAxiom))
+					continue;
+				OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+				String subject = assertion.getSubject().asOWLNamedIndividual()
+						.getIRI().toString();
+				String object = assertion.getObject().asOWLNamedIndividual()
+						.getIRI().toString();
+				edges++;
+				if (!getCopy(subject).equals(getCopy(object)))
+					crossEdges++;
+			}
+		}
+		assertEquals(copies * 3000, edges);
+		assertTrue(crossEdges > 0.15 * edges);
+		assertTrue(crossEdges < 0.25 * edges);
+	}
+
+	@Test
+	public void testAnonymousObjects() throws Exception {
+		OWLOntology ontology = generate(300, 10, true);
+		List<OWLAxiom> output = new ArrayList<OWLAxiom>();
+		ReplicatingProcessor replicator = new ReplicatingProcessor(factory,
+				Collections.<OWLAxiomProcessor> singletonList(new Collector(
+						output)), 3, 1, 42);
+		Aboxer.aboxify(ontology, replicator, false);
+		replicator.close();
+		int anonymousEdges = 0;
+		for (OWLAxiom axiom : output) {
+			if (!(axiom instanceof OWLObjectPropertyAssertionAxiom))
+				continue;
+			OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+			String subject = getCopy(assertion.getSubject()
+					.asOWLNamedIndividual().getIRI().toString());
+			if (assertion.getObject().isNamed()) {
+				// all other edges are redirected
+				assertFalse(subject.equals(getCopy(assertion.getObject()
+						.asOWLNamedIndividual().getIRI().toString())));
+				continue;
+			}
+			// else
+			anonymousEdges++;
+			assertEquals(subject, getCopy(assertion.getObject()
+					.asOWLAnonymousIndividual().getID().toString()));
+		}
+		assertEquals(3 * 300, anonymousEdges);
+	}
+
+	static String getCopy(String iri) {
+		return iri.substring(iri.lastIndexOf(ReplicatingProcessor.COPY_SUFFIX));
+	}
+
+}
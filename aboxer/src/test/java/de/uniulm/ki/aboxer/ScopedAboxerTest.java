@@ -0,0 +1,104 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+public class ScopedAboxerTest extends TestUtils {
+
+	@Test
+	public void testScopedConversion() throws Exception {
+		OWLOntology ontology = generate(20, 3, false);
+		// A12 becomes blacklisted, and so all A13, A14,...
+		manager.addAxiom(ontology,
+				factory.getOWLSubClassOfAxiom(getClass("B0"), getClass("A12")));
+		Set<OWLAxiom> expected = Aboxer.aboxify(ontology).getAxioms();
+		ScopedAboxer aboxer = new ScopedAboxer(ontology);
+
+		for (int i : new int[] { 5, 15 }) {
+			Set<OWLAxiom> scoped = aboxer.aboxify(
+					Collections.<OWLEntity> singleton(getClass("A" + i)))
+					.getAxioms();
+			assertTrue(expected.containsAll(scoped));
+			// all axioms about A_i are produced, except for those produced
+			// from the axioms for A_(i-1)
+			Set<OWLAxiom> relevant = new HashSet<OWLAxiom>();
+			for (OWLAxiom axiom : expected) {
+				Set<IRI> iris = getIRIs(axiom.getSignature());
+				if (iris.contains(IRI.create("A" + i))
+						&& !iris.contains(IRI.create("A" + (i - 1))))
+					relevant.add(axiom);
+			}
+			relevant.removeAll(scoped);
+			assertEquals(Collections.emptySet(), relevant);
+		}
+	}
+
+	@Test
+	public void testSharedSuperClass() throws Exception {
+		OWLOntology ontology = manager.createOntology();
+		OWLObjectProperty r = getObjectProperty("r");
+		for (int i = 0; i < 1000; i++) {
+			OWLClass A = getClass("A" + i);
+			manager.addAxiom(ontology,
+					factory.getOWLSubClassOfAxiom(A, getClass("B")));
+			manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(A,
+					factory.getOWLObjectSomeValuesFrom(r, getClass("C" + i))));
+		}
+		// C1 becomes blacklisted
+		manager.addAxiom(ontology, factory.getOWLDisjointClassesAxiom(
+				getClass("C1"), getClass("D")));
+		ScopedAboxer aboxer = new ScopedAboxer(ontology);
+		SyntacticLocalityModuleExtractor extractor = new SyntacticLocalityModuleExtractor(
+				manager, ontology, ModuleType.BOT);
+		Set<OWLAxiom> expected = Aboxer.aboxify(ontology).getAxioms();
+		for (int i : new int[] { 0, 1 }) {
+			Set<OWLAxiom> module = extractor.extract(Collections
+					.<OWLEntity> singleton(getClass("A" + i)));
+			Set<OWLAxiom> processed = new HashSet<OWLAxiom>();
+			aboxer.getBlacklistedClasses(module, processed);
+			// B is blacklisted by the first axiom processed for it
+			assertTrue(processed.size() <= 4);
+			Set<OWLAxiom> scoped = aboxer.aboxify(
+					Collections.<OWLEntity> singleton(getClass("A" + i)))
+					.getAxioms();
+			assertTrue(expected.containsAll(scoped));
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+public class ShardingProcessorTest extends TestUtils {
+
+	@Test
+	public void testComponents() throws OWLOntologyCreationException {
+		OWLClass A = getClass("A");
+		OWLClass B = getClass("B");
+		OWLNamedIndividual a = getIndividual("a");
+		OWLNamedIndividual b = getIndividual("b");
+		OWLNamedIndividual c = getIndividual("c");
+		OWLNamedIndividual d = getIndividual("d");
+		OWLObjectProperty r = getObjectProperty("r");
+
+		ShardingProcessor sharder = new ShardingProcessor();
+
+		OWLAxiom tbox = factory.getOWLSubClassOfAxiom(A, B);
+		sharder.process(tbox);
+		sharder.process(factory.getOWLObjectPropertyAssertionAxiom(r, a, b));
+		sharder.process(factory.getOWLClassAssertionAxiom(A, a));
+		sharder.process(factory.getOWLClassAssertionAxiom(B, c));
+		sharder.process(factory.getOWLClassAssertionAxiom(A, d));
+		sharder.process(factory.getOWLDeclarationAxiom(d));
+		// components {a, b}, {c}, {d}
+		assertEquals(3, sharder.getComponentCount());
+
+		sharder.process(factory.getOWLObjectPropertyAssertionAxiom(r, c,
+				factory.getOWLAnonymousIndividual()));
+		sharder.process(factory.getOWLObjectPropertyAssertionAxiom(r, b, d));
+		// components {a, b, d}, {c, _i}
+		assertEquals(2, sharder.getComponentCount());
+
+		List<OWLOntology> shards = sharder.createShards(manager, 2);
+		assertEquals(2, shards.size());
+		// the larger component {a, b, d} has 5 assertions, the other 2
+		assertEquals(6, shards.get(0).getAxiomCount());
+		assertEquals(3, shards.get(1).getAxiomCount());
+		for (OWLOntology shard : shards) {
+			assertTrue(shard.containsAxiom(tbox));
+		}
+	}
+
+	@Test
+	public void testNominals() throws OWLOntologyCreationException {
+		OWLClass A = getClass("A");
+		OWLNamedIndividual a = getIndividual("a");
+		OWLNamedIndividual b = getIndividual("b");
+		OWLNamedIndividual o = getIndividual("o");
+		OWLObjectProperty r = getObjectProperty("r");
+
+		ShardingProcessor sharder = new ShardingProcessor();
+		sharder.process(factory.getOWLClassAssertionAxiom(A, a));
+		sharder.process(factory.getOWLClassAssertionAxiom(A, b));
+		assertEquals(2, sharder.getComponentCount());
+		// a and b are both connected to o
+		OWLAxiom tbox = factory.getOWLSubClassOfAxiom(A,
+				factory.getOWLObjectHasValue(r, o));
+		sharder.process(tbox);
+		assertEquals(1, sharder.getComponentCount());
+
+		List<OWLOntology> shards = sharder.createShards(manager, 2);
+		assertEquals(3, shards.get(0).getAxiomCount());
+		assertEquals(1, shards.get(1).getAxiomCount());
+		for (OWLOntology shard : shards) {
+			assertTrue(shard.containsAxiom(tbox));
+		}
+	}
+
+	@Test
+	public void testMoreShardsThanComponents()
+			throws OWLOntologyCreationException {
+		OWLNamedIndividual a = getIndividual("a");
+		OWLNamedIndividual b = getIndividual("b");
+		OWLObjectProperty r = getObjectProperty("r");
+
+		ShardingProcessor sharder = new ShardingProcessor();
+		sharder.process(factory.getOWLObjectPropertyAssertionAxiom(r, a, b));
+
+		List<OWLOntology> shards = sharder.createShards(manager, 3);
+		assertEquals(3, shards.size());
+		assertEquals(1, shards.get(0).getAxiomCount());
+		assertEquals(0, shards.get(1).getAxiomCount());
+		assertEquals(0, shards.get(2).getAxiomCount());
+	}
+
+}
@@ -0,0 +1,119 @@
+package de.uniulm.ki.aboxer;
+/*
+ * #%L
+ * TBox to ABox converter
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2013 Institute of Artificial Intelligence, University of Ulm
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+public class StatisticsProcessorTest extends TestUtils {
+
+	static void assertClose(long expected, long actual, double error) {
+		assertTrue(actual + " instead of " + expected,
+				Math.abs(actual - expected) <= error * expected);
+	}
+
+	@Test
+	public void testHyperLogLog() {
+		HyperLogLog sketch = new HyperLogLog(12);
+		assertEquals(0, sketch.estimate());
+		for (int i = 0; i < 100; i++) {
+			sketch.add("a" + i % 10);
+		}
+		assertEquals(10, sketch.estimate());
+		HyperLogLog other = new HyperLogLog(12);
+		for (int i = 0; i < 100000; i++) {
+			sketch.add("b" + i);
+			other.add("c" + i);
+		}
+		assertClose(100010, sketch.estimate(), 0.05);
+		sketch.merge(other);
+		assertClose(200010, sketch.estimate(), 0.05);
+		// objects with equal hash codes are distinguished
+		HyperLogLog colliding = new HyperLogLog(12);
+		colliding.add("Aa");
+		colliding.add("BB");
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		assertEquals(2, colliding.estimate());
+	}
+
+	@Test
+	public void testHeavyHitters() {
+		HeavyHitters<String> hitters = new HeavyHitters<String>(10);
+		for (int i = 0; i < 10000; i++) {
+			hitters.add("x" + i);
+			if (i % 2 == 0)
+				hitters.add("a");
+			if (i % 4 == 0)
+				hitters.add("b");
+		}
+		assertEquals(10, hitters.size());
+		assertEquals(Arrays.asList("a", "b"), hitters.getTop(2));
+		assertTrue(hitters.getCount("a") >= 5000);
+		assertTrue(hitters.getCount("a") - hitters.getError("a") <= 5000);
+		assertTrue(hitters.getCount("b") >= 2500);
+		assertEquals(0, hitters.getCount("c"));
+	}
+
+	@Test
+	public void testStatistics() throws Exception {
+		int size = 20000;
+		OWLOntology ontology = generate(size, 100, false);
+		OWLObjectProperty r = getObjectProperty("r");
+		OWLObjectProperty s = getObjectProperty("s");
+		OWLClass hub = getClass("H");
+		manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(hub));
+		// every Ai is an s-successor of H
+		for (int i = 0; i < size; i++) {
+			manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(
+					getClass("A" + i), factory.getOWLObjectSomeValuesFrom(
+							factory.getOWLObjectInverseOf(s), hub)));
+		}
+		StatisticsProcessor statistics = new StatisticsProcessor();
+		Aboxer.aboxify(ontology, statistics, false);
+		statistics.close();
+
+		assertEquals(size, statistics.getClassAssertionCount());
+		assertEquals(2 * size, statistics.getObjectPropertyAssertionCount());
+		// A0, ..., A(size), and H
+		assertClose(size + 2, statistics.getIndividualCount(), 0.05);
+		assertClose(100, statistics.getClassExpressionCount(), 0.05);
+		assertEquals(asSet(r, s), statistics.getObjectProperties());
+		assertEquals(size, statistics.getAssertionCount(r));
+		assertEquals(size, statistics.getAssertionCount(s));
+		assertClose(size, statistics.getSubjectCount(r), 0.1);
+		assertClose(size, statistics.getObjectCount(r), 0.1);
+		assertEquals(1, statistics.getSubjectCount(s));
+		assertClose(size, statistics.getObjectCount(s), 0.1);
+		assertEquals(Arrays.asList(getIndividual("H")), statistics.getHubs()
+				.getTop(1));
+		assertTrue(statistics.getHubs().getCount(getIndividual("H")) >= size);
+		assertEquals(100, statistics.getFrequentFillers().size());
+	}
+
+}
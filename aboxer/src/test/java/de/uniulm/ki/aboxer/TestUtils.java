@@ -23,14 +23,19 @@ package de.uniulm.ki.aboxer;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 
 public class TestUtils {
@@ -59,8 +64,60 @@ public class TestUtils {
 		return factory.getOWLClass(IRI.create(iri));
 	}
 
+	OWLNamedIndividual getIndividual(String iri) {
+		return factory.getOWLNamedIndividual(IRI.create(iri));
+	}
+
 	OWLObjectProperty getObjectProperty(String iri) {
 		return factory.getOWLObjectProperty(IRI.create(iri));
 	}
 
+	/**
+	 * Creates an ontology whose axioms can be converted to assertions: for
+	 * every i from 0 to size - 1, it contains the declaration of the class
+	 * Ai and the axioms SubClassOf(Ai Bj) and SubClassOf(Ai
+	 * ObjectSomeValuesFrom(r Ai+1)), where j = i mod superClassCount; if
+	 * complexFillers is {@code true}, then also SubClassOf(Ai
+	 * ObjectSomeValuesFrom(r ObjectIntersectionOf(Bj Ck))), where k = i mod
+	 * 10, which is converted using an anonymous individual
+	 */
+	OWLOntology generate(int size, int superClassCount, boolean complexFillers)
+			throws OWLOntologyCreationException {
+		OWLOntology result = manager.createOntology();
+		OWLObjectProperty r = getObjectProperty("r");
+		for (int i = 0; i < size; i++) {
+			OWLClass A = getClass("A" + i);
+			OWLClass B = getClass("B" + i % superClassCount);
+			manager.addAxiom(result, factory.getOWLDeclarationAxiom(A));
+			manager.addAxiom(result, factory.getOWLSubClassOfAxiom(A, B));
+			manager.addAxiom(result, factory.getOWLSubClassOfAxiom(A,
+					factory.getOWLObjectSomeValuesFrom(r,
+							getClass("A" + (i + 1)))));
+			if (complexFillers)
+				manager.addAxiom(result, factory.getOWLSubClassOfAxiom(A,
+						factory.getOWLObjectSomeValuesFrom(r, factory
+								.getOWLObjectIntersectionOf(B,
+										getClass("C" + i % 10)))));
+		}
+		return result;
+	}
+
+	/**
+	 * An {@link OWLAxiomProcessor} that adds the processed axioms to a list
+	 */
+	static class Collector implements OWLAxiomProcessor {
+
+		private final List<OWLAxiom> axioms_;
+
+		Collector(List<OWLAxiom> axioms) {
+			this.axioms_ = axioms;
+		}
+
+		@Override
+		public void process(OWLAxiom axiom) {
+			axioms_.add(axiom);
+		}
+
+	}
+
 }